@@ -30,6 +30,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.puppycrawl.tools.checkstyle.DefaultLogger;
 import com.puppycrawl.tools.checkstyle.SarifLogger;
@@ -443,6 +444,129 @@ public abstract class AbstractCheckstyleReport extends AbstractMavenReport {
     @Parameter(property = "checkstyle.excludeGeneratedSources", defaultValue = "false")
     private boolean excludeGeneratedSources;
 
+    /**
+     * The number of threads used to audit the files, <code>0</code> or less for the number of processors.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.threads", defaultValue = "1")
+    private int threads;
+
+    /**
+     * Specifies whether the files are audited while the source directories are scanned.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.pipelineDiscovery", defaultValue = "false")
+    private boolean pipelineDiscovery;
+
+    /**
+     * The maximum time spent auditing a single file, in seconds, <code>0</code> or less for no limit.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.fileAuditTimeout", defaultValue = "0")
+    private int fileAuditTimeout;
+
+    /**
+     * The maximum size of an audited file, in bytes, <code>0</code> or less for no limit.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.maxFileSize", defaultValue = "0")
+    private long maxFileSize;
+
+    /**
+     * Specifies whether the binary files are detected while the files are discovered.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.detectBinaryFiles", defaultValue = "false")
+    private boolean detectBinaryFiles;
+
+    /**
+     * What is done with the files over {@link #maxFileSize} or binary: "<code>skip</code>" or "<code>warn</code>".
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.fileFilterPolicy", defaultValue = "skip")
+    private String fileFilterPolicy;
+
+    /**
+     * Specifies whether the violations of the unchanged files are replayed from {@link #incrementalCacheFile}.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.incrementalCache", defaultValue = "false")
+    private boolean incrementalCache;
+
+    /**
+     * The file of the incremental cache, see {@link #incrementalCache}.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(
+            property = "checkstyle.incrementalCacheFile",
+            defaultValue = "${project.build.directory}/checkstyle-incremental-cache")
+    private String incrementalCacheFile;
+
+    /**
+     * Only audit the files added or modified since this git revision, like <code>origin/main</code>.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.changedSince")
+    private String changedSince;
+
+    /**
+     * A cache file shared by all the modules of the reactor, used instead of {@link #cacheFile}.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.sharedCacheFile")
+    private String sharedCacheFile;
+
+    /**
+     * Keep the audit of the project for a later goal auditing it with the same inputs, which replays it.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.shareAudit", defaultValue = "false")
+    private boolean shareAudit;
+
+    /**
+     * Write a compact binary copy of the violations of the XML output file, read by <code>checkstyle:check</code>.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.compactOutput", defaultValue = "false")
+    private boolean compactOutput;
+
+    /**
+     * The maximum number of violations kept in memory until the report is rendered, <code>0</code> or less for no
+     * limit.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.maxResultsInMemory", defaultValue = "0")
+    private int maxResultsInMemory;
+
+    /**
+     * The maximum number of violations of each rule listed by the report, <code>0</code> or less for no limit.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.maxViolationsPerRule", defaultValue = "0")
+    private int maxViolationsPerRule;
+
+    /**
+     * The maximum number of violations of each file listed by the report, <code>0</code> or less for no limit.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.maxViolationsPerFile", defaultValue = "0")
+    private int maxViolationsPerFile;
+
     protected ResourceManager locator;
 
     /**
@@ -533,6 +657,20 @@ public abstract class AbstractCheckstyleReport extends AbstractMavenReport {
                     .setLicenseArtifacts(collectArtifacts("license"))
                     .setConfigurationArtifacts(collectArtifacts("configuration"))
                     .setOmitIgnoredModules(omitIgnoredModules)
+                    .setThreads(threads)
+                    .setPipelineDiscovery(pipelineDiscovery)
+                    .setFileAuditTimeout(TimeUnit.SECONDS.toMillis(fileAuditTimeout))
+                    .setMaxFileSize(maxFileSize)
+                    .setDetectBinaryFiles(detectBinaryFiles)
+                    .setFileFilterPolicy(fileFilterPolicy)
+                    .setIncrementalCacheFile(incrementalCache ? incrementalCacheFile : null)
+                    .setChangedSince(changedSince)
+                    .setSharedCacheFile(sharedCacheFile)
+                    .setShareAudit(shareAudit)
+                    .setMaxResultsInMemory(maxResultsInMemory)
+                    .setResultsSpillDirectory(new File(project.getBuild().getDirectory()))
+                    .setMaxViolationsPerRule(maxViolationsPerRule)
+                    .setMaxViolationsPerFile(maxViolationsPerFile)
                     .setConfigLocation(effectiveConfigLocation);
 
             CheckstyleResults results = checkstyleExecutor.executeCheckstyle(request);
@@ -554,7 +692,11 @@ public abstract class AbstractCheckstyleReport extends AbstractMavenReport {
             if (treeWalkerNames != null) {
                 r.setTreeWalkerNames(treeWalkerNames);
             }
-            r.render();
+            try {
+                r.render();
+            } finally {
+                results.close();
+            }
         } catch (CheckstyleException e) {
             throw new MavenReportException("Failed during checkstyle configuration", e);
         } catch (CheckstyleExecutorException e) {
@@ -626,6 +768,12 @@ public abstract class AbstractCheckstyleReport extends AbstractMavenReport {
 
             if ("xml".equals(outputFileFormat)) {
                 listener = new XMLLogger(out, OutputStreamOptions.CLOSE);
+                if (compactOutput) {
+                    CompositeAuditListener compoundListener = new CompositeAuditListener();
+                    compoundListener.addListener(listener);
+                    compoundListener.addListener(CompactResultFile.newWriter(resultFile));
+                    listener = compoundListener;
+                }
             } else if ("plain".equals(outputFileFormat)) {
                 listener = new DefaultLogger(out, OutputStreamOptions.CLOSE);
             } else if ("sarif".equals(outputFileFormat)) {
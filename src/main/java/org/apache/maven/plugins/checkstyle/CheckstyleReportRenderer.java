@@ -22,8 +22,11 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
 
 import com.puppycrawl.tools.checkstyle.api.AuditEvent;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
@@ -394,6 +397,10 @@ public class CheckstyleReportRenderer extends AbstractMavenReportRenderer {
 
         endTable();
 
+        if (results.getSkippedFileCount() > 0) {
+            paragraph(String.format(getI18nString("skipped"), results.getSkippedFileCount()));
+        }
+
         endSection();
     }
 
@@ -427,7 +434,7 @@ public class CheckstyleReportRenderer extends AbstractMavenReportRenderer {
 
         for (String filename : fileList) {
             List<AuditEvent> violations = results.getFileViolations(filename);
-            if (violations.isEmpty()) {
+            if (violations.isEmpty() && results.getOmittedEventCount(filename) == 0) {
                 // skip files without violations
                 continue;
             }
@@ -469,8 +476,9 @@ public class CheckstyleReportRenderer extends AbstractMavenReportRenderer {
 
         for (String file : fileList) {
             List<AuditEvent> violations = results.getFileViolations(file);
+            long omitted = results.getOmittedEventCount(file);
 
-            if (violations.isEmpty()) {
+            if (violations.isEmpty() && omitted == 0) {
                 // skip files without violations
                 continue;
             }
@@ -488,6 +496,9 @@ public class CheckstyleReportRenderer extends AbstractMavenReportRenderer {
             });
 
             renderFileEvents(violations, file);
+            if (omitted > 0) {
+                renderOmittedEvents(omitted);
+            }
 
             endTable();
 
@@ -542,6 +553,29 @@ public class CheckstyleReportRenderer extends AbstractMavenReportRenderer {
         }
     }
 
+    /**
+     * Renders the row of the violations of a file which are counted but not listed.
+     *
+     * @param omitted the number of violations not listed
+     */
+    private void renderOmittedEvents(long omitted) {
+        sink.tableRow();
+        sink.tableCell();
+        sink.tableCell_();
+        sink.tableCell();
+        sink.tableCell_();
+        sink.tableCell();
+        sink.tableCell_();
+        sink.tableCell();
+        sink.italic();
+        sink.text(String.format(getI18nString("omitted"), omitted));
+        sink.italic_();
+        sink.tableCell_();
+        sink.tableCell();
+        sink.tableCell_();
+        sink.tableRow_();
+    }
+
     private String getEffectiveXrefLocation(List<AuditEvent> eventList) {
         String absoluteFilename = eventList.get(0).getFileName();
         if (isTestSource(absoluteFilename)) {
@@ -606,7 +640,15 @@ public class CheckstyleReportRenderer extends AbstractMavenReportRenderer {
     private List<ConfReference> sortConfiguration(CheckstyleResults results) {
         List<ConfReference> result = new ArrayList<>();
 
-        sortConfiguration(result, checkstyleConfig, null, results);
+        // the sources of the violations by rule name, in a stable order
+        Map<String, List<String>> sourceNames = new HashMap<>();
+        for (String sourceName : new TreeSet<>(results.getSourceNames())) {
+            sourceNames
+                    .computeIfAbsent(RuleUtil.getName(sourceName), name -> new ArrayList<>())
+                    .add(sourceName);
+        }
+
+        sortConfiguration(result, checkstyleConfig, null, results, sourceNames);
 
         Collections.sort(result);
 
@@ -617,13 +659,14 @@ public class CheckstyleReportRenderer extends AbstractMavenReportRenderer {
             List<ConfReference> result,
             Configuration config,
             ChainedItem<Configuration> parent,
-            CheckstyleResults results) {
+            CheckstyleResults results,
+            Map<String, List<String>> sourceNames) {
         for (Configuration childConfig : config.getChildren()) {
             String ruleName = childConfig.getName();
 
             if (treeWalkerNames.contains(ruleName)) {
                 // special subcase: TreeWalker is the parent of multiple rules, not an effective rule
-                sortConfiguration(result, childConfig, new ChainedItem<>(config, parent), results);
+                sortConfiguration(result, childConfig, new ChainedItem<>(config, parent), results, sourceNames);
             } else {
                 String fixedmessage = getConfigProperty(childConfig, null, "message", null);
                 // Grab the severity from the rule configuration. Do not set default value here as
@@ -631,21 +674,20 @@ public class CheckstyleReportRenderer extends AbstractMavenReportRenderer {
                 // not appropriate fix location per MCHECKSTYLE-365.
                 String configSeverity = getConfigProperty(childConfig, null, "severity", null);
 
-                // count rule violations
+                // count rule violations, from the counts of their sources
                 long violations = 0;
-                AuditEvent lastMatchedEvent = null;
-                for (List<AuditEvent> errors : results.getFiles().values()) {
-                    for (AuditEvent event : errors) {
-                        if (matchRule(event, ruleName, fixedmessage, configSeverity)) {
-                            lastMatchedEvent = event;
-                            violations++;
-                        }
+                String lastMatchedSource = null;
+                for (String sourceName : sourceNames.getOrDefault(ruleName, Collections.emptyList())) {
+                    long sourceViolations = countViolations(results, sourceName, fixedmessage, configSeverity);
+                    if (sourceViolations > 0) {
+                        lastMatchedSource = sourceName;
+                        violations += sourceViolations;
                     }
                 }
 
                 if (violations > 0) // forget rules without violations
                 {
-                    String category = RuleUtil.getCategory(lastMatchedEvent);
+                    String category = RuleUtil.getCategory(lastMatchedSource);
 
                     result.add(new ConfReference(category, childConfig, parent, violations, result.size()));
                 }
@@ -653,6 +695,35 @@ public class CheckstyleReportRenderer extends AbstractMavenReportRenderer {
         }
     }
 
+    /**
+     * Counts the violations of a source matching a rule, like {@link #matchRule} does.
+     *
+     * @param results the results
+     * @param sourceName the name of the source of the violations
+     * @param expectedMessage a message that, if it's not null, will be matched to the message of the violations
+     * @param expectedSeverity a severity that, if it's not null, will be matched to the severity of the violations
+     * @return the number of violations of the source matching the rule, including the omitted ones
+     */
+    private static long countViolations(
+            CheckstyleResults results, String sourceName, String expectedMessage, String expectedSeverity) {
+        long violations = 0;
+        for (SeverityLevel level : SeverityLevel.values()) {
+            if (expectedSeverity != null && !expectedSeverity.equals(level.getName())) {
+                continue;
+            }
+            if (expectedMessage == null) {
+                violations += results.getSourceSeverityCount(sourceName, level);
+            } else {
+                violations += results.getSourceSeverityCount(sourceName, expectedMessage, level);
+                String msgWithoutSingleQuote = expectedMessage.replace("'", "");
+                if (!msgWithoutSingleQuote.equals(expectedMessage)) {
+                    violations += results.getSourceSeverityCount(sourceName, msgWithoutSingleQuote, level);
+                }
+            }
+        }
+        return violations;
+    }
+
     private static class ConfReference implements Comparable<ConfReference> {
         private final String category;
         private final Configuration configuration;
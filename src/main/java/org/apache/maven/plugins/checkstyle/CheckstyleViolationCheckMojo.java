@@ -27,16 +27,20 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import com.puppycrawl.tools.checkstyle.DefaultLogger;
 import com.puppycrawl.tools.checkstyle.SarifLogger;
 import com.puppycrawl.tools.checkstyle.XMLLogger;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
 import com.puppycrawl.tools.checkstyle.api.AuditListener;
 import com.puppycrawl.tools.checkstyle.api.AutomaticBean.OutputStreamOptions;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
@@ -56,6 +60,8 @@ import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.plugins.checkstyle.exec.CheckstyleExecutor;
 import org.apache.maven.plugins.checkstyle.exec.CheckstyleExecutorException;
 import org.apache.maven.plugins.checkstyle.exec.CheckstyleExecutorRequest;
+import org.apache.maven.plugins.checkstyle.exec.CheckstyleResults;
+import org.apache.maven.plugins.checkstyle.exec.UpToDateCheck;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.configuration.PlexusConfiguration;
 import org.codehaus.plexus.util.FileUtils;
@@ -484,7 +490,127 @@ public class CheckstyleViolationCheckMojo extends AbstractMojo {
     @Parameter(property = "checkstyle.excludeGeneratedSources", defaultValue = "false")
     private boolean excludeGeneratedSources;
 
-    private File outputXmlFile;
+    /**
+     * The number of threads used to audit the files, <code>0</code> or less for the number of processors.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.threads", defaultValue = "1")
+    private int threads;
+
+    /**
+     * Specifies whether the files are audited while the source directories are scanned.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.pipelineDiscovery", defaultValue = "false")
+    private boolean pipelineDiscovery;
+
+    /**
+     * The maximum time spent auditing a single file, in seconds, <code>0</code> or less for no limit.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.fileAuditTimeout", defaultValue = "0")
+    private int fileAuditTimeout;
+
+    /**
+     * The maximum size of an audited file, in bytes, <code>0</code> or less for no limit.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.maxFileSize", defaultValue = "0")
+    private long maxFileSize;
+
+    /**
+     * Specifies whether the binary files are detected while the files are discovered.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.detectBinaryFiles", defaultValue = "false")
+    private boolean detectBinaryFiles;
+
+    /**
+     * What is done with the files over {@link #maxFileSize} or binary: "<code>skip</code>" or "<code>warn</code>".
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.fileFilterPolicy", defaultValue = "skip")
+    private String fileFilterPolicy;
+
+    /**
+     * Specifies whether the violations of the unchanged files are replayed from {@link #incrementalCacheFile}.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.incrementalCache", defaultValue = "false")
+    private boolean incrementalCache;
+
+    /**
+     * The file of the incremental cache, see {@link #incrementalCache}.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(
+            property = "checkstyle.incrementalCacheFile",
+            defaultValue = "${project.build.directory}/checkstyle-incremental-cache")
+    private String incrementalCacheFile;
+
+    /**
+     * Only audit the files added or modified since this git revision, like <code>origin/main</code>.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.changedSince")
+    private String changedSince;
+
+    /**
+     * A cache file shared by all the modules of the reactor, used instead of {@link #cacheFile}.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.sharedCacheFile")
+    private String sharedCacheFile;
+
+    /**
+     * Keep the audit of the project for a later goal auditing it with the same inputs, which replays it.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.shareAudit", defaultValue = "false")
+    private boolean shareAudit;
+
+    /**
+     * Stop auditing the files as soon as the number of violations is above {@link #maxAllowedViolations}.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.failFast", defaultValue = "false")
+    private boolean failFast;
+
+    /**
+     * Skip the audit when nothing it depends on changed since the last complete audit, see {@link #upToDateFile}.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.upToDateCheck", defaultValue = "false")
+    private boolean upToDateCheck;
+
+    /**
+     * The file keeping the state of the last complete audit, see {@link #upToDateCheck}.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.upToDateFile", defaultValue = "${project.build.directory}/checkstyle-up-to-date")
+    private File upToDateFile;
+
+    /**
+     * Write a compact binary copy of the violations of the XML output file next to it, read instead of the XML file.
+     *
+     * @since 3.6.1
+     */
+    @Parameter(property = "checkstyle.compactOutput", defaultValue = "false")
+    private boolean compactOutput;
 
     /**
      * @since 2.5
@@ -507,8 +633,8 @@ public class CheckstyleViolationCheckMojo extends AbstractMojo {
             return;
         }
 
-        outputXmlFile = outputFile;
-
+        // the violations are counted while the files are audited, or read from the output file of a previous audit
+        ViolationCounter violationCounter = null;
         if (!skipExec) {
             String effectiveConfigLocation = configLocation;
             if (checkstyleRules != null) {
@@ -524,53 +650,22 @@ public class CheckstyleViolationCheckMojo extends AbstractMojo {
 
                 try {
                     FileUtils.forceMkdir(rulesFiles.getParentFile());
-                    FileUtils.fileWrite(rulesFiles, checkstyleRulesHeader + checkerModule.toString());
+                    String rules = checkstyleRulesHeader + checkerModule.toString();
+                    // an unchanged file keeps its modification time, for the up to date check
+                    if (!rulesFiles.isFile() || !rules.equals(FileUtils.fileRead(rulesFiles))) {
+                        FileUtils.fileWrite(rulesFiles, rules);
+                    }
                 } catch (final IOException e) {
                     throw new MojoExecutionException(e.getMessage(), e);
                 }
                 effectiveConfigLocation = rulesFiles.getAbsolutePath();
             }
 
-            ClassLoader currentClassLoader = Thread.currentThread().getContextClassLoader();
-
-            try {
-                CheckstyleExecutorRequest request = new CheckstyleExecutorRequest();
-                request.setConsoleListener(getConsoleListener())
-                        .setConsoleOutput(consoleOutput)
-                        .setExcludes(excludes)
-                        .setFailsOnError(failsOnError)
-                        .setIncludes(includes)
-                        .setResourceIncludes(resourceIncludes)
-                        .setResourceExcludes(resourceExcludes)
-                        .setIncludeResources(includeResources)
-                        .setIncludeTestResources(includeTestResources)
-                        .setIncludeTestSourceDirectory(includeTestSourceDirectory)
-                        .setListener(getListener())
-                        .setProject(project)
-                        .setSourceDirectories(getSourceDirectories())
-                        .setResources(resources)
-                        .setTestResources(testResources)
-                        .setSuppressionsLocation(suppressionsLocation)
-                        .setTestSourceDirectories(getTestSourceDirectories())
-                        .setConfigLocation(effectiveConfigLocation)
-                        .setConfigurationArtifacts(collectArtifacts("config"))
-                        .setPropertyExpansion(propertyExpansion)
-                        .setHeaderLocation(headerLocation)
-                        .setLicenseArtifacts(collectArtifacts("license"))
-                        .setCacheFile(cacheFile)
-                        .setSuppressionsFileExpression(suppressionsFileExpression)
-                        .setEncoding(inputEncoding)
-                        .setPropertiesLocation(propertiesLocation)
-                        .setOmitIgnoredModules(omitIgnoredModules);
-                checkstyleExecutor.executeCheckstyle(request);
-
-            } catch (CheckstyleException e) {
-                throw new MojoExecutionException("Failed during checkstyle configuration", e);
-            } catch (CheckstyleExecutorException e) {
-                throw new MojoExecutionException("Failed during checkstyle execution", e);
-            } finally {
-                // be sure to restore original context classloader
-                Thread.currentThread().setContextClassLoader(currentClassLoader);
+            UpToDateCheck check = getUpToDateCheck(effectiveConfigLocation);
+            if (check != null && check.isUpToDate(outputFile)) {
+                getLog().info("Skipping the Checkstyle audit, nothing changed since " + outputFile + " was written.");
+            } else {
+                violationCounter = executeCheckstyle(effectiveConfigLocation, check);
             }
         }
 
@@ -579,42 +674,249 @@ public class CheckstyleViolationCheckMojo extends AbstractMojo {
                     + "', checkstyle:check requires format to be 'xml' when using skipExec.");
         }
 
-        if (!outputXmlFile.exists()) {
-            getLog().info("Unable to perform checkstyle:check, unable to find checkstyle:checkstyle outputFile.");
+        if (violationCounter != null) {
+            logIgnored(violationCounter.ignored, violationCounter.count);
+            checkViolationCount(violationCounter.count);
             return;
         }
 
-        try (InputStream in = Files.newInputStream(outputXmlFile.toPath())) {
-            XmlPullParser xpp = new MXParser();
-            xpp.setInput(in, null); // null tells the parser to detect the encoding
+        if (!outputFile.exists()) {
+            getLog().info("Unable to perform checkstyle:check, unable to find checkstyle:checkstyle outputFile.");
+            return;
+        }
 
-            final List<Violation> violationsList = getViolations(xpp);
+        try {
+            final List<Violation> violationsList = getViolations();
             long violationCount = countViolations(violationsList);
             printViolations(violationsList);
+            checkViolationCount(violationCount);
+        } catch (IOException | XmlPullParserException e) {
+            throw new MojoExecutionException(
+                    "Unable to read Checkstyle results xml: " + outputFile.getAbsolutePath(), e);
+        }
+    }
 
-            String msg = "You have " + violationCount + " Checkstyle violation"
-                    + ((violationCount > 1 || violationCount == 0) ? "s" : "") + ".";
+    /**
+     * Fails the build, or warns, when there are too many violations.
+     *
+     * @param violationCount the number of violations
+     */
+    private void checkViolationCount(long violationCount) throws MojoFailureException {
+        String msg = "You have " + violationCount + " Checkstyle violation"
+                + ((violationCount > 1 || violationCount == 0) ? "s" : "") + ".";
 
-            if (violationCount > maxAllowedViolations) {
-                if (failOnViolation) {
-                    if (maxAllowedViolations > 0) {
-                        msg += " The maximum number of allowed violations is " + maxAllowedViolations + ".";
-                    }
-                    throw new MojoFailureException(msg);
+        if (violationCount > maxAllowedViolations) {
+            if (failOnViolation) {
+                if (maxAllowedViolations > 0) {
+                    msg += " The maximum number of allowed violations is " + maxAllowedViolations + ".";
                 }
+                throw new MojoFailureException(msg);
+            }
 
-                getLog().warn("checkstyle:check violations detected but failOnViolation set to false");
+            getLog().warn("checkstyle:check violations detected but failOnViolation set to false");
+        }
+        if (logViolationCountToConsole) {
+            if (maxAllowedViolations > 0) {
+                msg += " The maximum number of allowed violations is " + maxAllowedViolations + ".";
             }
-            if (logViolationCountToConsole) {
-                if (maxAllowedViolations > 0) {
-                    msg += " The maximum number of allowed violations is " + maxAllowedViolations + ".";
+            getLog().info(msg);
+        }
+    }
+
+    /**
+     * Audits the files, writing the output file.
+     *
+     * @param effectiveConfigLocation the location of the configuration
+     * @param check the check of the audit being up to date, given the state of the audit, can be <code>null</code>
+     * @return the counter of the violations of the audit
+     */
+    private ViolationCounter executeCheckstyle(String effectiveConfigLocation, UpToDateCheck check)
+            throws MojoExecutionException, MojoFailureException {
+        ClassLoader currentClassLoader = Thread.currentThread().getContextClassLoader();
+
+        ViolationCounter violationCounter = new ViolationCounter();
+        boolean stopOnLimit = failFast && failOnViolation;
+        try {
+            CompositeAuditListener listener = new CompositeAuditListener();
+            listener.addListener(violationCounter);
+            AuditListener outputListener = getListener();
+            if (outputListener != null) {
+                listener.addListener(outputListener);
+            }
+
+            CheckstyleExecutorRequest request = new CheckstyleExecutorRequest();
+            request.setConsoleListener(getConsoleListener())
+                    .setConsoleOutput(consoleOutput)
+                    .setExcludes(excludes)
+                    .setFailsOnError(failsOnError)
+                    .setIncludes(includes)
+                    .setResourceIncludes(resourceIncludes)
+                    .setResourceExcludes(resourceExcludes)
+                    .setIncludeResources(includeResources)
+                    .setIncludeTestResources(includeTestResources)
+                    .setIncludeTestSourceDirectory(includeTestSourceDirectory)
+                    .setListener(listener)
+                    .setProject(project)
+                    .setSourceDirectories(getSourceDirectories())
+                    .setResources(resources)
+                    .setTestResources(testResources)
+                    .setSuppressionsLocation(suppressionsLocation)
+                    .setTestSourceDirectories(getTestSourceDirectories())
+                    .setConfigLocation(effectiveConfigLocation)
+                    .setConfigurationArtifacts(collectArtifacts("config"))
+                    .setPropertyExpansion(propertyExpansion)
+                    .setHeaderLocation(headerLocation)
+                    .setLicenseArtifacts(collectArtifacts("license"))
+                    .setCacheFile(cacheFile)
+                    .setSuppressionsFileExpression(suppressionsFileExpression)
+                    .setEncoding(inputEncoding)
+                    .setPropertiesLocation(propertiesLocation)
+                    .setOmitIgnoredModules(omitIgnoredModules)
+                    .setThreads(threads)
+                    .setPipelineDiscovery(pipelineDiscovery)
+                    .setFileAuditTimeout(TimeUnit.SECONDS.toMillis(fileAuditTimeout))
+                    .setMaxFileSize(maxFileSize)
+                    .setDetectBinaryFiles(detectBinaryFiles)
+                    .setFileFilterPolicy(fileFilterPolicy)
+                    .setIncrementalCacheFile(incrementalCache ? incrementalCacheFile : null)
+                    .setChangedSince(changedSince)
+                    .setSharedCacheFile(sharedCacheFile)
+                    .setShareAudit(shareAudit)
+                    .setStopCondition(stopOnLimit ? violationCounter::isLimitExceeded : null)
+                    .setUpToDateCheck(check)
+                    .setCollectResults(false);
+            CheckstyleResults results = checkstyleExecutor.executeCheckstyle(request);
+            if (results.getSkippedFileCount() > 0) {
+                getLog().warn(results.getSkippedFileCount() + " files were not audited (fileFilterPolicy "
+                        + fileFilterPolicy + "), run with -X to list them.");
+            }
+
+            if (stopOnLimit && violationCounter.isLimitExceeded()) {
+                getLog().info("The maximum number of allowed violations was exceeded, the audit was stopped"
+                        + " (failFast).");
+            } else if (check != null) {
+                try {
+                    if (!check.record(outputFile)) {
+                        getLog().debug("Files were modified during the audit, it is not kept as up to date.");
+                    }
+                } catch (IOException e) {
+                    getLog().warn("Unable to write " + upToDateFile + ": " + e.getMessage());
                 }
-                getLog().info(msg);
             }
-        } catch (IOException | XmlPullParserException e) {
-            throw new MojoExecutionException(
-                    "Unable to read Checkstyle results xml: " + outputXmlFile.getAbsolutePath(), e);
+
+        } catch (CheckstyleException e) {
+            throw new MojoExecutionException("Failed during checkstyle configuration", e);
+        } catch (CheckstyleExecutorException e) {
+            throw new MojoExecutionException("Failed during checkstyle execution", e);
+        } finally {
+            // be sure to restore original context classloader
+            Thread.currentThread().setContextClassLoader(currentClassLoader);
+        }
+        return violationCounter;
+    }
+
+    /**
+     * @param effectiveConfigLocation the location of the configuration
+     * @return the check of the audit being up to date, <code>null</code> if it is not used
+     */
+    private UpToDateCheck getUpToDateCheck(String effectiveConfigLocation) {
+        if (!upToDateCheck || !"xml".equals(outputFileFormat) || (changedSince != null && !changedSince.isEmpty())) {
+            return null;
+        }
+        UpToDateCheck check = new UpToDateCheck(upToDateFile, threads);
+        check.addInput("plugin", plugin.getId());
+        for (Artifact artifact : plugin.getArtifacts()) {
+            check.addInput("artifact", artifact.getId());
+            if (artifact.getFile() != null) {
+                check.addInputFile(artifact.getFile());
+            }
+        }
+        String[] locations = {effectiveConfigLocation, propertiesLocation, headerLocation, suppressionsLocation};
+        for (String location : locations) {
+            if (!addLocation(check, location)) {
+                getLog().debug("The audit is not checked to be up to date, " + location + " is remote.");
+                return null;
+            }
+        }
+        check.addInput("propertyExpansion", propertyExpansion)
+                .addInput("suppressionsFileExpression", suppressionsFileExpression)
+                .addInput("includes", includes)
+                .addInput("excludes", excludes)
+                .addInput("resourceIncludes", resourceIncludes)
+                .addInput("resourceExcludes", resourceExcludes)
+                .addInput("includeTestSourceDirectory", String.valueOf(includeTestSourceDirectory))
+                .addInput("includeResources", String.valueOf(includeResources))
+                .addInput("includeTestResources", String.valueOf(includeTestResources))
+                .addInput("encoding", inputEncoding)
+                .addInput("omitIgnoredModules", String.valueOf(omitIgnoredModules))
+                .addInput("maxFileSize", String.valueOf(maxFileSize))
+                .addInput("detectBinaryFiles", String.valueOf(detectBinaryFiles))
+                .addInput("fileFilterPolicy", fileFilterPolicy)
+                .addInput("outputFile", outputFile.getAbsolutePath());
+
+        // a root created since the last audit is not seen from the directories it scanned
+        List<File> roots = new ArrayList<>(getSourceDirectories());
+        if (includeTestSourceDirectory) {
+            roots.addAll(getTestSourceDirectories());
+        }
+        List<Resource> rootResources = new ArrayList<>();
+        if (includeResources && resources != null) {
+            rootResources.addAll(resources);
+        }
+        if (includeTestResources && testResources != null) {
+            rootResources.addAll(testResources);
+        }
+        for (Resource resource : rootResources) {
+            if (resource.getDirectory() != null) {
+                roots.add(new File(resource.getDirectory()));
+                check.addInput("resource", resource.getIncludes() + " " + resource.getExcludes());
+            }
+        }
+        for (File root : roots) {
+            check.addInput(root.getAbsolutePath(), String.valueOf(root.isDirectory()));
+        }
+        return check;
+    }
+
+    /**
+     * Adds a location to the inputs of the up to date check. A local file is compared by content, while a resource of
+     * the plugin dependencies is covered by their artifacts.
+     *
+     * @param check the up to date check
+     * @param location the location of a resource, can be <code>null</code>
+     * @return <code>false</code> if the location is remote, and cannot be compared
+     */
+    private boolean addLocation(UpToDateCheck check, String location) {
+        check.addInput("location", location);
+        if (location == null || location.isEmpty()) {
+            return true;
+        }
+        File file;
+        try {
+            if (location.startsWith("file:")) {
+                file = new File(URI.create(location));
+            } else if (location.matches("[a-zA-Z][a-zA-Z0-9+.-]+:.*")) {
+                return false;
+            } else {
+                file = new File(location);
+            }
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (file.isAbsolute()) {
+            check.addInputFile(file);
+            return true;
         }
+        // the relative locations are looked up in the directories of the project and of its parents, the files which
+        // do not exist are expected to still not exist
+        for (MavenProject parent = project; parent != null && parent.getFile() != null; parent = parent.getParent()) {
+            File candidate = new File(parent.getFile().getParentFile(), location);
+            check.addInputFile(candidate);
+            if (candidate.isFile()) {
+                break;
+            }
+        }
+        return true;
     }
 
     private void checkDeprecatedParameterUsage(Object parameter, String name, String replacement)
@@ -626,6 +928,46 @@ public class CheckstyleViolationCheckMojo extends AbstractMojo {
         }
     }
 
+    private List<Violation> getViolations() throws XmlPullParserException, IOException {
+        List<Violation> violations = getCompactViolations();
+        if (violations != null) {
+            return violations;
+        }
+        try (InputStream in = Files.newInputStream(outputFile.toPath())) {
+            XmlPullParser xpp = new MXParser();
+            xpp.setInput(in, null); // null tells the parser to detect the encoding
+            return getViolations(xpp);
+        }
+    }
+
+    /**
+     * @return the violations read from the compact result file of the XML output file, <code>null</code> if there is
+     *         none matching the XML output file
+     */
+    private List<Violation> getCompactViolations() throws IOException {
+        List<Violation> violations = new ArrayList<>();
+
+        String basedir = project.getBasedir().getAbsolutePath();
+        // the file names and the sources are the same instances for all their errors
+        Map<String, String> files = new HashMap<>();
+        Map<String, String[]> rules = new HashMap<>();
+
+        boolean read = CompactResultFile.read(outputFile, (file, line, column, severity, source, message) -> {
+            String relativeFile = files.computeIfAbsent(file, name -> PathTool.getRelativeFilePath(basedir, name));
+            String[] rule = rules.computeIfAbsent(
+                    source, name -> new String[] {RuleUtil.getName(name), RuleUtil.getCategory(name)});
+
+            Violation violation =
+                    new Violation(source, relativeFile, String.valueOf(line), severity, message, rule[0], rule[1]);
+            if (column > 0) {
+                violation.setColumn(String.valueOf(column));
+            }
+
+            violations.add(violation);
+        });
+        return read ? violations : null;
+    }
+
     private List<Violation> getViolations(XmlPullParser xpp) throws XmlPullParserException, IOException {
         List<Violation> violations = new ArrayList<>();
 
@@ -682,12 +1024,16 @@ public class CheckstyleViolationCheckMojo extends AbstractMojo {
             countedViolations++;
         }
 
+        logIgnored(ignored, countedViolations);
+
+        return countedViolations;
+    }
+
+    private void logIgnored(int ignored, int countedViolations) {
         if (ignored > 0) {
             getLog().info("Ignored " + ignored + " error" + ((ignored > 1L) ? "s" : "") + ", " + countedViolations
                     + " violation" + ((countedViolations > 1) ? "s" : "") + " remaining.");
         }
-
-        return countedViolations;
     }
 
     private void printViolations(List<Violation> violations) {
@@ -701,17 +1047,20 @@ public class CheckstyleViolationCheckMojo extends AbstractMojo {
         violations.stream()
                 .filter(violation -> isViolation(violation.getSeverity()))
                 .filter(violation -> !ignore(ignores, violation.getSource()))
-                .forEach(violation -> {
-                    final String message = String.format(
-                            "%s:[%s%s] (%s) %s: %s",
-                            violation.getFile(),
-                            violation.getLine(),
-                            (Violation.NO_COLUMN.equals(violation.getColumn())) ? "" : (',' + violation.getColumn()),
-                            violation.getCategory(),
-                            violation.getRuleName(),
-                            violation.getMessage());
-                    log(violation.getSeverity(), message);
-                });
+                .forEach(violation -> log(
+                        violation.getSeverity(),
+                        formatViolation(
+                                violation.getFile(),
+                                violation.getLine(),
+                                Violation.NO_COLUMN.equals(violation.getColumn()) ? "" : ',' + violation.getColumn(),
+                                violation.getCategory(),
+                                violation.getRuleName(),
+                                violation.getMessage())));
+    }
+
+    private static String formatViolation(
+            String file, String line, String column, String category, String ruleName, String message) {
+        return String.format("%s:[%s%s] (%s) %s: %s", file, line, column, category, ruleName, message);
     }
 
     private void log(String severity, String message) {
@@ -753,6 +1102,87 @@ public class CheckstyleViolationCheckMojo extends AbstractMojo {
         return false;
     }
 
+    /**
+     * Counts the violations while the files are audited, the same way {@link #countViolations(List)} does, and logs
+     * them as they arrive, like {@link #printViolations(List)}, so that the violations are neither written to an XML
+     * file and read back nor kept in memory.
+     */
+    private class ViolationCounter implements AuditListener {
+        private final List<RuleUtil.Matcher> ignores =
+                violationIgnore == null ? Collections.emptyList() : RuleUtil.parseMatchers(violationIgnore.split(","));
+
+        private final String basedir = project.getBasedir().getAbsolutePath();
+
+        /** The last file of a violation, with its path relative to the base directory. */
+        private String fileName;
+
+        private String relativeFileName;
+
+        private int count;
+
+        private int ignored;
+
+        boolean isLimitExceeded() {
+            return count > maxAllowedViolations;
+        }
+
+        @Override
+        public void auditStarted(AuditEvent event) {
+            // nothing to count
+        }
+
+        @Override
+        public void auditFinished(AuditEvent event) {
+            // nothing to count
+        }
+
+        @Override
+        public void fileStarted(AuditEvent event) {
+            // nothing to count
+        }
+
+        @Override
+        public void fileFinished(AuditEvent event) {
+            // nothing to count
+        }
+
+        @Override
+        public void addError(AuditEvent event) {
+            String severity = event.getSeverityLevel().getName();
+            if (!isViolation(severity)) {
+                return;
+            }
+            // same source as the one written by XMLLogger
+            String source = event.getModuleId() == null ? event.getSourceName() : event.getModuleId();
+            if (ignore(ignores, source)) {
+                ignored++;
+                return;
+            }
+            count++;
+
+            if (logViolationsToConsole) {
+                if (!event.getFileName().equals(fileName)) {
+                    fileName = event.getFileName();
+                    relativeFileName = PathTool.getRelativeFilePath(basedir, fileName);
+                }
+                log(
+                        severity,
+                        formatViolation(
+                                relativeFileName,
+                                String.valueOf(event.getLine()),
+                                event.getColumn() > 0 ? "," + event.getColumn() : "",
+                                RuleUtil.getCategory(source),
+                                RuleUtil.getName(source),
+                                event.getMessage()));
+            }
+        }
+
+        @Override
+        public void addException(AuditEvent event, Throwable throwable) {
+            // exceptions are not violations
+        }
+    }
+
     private AuditListener getConsoleListener() throws MojoExecutionException {
         AuditListener consoleListener;
 
@@ -793,35 +1223,20 @@ public class CheckstyleViolationCheckMojo extends AbstractMojo {
 
             if ("xml".equals(outputFileFormat)) {
                 listener = new XMLLogger(out, OutputStreamOptions.CLOSE);
-            } else if ("plain".equals(outputFileFormat)) {
-                try {
-                    // Write a plain output file to the standard output file,
-                    // and write an XML output file to the temp directory that can be used to count violations
-                    outputXmlFile =
-                            Files.createTempFile("checkstyle-result", ".xml").toFile();
-                    outputXmlFile.deleteOnExit();
-                    OutputStream xmlOut = getOutputStream(outputXmlFile);
+                if (compactOutput) {
                     CompositeAuditListener compoundListener = new CompositeAuditListener();
-                    compoundListener.addListener(new XMLLogger(xmlOut, OutputStreamOptions.CLOSE));
-                    compoundListener.addListener(new DefaultLogger(out, OutputStreamOptions.CLOSE));
+                    compoundListener.addListener(listener);
+                    compoundListener.addListener(CompactResultFile.newWriter(resultFile));
                     listener = compoundListener;
-                } catch (IOException e) {
-                    throw new MojoExecutionException("Unable to create temporary file", e);
                 }
+            } else if ("plain".equals(outputFileFormat)) {
+                // the violations are counted while the files are audited, without an XML output file
+                listener = new DefaultLogger(out, OutputStreamOptions.CLOSE);
             } else if ("sarif".equals(outputFileFormat)) {
                 try {
-                    // Write a sarif output file to the standard output file,
-                    // and write an XML output file to the temp directory that can be used to count violations
-                    outputXmlFile =
-                            Files.createTempFile("checkstyle-result", ".xml").toFile();
-                    outputXmlFile.deleteOnExit();
-                    OutputStream xmlOut = getOutputStream(outputXmlFile);
-                    CompositeAuditListener compoundListener = new CompositeAuditListener();
-                    compoundListener.addListener(new XMLLogger(xmlOut, OutputStreamOptions.CLOSE));
-                    compoundListener.addListener(new SarifLogger(out, OutputStreamOptions.CLOSE));
-                    listener = compoundListener;
+                    listener = new SarifLogger(out, OutputStreamOptions.CLOSE);
                 } catch (IOException e) {
-                    throw new MojoExecutionException("Unable to create temporary file", e);
+                    throw new MojoExecutionException("Unable to create the SARIF logger", e);
                 }
             } else {
                 throw new MojoFailureException(
@@ -0,0 +1,360 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+/**
+ * Compact binary copy of the errors of an XML output file, written next to it, which is read much faster than the XML
+ * output file.
+ * <p>
+ * The file holds one record per error: its file, line, column, severity, source and message, as written by the
+ * <code>XMLLogger</code>. The numbers are written as variable-length integers, and each string is written once, the
+ * first time it is used, and referenced by its index afterwards. The file ends with the size and the modification time
+ * of the XML output file once complete, so that a copy which does not match its XML output file is not read.
+ *
+ * @since 3.6.1
+ */
+final class CompactResultFile {
+    private static final int MAGIC = 0x43535242;
+
+    private static final int VERSION = 1;
+
+    private static final int ERROR = 1;
+
+    private static final int END = 0;
+
+    /** The size of the end of the file: the size and the modification time of the XML output file. */
+    private static final int TRAILER_SIZE = 16;
+
+    private CompactResultFile() {
+        // utility class
+    }
+
+    /**
+     * Receives the errors read from a compact result file.
+     */
+    interface Visitor {
+        /**
+         * @param file the file of the error, the same instance for all the errors of a file
+         * @param line the line of the error
+         * @param column the column of the error, <code>0</code> if none
+         * @param severity the name of the severity of the error
+         * @param source the source of the error
+         * @param message the message of the error
+         */
+        void error(String file, int line, int column, String severity, String source, String message);
+    }
+
+    /**
+     * @param xmlFile an XML output file
+     * @return the compact result file of the XML output file
+     */
+    static File getFile(File xmlFile) {
+        return new File(xmlFile.getParentFile(), xmlFile.getName() + ".bin");
+    }
+
+    /**
+     * Creates the listener writing the compact result file of an XML output file. It must be notified after the
+     * <code>XMLLogger</code> writing the XML output file, which is complete once the audit is finished.
+     *
+     * @param xmlFile the XML output file
+     * @return the listener
+     */
+    static AuditListener newWriter(File xmlFile) {
+        return new Writer(xmlFile);
+    }
+
+    /**
+     * Reads the errors of an XML output file from its compact result file.
+     *
+     * @param xmlFile the XML output file
+     * @param visitor the visitor of the errors
+     * @return <code>false</code> if there is no compact result file matching the XML output file, in which case the
+     *         visitor was not notified
+     * @throws IOException if the compact result file cannot be read
+     */
+    static boolean read(File xmlFile, Visitor visitor) throws IOException {
+        File file = getFile(xmlFile);
+        if (!file.isFile()) {
+            return false;
+        }
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 9 + TRAILER_SIZE || size > Integer.MAX_VALUE) {
+                return false;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        int trailer = buffer.limit() - TRAILER_SIZE;
+        if (buffer.getInt(0) != MAGIC
+                || buffer.getInt(4) != VERSION
+                || buffer.get(trailer - 1) != END
+                || buffer.getLong(trailer) != xmlFile.length()
+                || buffer.getLong(trailer + 8) != xmlFile.lastModified()) {
+            return false;
+        }
+
+        buffer.limit(trailer);
+        try {
+            // the records are checked, and the strings decoded, before the visitor is notified
+            Records records = new Records(buffer);
+            int errors = 0;
+            while (records.next()) {
+                records.skipError();
+                errors++;
+            }
+            if (buffer.hasRemaining()) {
+                return false;
+            }
+
+            records.rewind();
+            for (int i = 0; i < errors; i++) {
+                records.next();
+                String fileName = records.readString();
+                int line = records.readVarInt();
+                int column = records.readVarInt();
+                String severity = records.readString();
+                String source = records.readString();
+                String message = records.readString();
+                visitor.error(fileName, line, column, severity, source, message);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reads the records of a compact result file. The strings are decoded the first time the records are read, and
+     * reused when they are read again.
+     */
+    private static final class Records {
+        private final ByteBuffer buffer;
+
+        private final List<String> strings = new ArrayList<>();
+
+        /** The number of strings defined so far by the records read since the last rewind. */
+        private int defined;
+
+        Records(ByteBuffer buffer) {
+            this.buffer = buffer;
+            rewind();
+        }
+
+        void rewind() {
+            buffer.position(8);
+            defined = 0;
+        }
+
+        /**
+         * @return <code>false</code> if the end of the records is reached
+         */
+        boolean next() {
+            int tag = buffer.get();
+            if (tag == END) {
+                return false;
+            } else if (tag != ERROR) {
+                throw new IllegalArgumentException("Unknown record " + tag);
+            }
+            return true;
+        }
+
+        void skipError() {
+            readString();
+            readVarInt();
+            readVarInt();
+            readString();
+            readString();
+            readString();
+        }
+
+        int readVarInt() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed variable-length integer");
+        }
+
+        /**
+         * Reads a string: a reference to a string defined before, or the definition of a new string.
+         */
+        String readString() {
+            int reference = readVarInt();
+            if (reference > 0) {
+                if (reference > defined) {
+                    throw new IllegalArgumentException("Undefined string " + reference);
+                }
+                return strings.get(reference - 1);
+            }
+            int length = readVarInt();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IllegalArgumentException("Malformed string");
+            }
+            if (defined < strings.size()) {
+                buffer.position(buffer.position() + length);
+                return strings.get(defined++);
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(value);
+            defined++;
+            return value;
+        }
+    }
+
+    /**
+     * The listener writing the compact result file, to a temporary file until the audit is finished.
+     */
+    private static final class Writer implements AuditListener {
+        private final File xmlFile;
+
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        private Path temporary;
+
+        private DataOutputStream out;
+
+        Writer(File xmlFile) {
+            this.xmlFile = xmlFile;
+        }
+
+        @Override
+        public void auditStarted(AuditEvent event) {
+            try {
+                Path target = getFile(xmlFile).toPath().toAbsolutePath();
+                // a previous compact result file does not match the new XML output file
+                Files.deleteIfExists(target);
+                Files.createDirectories(target.getParent());
+                temporary = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+                temporary.toFile().deleteOnExit();
+                out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to write " + getFile(xmlFile), e);
+            }
+        }
+
+        @Override
+        public void auditFinished(AuditEvent event) {
+            try {
+                out.write(END);
+                // the XMLLogger has closed the XML output file
+                out.writeLong(xmlFile.length());
+                out.writeLong(xmlFile.lastModified());
+                out.close();
+                Path target = getFile(xmlFile).toPath().toAbsolutePath();
+                try {
+                    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to write " + getFile(xmlFile), e);
+            }
+        }
+
+        @Override
+        public void fileStarted(AuditEvent event) {
+            // the file is written with each error
+        }
+
+        @Override
+        public void fileFinished(AuditEvent event) {
+            // the file is written with each error
+        }
+
+        @Override
+        public void addError(AuditEvent event) {
+            // the same errors as the ones written by XMLLogger
+            if (SeverityLevel.IGNORE.equals(event.getSeverityLevel())) {
+                return;
+            }
+            try {
+                out.write(ERROR);
+                writeString(event.getFileName());
+                writeVarInt(out, event.getLine());
+                writeVarInt(out, Math.max(event.getColumn(), 0));
+                writeString(event.getSeverityLevel().getName());
+                writeString(event.getModuleId() == null ? event.getSourceName() : event.getModuleId());
+                writeString(event.getMessage());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to write " + getFile(xmlFile), e);
+            }
+        }
+
+        @Override
+        public void addException(AuditEvent event, Throwable throwable) {
+            // exceptions are not errors
+        }
+
+        private void writeString(String value) throws IOException {
+            String string = value == null ? "" : value;
+            Integer index = strings.get(string);
+            if (index != null) {
+                writeVarInt(out, index + 1);
+                return;
+            }
+            strings.put(string, strings.size());
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, 0);
+            writeVarInt(out, bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static void writeVarInt(OutputStream out, int value) throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.write(remaining);
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.puppycrawl.tools.checkstyle.PropertyCacheFile;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+/**
+ * The Checkstyle cache file of an execution.
+ * <p>
+ * The Checker normally maintains this file itself. It is maintained here instead, with the same rules, so that
+ * several Checker instances can audit the files of a single execution: files that are in the cache are skipped, and
+ * a file is added to the cache once it has been processed without any violation.
+ * <p>
+ * The entries are kept in a {@link Store}: the Checkstyle cache file of the execution, or a {@link SharedCacheFile}
+ * shared by the executions of the reactor.
+ *
+ * @since 3.6.1
+ */
+class AuditCache implements AuditListener {
+    /**
+     * The entries of the cache: the files processed without any violation, with their timestamp.
+     */
+    interface Store {
+        /**
+         * @throws IOException if the store cannot be read
+         */
+        void load() throws IOException;
+
+        /**
+         * Prepares the lookup of files, for instance by detecting their changes in parallel.
+         *
+         * @param files the files about to be looked up
+         */
+        default void prefetch(Collection<File> files) {
+            // nothing to prepare
+        }
+
+        /**
+         * @param fileName the absolute path of a file
+         * @param timestamp the timestamp of the file
+         * @return <code>true</code> if the file is in the store with the same timestamp
+         */
+        boolean isInCache(String fileName, long timestamp);
+
+        /**
+         * @param fileName the absolute path of a file
+         * @param timestamp the timestamp of the file
+         */
+        void put(String fileName, long timestamp);
+
+        /**
+         * @param fileName the absolute path of a file
+         */
+        void remove(String fileName);
+
+        /**
+         * @throws IOException if the store cannot be written
+         */
+        void persist() throws IOException;
+    }
+
+    private final Store cacheFile;
+
+    private final PropertyCacheFile propertyCacheFile;
+
+    /** The timestamps of the files to process, which may be discovered while others are processed. */
+    private final Map<String, Long> timestamps = new ConcurrentHashMap<>();
+
+    /**
+     * @param configuration the effective Checkstyle configuration, used to invalidate the cache when it changes
+     * @param fileName the path of the cache file
+     */
+    AuditCache(Configuration configuration, String fileName) {
+        this.propertyCacheFile = new PropertyCacheFile(configuration, fileName);
+        this.cacheFile = new Store() {
+            @Override
+            public void load() throws IOException {
+                propertyCacheFile.load();
+            }
+
+            @Override
+            public boolean isInCache(String fileName, long timestamp) {
+                return propertyCacheFile.isInCache(fileName, timestamp);
+            }
+
+            @Override
+            public void put(String fileName, long timestamp) {
+                propertyCacheFile.put(fileName, timestamp);
+            }
+
+            @Override
+            public void remove(String fileName) {
+                propertyCacheFile.remove(fileName);
+            }
+
+            @Override
+            public void persist() throws IOException {
+                propertyCacheFile.persist();
+            }
+        };
+    }
+
+    /**
+     * @param store the store of the entries, whose fingerprint covers the configuration and the resources it depends
+     *            on
+     */
+    AuditCache(Store store) {
+        this.propertyCacheFile = null;
+        this.cacheFile = store;
+    }
+
+    /**
+     * Loads the cache file.
+     *
+     * @param externalResourceLocations the locations of the resources the configured modules depend on
+     * @throws IOException if the cache file cannot be read
+     */
+    void load(Set<String> externalResourceLocations) throws IOException {
+        cacheFile.load();
+        if (propertyCacheFile != null) {
+            propertyCacheFile.putExternalResources(externalResourceLocations);
+        }
+    }
+
+    /**
+     * @param files the files to process
+     * @return the files that are not up to date in the cache
+     */
+    List<File> getFilesToProcess(List<File> files) {
+        cacheFile.prefetch(files);
+        List<File> filesToProcess = new ArrayList<>(files.size());
+        for (File file : files) {
+            if (isToProcess(file)) {
+                filesToProcess.add(file);
+            }
+        }
+        return filesToProcess;
+    }
+
+    /**
+     * @param file a file to process
+     * @return <code>true</code> if the file is not up to date in the cache
+     */
+    boolean isToProcess(File file) {
+        String fileName = file.getAbsolutePath();
+        long timestamp = file.lastModified();
+        if (cacheFile.isInCache(fileName, timestamp)) {
+            return false;
+        }
+        timestamps.put(fileName, timestamp);
+        return true;
+    }
+
+    /**
+     * Writes the cache file.
+     *
+     * @throws IOException if the cache file cannot be written
+     */
+    void persist() throws IOException {
+        cacheFile.persist();
+    }
+
+    @Override
+    public void auditStarted(AuditEvent event) {
+        // nothing to do
+    }
+
+    @Override
+    public void auditFinished(AuditEvent event) {
+        // nothing to do
+    }
+
+    @Override
+    public void fileStarted(AuditEvent event) {
+        Long timestamp = timestamps.get(event.getFileName());
+        if (timestamp != null) {
+            cacheFile.put(event.getFileName(), timestamp);
+        }
+    }
+
+    @Override
+    public void fileFinished(AuditEvent event) {
+        // nothing to do
+    }
+
+    @Override
+    public void addError(AuditEvent event) {
+        cacheFile.remove(event.getFileName());
+    }
+
+    @Override
+    public void addException(AuditEvent event, Throwable throwable) {
+        cacheFile.remove(event.getFileName());
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+
+/**
+ * Listener recording the events a Checker fires while processing a set of files.
+ * <p>
+ * The first block of events received for one of the given files is kept as the audit of that file. Any other block,
+ * like the ones fired by checks comparing several files once all of them have been processed, is kept apart as a
+ * trailing audit.
+ *
+ * @since 3.6.1
+ */
+class AuditRecorder implements AuditListener {
+    private final Set<String> fileNames;
+
+    private final Map<String, FileAudit> fileAudits = new HashMap<>();
+
+    private final List<FileAudit> trailingAudits = new ArrayList<>();
+
+    private FileAudit currentAudit;
+
+    /** The file being processed, read by the watchdog of the time budget. */
+    private volatile String currentFileName;
+
+    private volatile long currentFileStart;
+
+    /**
+     * @param files the files the Checker is about to process
+     */
+    AuditRecorder(Collection<File> files) {
+        this.fileNames = new HashSet<>();
+        for (File file : files) {
+            fileNames.add(file.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Removes and returns the recorded audit of a file.
+     *
+     * @param fileName the absolute path of the file
+     * @return the audit of the file, or <code>null</code> if the Checker did not process it
+     */
+    FileAudit removeFileAudit(String fileName) {
+        return fileAudits.remove(fileName);
+    }
+
+    /**
+     * Adds the audit of a file which was not processed by the Checker, like a file abandoned because it exceeded its
+     * time budget.
+     *
+     * @param fileAudit the audit of the file
+     */
+    void addFileAudit(FileAudit fileAudit) {
+        fileAudits.put(fileAudit.getFileName(), fileAudit);
+    }
+
+    /**
+     * @return the audits of the files which have not been removed yet
+     */
+    Collection<FileAudit> getFileAudits() {
+        return fileAudits.values();
+    }
+
+    /**
+     * @param trailingAudit a block of events that does not belong to the processing of a single file
+     */
+    void addTrailingAudit(FileAudit trailingAudit) {
+        trailingAudits.add(trailingAudit);
+    }
+
+    /**
+     * @return the absolute path of the file being processed, <code>null</code> if none
+     */
+    String getCurrentFileName() {
+        return currentFileName;
+    }
+
+    /**
+     * @return the time the processing of the current file started, as returned by {@link System#nanoTime()}
+     */
+    long getCurrentFileStart() {
+        return currentFileStart;
+    }
+
+    /**
+     * @return the blocks of events that do not belong to the processing of a single file
+     */
+    List<FileAudit> getTrailingAudits() {
+        return trailingAudits;
+    }
+
+    @Override
+    public void auditStarted(AuditEvent event) {
+        // the audit is started once for all the recorders
+    }
+
+    @Override
+    public void auditFinished(AuditEvent event) {
+        // the audit is finished once for all the recorders
+    }
+
+    @Override
+    public void fileStarted(AuditEvent event) {
+        String fileName = event.getFileName();
+        currentFileStart = System.nanoTime();
+        currentFileName = fileName;
+        currentAudit = new FileAudit(fileName);
+        if (fileNames.contains(fileName) && !fileAudits.containsKey(fileName)) {
+            fileAudits.put(fileName, currentAudit);
+        } else {
+            trailingAudits.add(currentAudit);
+        }
+        currentAudit.fileStarted(event);
+    }
+
+    @Override
+    public void fileFinished(AuditEvent event) {
+        getCurrentAudit(event).fileFinished(event);
+        currentAudit = null;
+        currentFileName = null;
+    }
+
+    @Override
+    public void addError(AuditEvent event) {
+        getCurrentAudit(event).addError(event);
+    }
+
+    @Override
+    public void addException(AuditEvent event, Throwable throwable) {
+        getCurrentAudit(event).addException(event, throwable);
+    }
+
+    private FileAudit getCurrentAudit(AuditEvent event) {
+        if (currentAudit == null) {
+            // events fired outside of a fileStarted/fileFinished pair
+            currentAudit = new FileAudit(event.getFileName());
+            trailingAudits.add(currentAudit);
+        }
+        return currentAudit;
+    }
+}
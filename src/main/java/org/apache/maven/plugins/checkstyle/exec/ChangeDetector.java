@@ -0,0 +1,253 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Detects the files whose content changed since a previous state, without reading the files whose metadata did not
+ * change: the size and the last modification time of a file are compared first with its previous state, and the
+ * content hash of the file is only computed if they differ. The hashes are computed in parallel.
+ * <p>
+ * It is shared by the caches of an execution, and counts the files found unchanged from their metadata alone, the
+ * files hashed, and the files whose content actually changed.
+ *
+ * @since 3.6.1
+ */
+class ChangeDetector implements AutoCloseable {
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    private final int threads;
+
+    private ExecutorService executorService;
+
+    private final AtomicInteger statHits = new AtomicInteger();
+
+    private final AtomicInteger hashedFiles = new AtomicInteger();
+
+    private final AtomicInteger changedFiles = new AtomicInteger();
+
+    /**
+     * @param threads the number of threads computing the hashes
+     */
+    ChangeDetector(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Gets the current state of files.
+     *
+     * @param files the files
+     * @param previousStates gives the previous state of a file from its absolute path, <code>null</code> if unknown
+     * @return the current state of the files which can be read, by absolute path
+     * @throws IOException if the detection is interrupted
+     */
+    Map<String, FileState> detect(Collection<File> files, Function<String, FileState> previousStates)
+            throws IOException {
+        Map<String, FileState> states = new HashMap<>();
+        List<File> toHash = new ArrayList<>();
+        List<FileState> previousOfHashed = new ArrayList<>();
+        for (File file : files) {
+            String fileName = file.getAbsolutePath();
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            } catch (IOException e) {
+                // the Checker reports the files it cannot read
+                continue;
+            }
+            long size = attributes.size();
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            FileState previous = previousStates.apply(fileName);
+            if (previous != null && previous.size == size && previous.lastModified == lastModified) {
+                statHits.incrementAndGet();
+                states.put(fileName, previous);
+            } else {
+                toHash.add(file);
+                previousOfHashed.add(previous);
+                states.put(fileName, new FileState(size, lastModified, null));
+            }
+        }
+
+        List<String> hashes = hash(toHash);
+        for (int i = 0; i < toHash.size(); i++) {
+            String fileName = toHash.get(i).getAbsolutePath();
+            String hash = hashes.get(i);
+            if (hash == null) {
+                states.remove(fileName);
+                continue;
+            }
+            FileState stat = states.get(fileName);
+            states.put(fileName, new FileState(stat.size, stat.lastModified, hash));
+            FileState previous = previousOfHashed.get(i);
+            if (previous == null || !hash.equals(previous.hash)) {
+                changedFiles.incrementAndGet();
+            }
+        }
+        return states;
+    }
+
+    /**
+     * Gets the current state of a file.
+     *
+     * @param file a file
+     * @param previous the previous state of the file, <code>null</code> if unknown
+     * @return the current state of the file, <code>null</code> if it cannot be read
+     * @throws IOException if the detection is interrupted
+     */
+    FileState detect(File file, FileState previous) throws IOException {
+        return detect(Collections.singletonList(file), name -> previous).get(file.getAbsolutePath());
+    }
+
+    /**
+     * @return the hashes of the files, <code>null</code> for a file which cannot be read
+     */
+    private List<String> hash(List<File> files) throws IOException {
+        hashedFiles.addAndGet(files.size());
+        List<String> hashes = new ArrayList<>(files.size());
+        if (files.size() < 2 || threads < 2) {
+            for (File file : files) {
+                hashes.add(hash(file));
+            }
+            return hashes;
+        }
+        List<Future<String>> futures = new ArrayList<>(files.size());
+        ExecutorService executor = getExecutorService();
+        for (File file : files) {
+            futures.add(executor.submit(() -> hash(file)));
+        }
+        try {
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while hashing the files", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to hash the files", e.getCause());
+        } finally {
+            for (Future<String> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return hashes;
+    }
+
+    private static String hash(File file) {
+        try {
+            return Fingerprint.of(file);
+        } catch (IOException e) {
+            // the Checker reports the files it cannot read
+            return null;
+        }
+    }
+
+    private synchronized ExecutorService getExecutorService() {
+        if (executorService == null) {
+            int poolNumber = POOL_NUMBER.incrementAndGet();
+            AtomicInteger threadNumber = new AtomicInteger();
+            executorService = Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(
+                        runnable, "checkstyle-hash-" + poolNumber + "-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executorService;
+    }
+
+    /**
+     * @return the number of files found unchanged from their size and last modification time alone
+     */
+    int getStatHits() {
+        return statHits.get();
+    }
+
+    /**
+     * @return the number of files whose content was hashed
+     */
+    int getHashedFiles() {
+        return hashedFiles.get();
+    }
+
+    /**
+     * @return the number of files whose content changed, or which were not known before
+     */
+    int getChangedFiles() {
+        return changedFiles.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executorService != null) {
+            executorService.shutdownNow();
+            executorService = null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return statHits + " files unchanged from their metadata, " + hashedFiles + " hashed, " + changedFiles
+                + " changed";
+    }
+
+    /**
+     * The state of a file: its size, its last modification time and the hash of its content.
+     */
+    static final class FileState {
+        private final long size;
+
+        private final long lastModified;
+
+        private final String hash;
+
+        FileState(long size, long lastModified, String hash) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+        String getHash() {
+            return hash;
+        }
+    }
+}
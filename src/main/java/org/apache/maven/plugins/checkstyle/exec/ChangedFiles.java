@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The files added or modified in a git working tree since a given revision, including the untracked files which are
+ * not ignored. They are listed by the <code>git</code> command, which only reads the local repository.
+ *
+ * @since 3.6.1
+ */
+class ChangedFiles {
+    private static final long GIT_TIMEOUT_SECONDS = 60;
+
+    private final Set<Path> files;
+
+    private int excludedFileCount;
+
+    ChangedFiles(Set<Path> files) {
+        this.files = files;
+    }
+
+    /**
+     * Lists the files added or modified under a directory since a revision.
+     *
+     * @param directory a directory of the working tree, the files outside of it are not listed
+     * @param revision the revision to compare the working tree with, like <code>origin/main</code>
+     * @return the changed files
+     * @throws IOException if the repository cannot be read, or if the revision is unknown
+     */
+    static ChangedFiles since(File directory, String revision) throws IOException {
+        if (revision.startsWith("-")) {
+            throw new IOException("Invalid revision: " + revision);
+        }
+        Set<Path> files = new HashSet<>();
+        List<String> names = new ArrayList<>();
+        names.addAll(git(directory, "diff", "--name-only", "-z", "--relative", "--diff-filter=ACMR", revision, "--"));
+        names.addAll(git(directory, "ls-files", "--others", "--exclude-standard", "-z"));
+        for (String name : names) {
+            files.add(normalize(new File(directory, name)));
+        }
+        return new ChangedFiles(files);
+    }
+
+    private static List<String> git(File directory, String... arguments) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(arguments));
+        ProcessBuilder builder = new ProcessBuilder(command).directory(directory);
+        // the messages of git are not worth reading, only its exit code
+        builder.redirectError(new File(File.separatorChar == '\\' ? "NUL" : "/dev/null"));
+        Process process = builder.start();
+        try {
+            process.getOutputStream().close();
+            byte[] output = readFully(process.getInputStream());
+            if (!process.waitFor(GIT_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new IOException("Timed out running " + String.join(" ", command));
+            }
+            if (process.exitValue() != 0) {
+                throw new IOException(
+                        "Failed to run " + String.join(" ", command) + ", exit code " + process.exitValue());
+            }
+            List<String> names = new ArrayList<>();
+            for (String name : new String(output, StandardCharsets.UTF_8).split("\0")) {
+                if (!name.isEmpty()) {
+                    names.add(name);
+                }
+            }
+            return names;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running " + String.join(" ", command), e);
+        } finally {
+            process.destroy();
+        }
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static Path normalize(File file) {
+        return file.getAbsoluteFile().toPath().normalize();
+    }
+
+    /**
+     * Called from the thread of the discovery.
+     *
+     * @param file a discovered file
+     * @return <code>true</code> if the file was added or modified
+     */
+    boolean accept(File file) {
+        if (files.contains(normalize(file))) {
+            return true;
+        }
+        excludedFileCount++;
+        return false;
+    }
+
+    /**
+     * @return the number of files added or modified
+     */
+    int size() {
+        return files.size();
+    }
+
+    /**
+     * @return the number of discovered files left out because they were not changed
+     */
+    int getExcludedFileCount() {
+        return excludedFileCount;
+    }
+}
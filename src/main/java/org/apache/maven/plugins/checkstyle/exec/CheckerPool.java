@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of configured Checker instances, shared by the executions of a build.
+ * <p>
+ * Configuring a Checker instantiates and configures every module of the configuration, which is repeated for each
+ * module of a reactor using the same ruleset. The Checkers are kept here once an execution is done with them, keyed
+ * by a fingerprint of their configuration (the properties are already expanded) and of their module class loader, so
+ * that the next execution with the same configuration can reuse them. The fingerprint is relocatable: the header and
+ * suppressions files copied under the target directory of each module are fingerprinted by their content, not by
+ * their location, so that the modules of a reactor share their Checkers. For the same reason, the Checkers never
+ * maintain the cache file of a module: it is left out of their configuration, and maintained by each execution with
+ * an {@link AuditCache}.
+ *
+ * @since 3.6.1
+ */
+@Named
+@Singleton
+public class CheckerPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CheckerPool.class);
+
+    private final int maxIdleCheckers;
+
+    /** The idle Checkers by key, the least recently used key first. */
+    private final Map<String, Deque<PooledChecker>> idleCheckers = new LinkedHashMap<>(16, 0.75f, true);
+
+    private int idleCount;
+
+    public CheckerPool() {
+        this(2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param maxIdleCheckers the maximum number of idle Checkers kept in the pool
+     */
+    CheckerPool(int maxIdleCheckers) {
+        this.maxIdleCheckers = maxIdleCheckers;
+    }
+
+    /**
+     * Leases a Checker configured with a configuration, creating it if no idle one is available. The Checker is
+     * configured without the <code>cacheFile</code> of the configuration, which is maintained by the execution.
+     *
+     * @param configuration the Checkstyle configuration
+     * @param moduleClassLoader the class loader of the Checkstyle modules
+     * @return the configured Checker, to give back with {@link #release(PooledChecker, boolean)}
+     * @throws CheckstyleException if the Checker cannot be configured
+     */
+    PooledChecker lease(Configuration configuration, ClassLoader moduleClassLoader) throws CheckstyleException {
+        Configuration checkerConfiguration = withoutCacheFile(configuration);
+        String key = getKey(checkerConfiguration, moduleClassLoader);
+        synchronized (this) {
+            Deque<PooledChecker> checkers = idleCheckers.get(key);
+            while (checkers != null && !checkers.isEmpty()) {
+                PooledChecker checker = checkers.pop();
+                idleCount--;
+                if (checkers.isEmpty()) {
+                    idleCheckers.remove(key);
+                }
+                if (checker.getModuleClassLoader() == moduleClassLoader && checker.isUpToDate()) {
+                    LOGGER.debug("Reusing a configured Checker.");
+                    return checker;
+                }
+                checker.getChecker().destroy();
+            }
+        }
+
+        Checker checker = new Checker();
+        checker.setModuleClassLoader(moduleClassLoader);
+
+        ExternalResourceCollector moduleFactory = new ExternalResourceCollector(moduleClassLoader);
+        checker.setModuleFactory(moduleFactory);
+        checker.configure(checkerConfiguration);
+
+        return new PooledChecker(checker, key, moduleClassLoader, moduleFactory.getExternalResourceLocations());
+    }
+
+    /**
+     * Gives back a leased Checker. The listeners and filters added by the execution are removed.
+     *
+     * @param checker the leased Checker
+     * @param reusable <code>false</code> if the Checker must not be reused, for example after it failed
+     */
+    void release(PooledChecker checker, boolean reusable) {
+        checker.reset();
+        if (!reusable) {
+            checker.getChecker().destroy();
+            return;
+        }
+        synchronized (this) {
+            idleCheckers.computeIfAbsent(checker.getKey(), k -> new ArrayDeque<>()).push(checker);
+            idleCount++;
+
+            Iterator<Deque<PooledChecker>> leastRecentlyUsed = idleCheckers.values().iterator();
+            while (idleCount > maxIdleCheckers) {
+                Deque<PooledChecker> checkers = leastRecentlyUsed.next();
+                while (idleCount > maxIdleCheckers && !checkers.isEmpty()) {
+                    checkers.removeLast().getChecker().destroy();
+                    idleCount--;
+                }
+                if (checkers.isEmpty()) {
+                    leastRecentlyUsed.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy the root module of a configuration, without its <code>cacheFile</code> attribute.
+     * The child modules are shared with the original configuration.
+     *
+     * @param config the Checkstyle configuration
+     * @return the copy of the configuration, or the configuration itself if it has no <code>cacheFile</code>
+     * @throws CheckstyleException if the configuration cannot be copied
+     */
+    static Configuration withoutCacheFile(Configuration config) throws CheckstyleException {
+        String[] names = config.getPropertyNames();
+        if (!Arrays.asList(names).contains("cacheFile")) {
+            return config;
+        }
+        DefaultConfiguration copy = config instanceof DefaultConfiguration
+                ? new DefaultConfiguration(config.getName(), ((DefaultConfiguration) config).getThreadModeSettings())
+                : new DefaultConfiguration(config.getName());
+        for (String name : names) {
+            if (!"cacheFile".equals(name)) {
+                copy.addProperty(name, config.getProperty(name));
+            }
+        }
+        for (Map.Entry<String, String> message : config.getMessages().entrySet()) {
+            copy.addMessage(message.getKey(), message.getValue());
+        }
+        for (Configuration child : config.getChildren()) {
+            copy.addChild(child);
+        }
+        return copy;
+    }
+
+    private static String getKey(Configuration configuration, ClassLoader moduleClassLoader)
+            throws CheckstyleException {
+        return System.identityHashCode(moduleClassLoader) + "-"
+                + new Fingerprint(true).add(configuration).toHex();
+    }
+}
@@ -28,7 +28,6 @@ import com.puppycrawl.tools.checkstyle.api.AutomaticBean;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
 import com.puppycrawl.tools.checkstyle.api.Configuration;
 import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
-import org.apache.commons.lang3.StringUtils;
 
 /**
  * Listener in charge of receiving events from the Checker.
@@ -37,7 +36,7 @@ import org.apache.commons.lang3.StringUtils;
  * @author <a href="mailto:vincent.siveton@gmail.com">Vincent Siveton</a>
  */
 public class CheckstyleCheckerListener extends AutomaticBean implements AuditListener {
-    private final List<File> sourceDirectories;
+    private final SourceRoots sourceDirectories = new SourceRoots();
 
     private CheckstyleResults results;
 
@@ -49,11 +48,18 @@ public class CheckstyleCheckerListener extends AutomaticBean implements AuditLis
 
     private Configuration checkstyleConfiguration;
 
+    private int maxEventsInMemory;
+
+    private File spillDirectory;
+
+    private int maxEventsPerRule;
+
+    private int maxEventsPerFile;
+
     /**
      * @param sourceDirectory assume that is <code>sourceDirectory</code> is a not null directory and exists
      */
     public CheckstyleCheckerListener(File sourceDirectory) {
-        this.sourceDirectories = new ArrayList<>();
         this.sourceDirectories.add(sourceDirectory);
     }
     /**
@@ -62,7 +68,6 @@ public class CheckstyleCheckerListener extends AutomaticBean implements AuditLis
      * @since 2.5
      */
     public CheckstyleCheckerListener(File sourceDirectory, Configuration configuration) {
-        this.sourceDirectories = new ArrayList<>();
         this.sourceDirectories.add(sourceDirectory);
         this.checkstyleConfiguration = configuration;
     }
@@ -72,7 +77,6 @@ public class CheckstyleCheckerListener extends AutomaticBean implements AuditLis
      * @since 2.5
      */
     public CheckstyleCheckerListener(Configuration configuration) {
-        this.sourceDirectories = new ArrayList<>();
         this.checkstyleConfiguration = configuration;
     }
 
@@ -97,12 +101,39 @@ public class CheckstyleCheckerListener extends AutomaticBean implements AuditLis
         return severityLevel;
     }
 
+    /**
+     * @param maxEventsInMemory the maximum number of events kept in memory by the results, <code>0</code> or less for
+     *            no limit
+     * @param spillDirectory the directory of the file the following events are written to
+     * @since 3.6.1
+     */
+    public void setResultsSpill(int maxEventsInMemory, File spillDirectory) {
+        this.maxEventsInMemory = maxEventsInMemory;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * @param maxEventsPerRule the maximum number of events of a rule kept by the results, <code>0</code> or less for
+     *            no limit
+     * @param maxEventsPerFile the maximum number of events of a file kept by the results, <code>0</code> or less for
+     *            no limit
+     * @since 3.6.1
+     */
+    public void setResultsRetention(int maxEventsPerRule, int maxEventsPerFile) {
+        this.maxEventsPerRule = maxEventsPerRule;
+        this.maxEventsPerFile = maxEventsPerFile;
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public void auditStarted(AuditEvent event) {
-        setResults(new CheckstyleResults());
+        CheckstyleResults results = new CheckstyleResults(maxEventsInMemory, spillDirectory);
+        results.setRetentionLimits(maxEventsPerRule, maxEventsPerFile);
+        // the omitted events are counted by the messages of the configuration
+        results.setConfiguration(checkstyleConfiguration);
+        setResults(results);
     }
 
     /**
@@ -118,18 +149,13 @@ public class CheckstyleCheckerListener extends AutomaticBean implements AuditLis
      */
     @Override
     public void fileStarted(AuditEvent event) {
-        final String fileName = event.getFileName().replace("\\", "/");
-
-        for (File sourceDirectory : sourceDirectories) {
-            String sourceDirectoryPath = sourceDirectory.getPath().replace("\\", "/");
-
-            if (fileName.startsWith(sourceDirectoryPath + "/")) {
-                currentFile = StringUtils.substring(fileName, sourceDirectoryPath.length() + 1);
+        final String fileName = event.getFileName();
 
-                events = getResults().getFileViolations(currentFile);
+        int prefixLength = sourceDirectories.getPrefixLength(fileName);
+        if (prefixLength > 0) {
+            currentFile = fileName.substring(prefixLength).replace('\\', '/');
 
-                break;
-            }
+            events = getResults().getFileViolations(currentFile);
         }
 
         if (events == null) {
@@ -21,6 +21,7 @@ package org.apache.maven.plugins.checkstyle.exec;
 import java.io.File;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 import com.puppycrawl.tools.checkstyle.api.AuditListener;
 import org.apache.maven.artifact.Artifact;
@@ -120,6 +121,91 @@ public class CheckstyleExecutorRequest {
      */
     private boolean omitIgnoredModules;
 
+    /**
+     * @since 3.6.1
+     */
+    private int threads = 1;
+
+    /**
+     * @since 3.6.1
+     */
+    private boolean pipelineDiscovery;
+
+    /**
+     * @since 3.6.1
+     */
+    private BooleanSupplier stopCondition;
+
+    /**
+     * @since 3.6.1
+     */
+    private long fileAuditTimeout;
+
+    /**
+     * @since 3.6.1
+     */
+    private long maxFileSize;
+
+    /**
+     * @since 3.6.1
+     */
+    private boolean detectBinaryFiles;
+
+    /**
+     * @since 3.6.1
+     */
+    private String fileFilterPolicy = "skip";
+
+    /**
+     * @since 3.6.1
+     */
+    private String incrementalCacheFile;
+
+    /**
+     * @since 3.6.1
+     */
+    private String changedSince;
+
+    /**
+     * @since 3.6.1
+     */
+    private String sharedCacheFile;
+
+    /**
+     * @since 3.6.1
+     */
+    private boolean shareAudit;
+
+    /**
+     * @since 3.6.1
+     */
+    private UpToDateCheck upToDateCheck;
+
+    /**
+     * @since 3.6.1
+     */
+    private int maxResultsInMemory;
+
+    /**
+     * @since 3.6.1
+     */
+    private File resultsSpillDirectory;
+
+    /**
+     * @since 3.6.1
+     */
+    private boolean collectResults = true;
+
+    /**
+     * @since 3.6.1
+     */
+    private int maxViolationsPerRule;
+
+    /**
+     * @since 3.6.1
+     */
+    private int maxViolationsPerFile;
+
     /**
      * Constructor.
      */
@@ -453,4 +539,324 @@ public class CheckstyleExecutorRequest {
         this.omitIgnoredModules = omitIgnoredModules;
         return this;
     }
+
+    /**
+     * Returns the number of threads used to audit the files. A value of <code>0</code> or less means the number of
+     * available processors.
+     *
+     * @return the number of threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @param threads the number of threads used to audit the files, <code>0</code> or less for the number of
+     *            available processors
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * Returns whether the files are audited while they are discovered.
+     *
+     * @return <code>true</code> if the files are audited while they are discovered
+     */
+    public boolean isPipelineDiscovery() {
+        return pipelineDiscovery;
+    }
+
+    /**
+     * @param pipelineDiscovery <code>true</code> to audit the files while they are discovered
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setPipelineDiscovery(boolean pipelineDiscovery) {
+        this.pipelineDiscovery = pipelineDiscovery;
+        return this;
+    }
+
+    /**
+     * Returns the condition checked after each audited file to stop the audit early.
+     *
+     * @return the stop condition, or <code>null</code> to audit all the files
+     */
+    public BooleanSupplier getStopCondition() {
+        return stopCondition;
+    }
+
+    /**
+     * @param stopCondition checked after the listeners have been notified of each audited file: once it returns
+     *            <code>true</code>, the remaining files are not audited. <code>null</code> to audit all the files
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+        return this;
+    }
+
+    /**
+     * Returns the maximum time spent auditing a single file.
+     *
+     * @return the time budget of a file, in milliseconds, <code>0</code> or less for no limit
+     */
+    public long getFileAuditTimeout() {
+        return fileAuditTimeout;
+    }
+
+    /**
+     * @param fileAuditTimeout the time budget of a file, in milliseconds, <code>0</code> or less for no limit. A file
+     *            audited for longer is abandoned and reported with an exception
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setFileAuditTimeout(long fileAuditTimeout) {
+        this.fileAuditTimeout = fileAuditTimeout;
+        return this;
+    }
+
+    /**
+     * Returns the maximum size of an audited file.
+     *
+     * @return the maximum size, in bytes, <code>0</code> or less for no limit
+     */
+    public long getMaxFileSize() {
+        return maxFileSize;
+    }
+
+    /**
+     * @param maxFileSize the maximum size of an audited file, in bytes, <code>0</code> or less for no limit
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setMaxFileSize(long maxFileSize) {
+        this.maxFileSize = maxFileSize;
+        return this;
+    }
+
+    /**
+     * Returns whether the binary files are detected, so that they are not audited.
+     *
+     * @return <code>true</code> if the binary files are detected
+     */
+    public boolean isDetectBinaryFiles() {
+        return detectBinaryFiles;
+    }
+
+    /**
+     * @param detectBinaryFiles <code>true</code> to detect the binary files, so that they are not audited
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setDetectBinaryFiles(boolean detectBinaryFiles) {
+        this.detectBinaryFiles = detectBinaryFiles;
+        return this;
+    }
+
+    /**
+     * Returns what is done with the files over the maximum size or binary: <code>skip</code> or <code>warn</code>.
+     *
+     * @return the policy
+     */
+    public String getFileFilterPolicy() {
+        return fileFilterPolicy;
+    }
+
+    /**
+     * @param fileFilterPolicy <code>skip</code> to not audit the files over the maximum size or binary,
+     *            <code>warn</code> to audit them with a warning
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setFileFilterPolicy(String fileFilterPolicy) {
+        this.fileFilterPolicy = fileFilterPolicy;
+        return this;
+    }
+
+    /**
+     * Returns the path of the incremental cache file, which keeps the violations of the unchanged files.
+     *
+     * @return the path of the incremental cache file, <code>null</code> if it is not used
+     */
+    public String getIncrementalCacheFile() {
+        return incrementalCacheFile;
+    }
+
+    /**
+     * @param incrementalCacheFile the path of the incremental cache file, <code>null</code> to not use it
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setIncrementalCacheFile(String incrementalCacheFile) {
+        this.incrementalCacheFile = incrementalCacheFile;
+        return this;
+    }
+
+    /**
+     * Returns the git revision the audited files are compared with.
+     *
+     * @return the revision, only the files added or modified since it are audited, <code>null</code> to audit all the
+     *         files
+     */
+    public String getChangedSince() {
+        return changedSince;
+    }
+
+    /**
+     * @param changedSince the git revision the audited files are compared with, <code>null</code> to audit all the
+     *            files
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setChangedSince(String changedSince) {
+        this.changedSince = changedSince;
+        return this;
+    }
+
+    /**
+     * Returns the path of the cache file shared by the executions of the reactor.
+     *
+     * @return the path of the shared cache file, <code>null</code> if it is not used
+     */
+    public String getSharedCacheFile() {
+        return sharedCacheFile;
+    }
+
+    /**
+     * @param sharedCacheFile the path of the cache file shared by the executions of the reactor, used instead of the
+     *            cache file, <code>null</code> to not use it
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setSharedCacheFile(String sharedCacheFile) {
+        this.sharedCacheFile = sharedCacheFile;
+        return this;
+    }
+
+    /**
+     * Returns whether the audit is kept for the next execution auditing the project with the same inputs.
+     *
+     * @return <code>true</code> if the audit is kept
+     */
+    public boolean isShareAudit() {
+        return shareAudit;
+    }
+
+    /**
+     * @param shareAudit <code>true</code> to keep the audit for the next execution auditing the project with the same
+     *            inputs, which replays it
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setShareAudit(boolean shareAudit) {
+        this.shareAudit = shareAudit;
+        return this;
+    }
+
+    /**
+     * Returns the check of the module being up to date, which is given the files of the audit once it is complete.
+     *
+     * @return the up to date check, <code>null</code> if it is not used
+     */
+    public UpToDateCheck getUpToDateCheck() {
+        return upToDateCheck;
+    }
+
+    /**
+     * @param upToDateCheck the check of the module being up to date, <code>null</code> to not use it
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setUpToDateCheck(UpToDateCheck upToDateCheck) {
+        this.upToDateCheck = upToDateCheck;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of violations kept in memory by the results.
+     *
+     * @return the maximum number of violations, <code>0</code> or less for no limit
+     */
+    public int getMaxResultsInMemory() {
+        return maxResultsInMemory;
+    }
+
+    /**
+     * @param maxResultsInMemory the maximum number of violations kept in memory by the results, the columns of the
+     *            following ones being written to a file of {@link #getResultsSpillDirectory()}, while the distinct
+     *            file names and messages stay in memory, <code>0</code> or less for no limit
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setMaxResultsInMemory(int maxResultsInMemory) {
+        this.maxResultsInMemory = maxResultsInMemory;
+        return this;
+    }
+
+    /**
+     * Returns the directory of the files of the violations not kept in memory by the results.
+     *
+     * @return the directory, <code>null</code> to keep all the violations in memory
+     */
+    public File getResultsSpillDirectory() {
+        return resultsSpillDirectory;
+    }
+
+    /**
+     * @param resultsSpillDirectory the directory of the files of the violations not kept in memory by the results
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setResultsSpillDirectory(File resultsSpillDirectory) {
+        this.resultsSpillDirectory = resultsSpillDirectory;
+        return this;
+    }
+
+    /**
+     * Returns whether the violations are collected in the results of the execution.
+     *
+     * @return <code>false</code> if the results are empty, the violations being only given to the listeners
+     */
+    public boolean isCollectResults() {
+        return collectResults;
+    }
+
+    /**
+     * @param collectResults whether the violations are collected in the results of the execution, always the case in
+     *            aggregate mode
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setCollectResults(boolean collectResults) {
+        this.collectResults = collectResults;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of violations of a rule kept by the results, the following ones being only counted.
+     *
+     * @return the maximum number of violations, <code>0</code> or less for no limit
+     */
+    public int getMaxViolationsPerRule() {
+        return maxViolationsPerRule;
+    }
+
+    /**
+     * @param maxViolationsPerRule the maximum number of violations of a rule kept by the results, <code>0</code> or
+     *            less for no limit
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setMaxViolationsPerRule(int maxViolationsPerRule) {
+        this.maxViolationsPerRule = maxViolationsPerRule;
+        return this;
+    }
+
+    /**
+     * Returns the maximum number of violations of a file kept by the results, the following ones being only counted.
+     *
+     * @return the maximum number of violations, <code>0</code> or less for no limit
+     */
+    public int getMaxViolationsPerFile() {
+        return maxViolationsPerFile;
+    }
+
+    /**
+     * @param maxViolationsPerFile the maximum number of violations of a file kept by the results, <code>0</code> or
+     *            less for no limit
+     * @return this object
+     */
+    public CheckstyleExecutorRequest setMaxViolationsPerFile(int maxViolationsPerFile) {
+        this.maxViolationsPerFile = maxViolationsPerFile;
+        return this;
+    }
 }
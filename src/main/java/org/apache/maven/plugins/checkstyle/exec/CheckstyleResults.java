@@ -18,57 +18,259 @@
  */
 package org.apache.maven.plugins.checkstyle.exec;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
 
 import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
 import com.puppycrawl.tools.checkstyle.api.Configuration;
 import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
 
 /**
  * Object holding the references to the CheckstyleResults.
- * TODO: provide fallback to disk based storage if too many results.
+ * <p>
+ * The events are not kept: they are stored in columns of primitive arrays, with their file names, rules and messages
+ * interned, and the events returned by {@link #getFileViolations(String)} and {@link #getFiles()} are rebuilt from
+ * these columns when read. Past a number of events, the columns of the following events are written to a
+ * {@link SpillFile}, instead of being kept in memory: only the tables of the interned file names and messages, whose
+ * indexes are written, stay in memory. The number of events by severity, of all the files, of each file
+ * and of each source, are counted when the events are added. The events of each source with a message set by the
+ * configuration are counted too, so that the rules summary of the report is rendered from these counts.
+ * <p>
+ * Only the first events of each rule and of each file can be kept, see {@link #setRetentionLimits(int, int)}: the
+ * following ones are omitted, only counted, and the counts stay exact.
  *
  * @author <a href="mailto:joakim@erdfelt.net">Joakim Erdfelt</a>
  */
 public class CheckstyleResults {
-    private Map<String, List<AuditEvent>> files;
+    private static final SeverityLevel[] SEVERITY_LEVELS = SeverityLevel.values();
+
+    /** The rule of the events kept as is, see {@link #retainedEvents}. */
+    private static final int RETAINED = -1;
+
+    /** The events of each file, by file name relative to its source directory. */
+    private final Map<String, FileEvents> files = new LinkedHashMap<>();
+
+    /** The interned file names and messages of the events. */
+    private final Interner<String> strings = new Interner<>();
+
+    private final Interner<Rule> rules = new Interner<>();
+
+    /** The source classes of the events by name, empty if the class cannot be loaded. */
+    private final Map<String, Optional<Class<?>>> sourceClasses = new HashMap<>();
+
+    /** The events which cannot be rebuilt, like the ones whose source class cannot be loaded, by event index. */
+    private final Map<Integer, AuditEvent> retainedEvents = new HashMap<>();
+
+    /** The number of events by severity. */
+    private final long[] severityCounts = new long[SEVERITY_LEVELS.length];
+
+    /** The number of events by source name and severity. */
+    private final Map<String, long[]> sourceCounts = new HashMap<>();
+
+    /** The counts of {@link #sourceCounts} of each rule, by rule id. */
+    private final List<long[]> ruleCounts = new ArrayList<>();
+
+    /** The number of events kept by source name, for {@link #maxEventsPerRule}. */
+    private final Map<String, int[]> keptCounts = new HashMap<>();
+
+    /** The messages set by the configuration of the modules, the events are also counted by these messages. */
+    private final Set<String> fixedMessages = new HashSet<>();
+
+    /** The number of events by source name, fixed message and severity. */
+    private final Map<SourceMessage, long[]> fixedMessageCounts = new HashMap<>();
+
+    /** The maximum number of events kept by rule, that is by source, the following ones are omitted. */
+    private int maxEventsPerRule = Integer.MAX_VALUE;
+
+    /** The maximum number of events kept by file, the following ones are omitted. */
+    private int maxEventsPerFile = Integer.MAX_VALUE;
+
+    /** The maximum number of events kept in memory, the following ones are written to {@link #spillFile}. */
+    private final int maxEventsInMemory;
+
+    private final File spillDirectory;
+
+    private SpillFile spillFile;
+
+    private int eventCount;
+
+    private int[] fileNames;
+
+    private int[] lines;
+
+    private int[] columns;
+
+    private byte[] severities;
+
+    private int[] ruleIds;
+
+    private int[] messages;
 
     private Configuration configuration;
 
+    private int skippedFileCount;
+
     public CheckstyleResults() {
-        files = new HashMap<>();
+        this(0, null);
     }
 
-    public List<AuditEvent> getFileViolations(String file) {
-        List<AuditEvent> violations;
+    /**
+     * @param maxEventsInMemory the maximum number of events kept in memory, <code>0</code> or less for no limit
+     * @param spillDirectory the directory of the file the following events are written to, <code>null</code> to keep
+     *            all the events in memory
+     * @since 3.6.1
+     */
+    public CheckstyleResults(int maxEventsInMemory, File spillDirectory) {
+        this.maxEventsInMemory =
+                maxEventsInMemory > 0 && spillDirectory != null ? maxEventsInMemory : Integer.MAX_VALUE;
+        this.spillDirectory = spillDirectory;
+        int capacity = Math.min(64, this.maxEventsInMemory);
+        fileNames = new int[capacity];
+        lines = new int[capacity];
+        columns = new int[capacity];
+        severities = new byte[capacity];
+        ruleIds = new int[capacity];
+        messages = new int[capacity];
+    }
 
-        if (this.files.containsKey(file)) {
-            violations = this.files.get(file);
-        } else {
-            violations = new LinkedList<>();
-            if (file != null) {
-                this.files.put(file, violations);
-            }
+    /**
+     * @param file the file name, relative to its source directory
+     * @return the events of the file, rebuilt when read: events added to the list are added to the file
+     */
+    public List<AuditEvent> getFileViolations(String file) {
+        if (file == null) {
+            return new ArrayList<>();
         }
-
-        return violations;
+        return new FileViolations(files.computeIfAbsent(file, f -> new FileEvents()));
     }
 
     public void setFileViolations(String file, List<AuditEvent> violations) {
-        if (file != null) {
-            this.files.put(file, violations);
+        if (file == null) {
+            return;
+        }
+        FileEvents fileEvents = files.computeIfAbsent(file, f -> new FileEvents());
+        if (violations instanceof FileViolations && ((FileViolations) violations).fileEvents == fileEvents) {
+            return;
+        }
+        List<AuditEvent> events = new ArrayList<>(violations);
+        for (int i = 0; i < fileEvents.size; i++) {
+            int index = fileEvents.indexes[i];
+            int ruleId = get(ruleIds, index, SpillFile.RULE);
+            count(fileEvents, index, getSeverity(index), ruleId, -1);
+            int[] kept = keptCounts.get(getSourceName(index, ruleId));
+            if (kept != null) {
+                kept[0]--;
+            }
+        }
+        fileEvents.size = 0;
+        // the omitted events of the file are replaced too
+        for (OmittedEvents omitted : new ArrayList<>(fileEvents.getOmittedEvents())) {
+            countOmitted(fileEvents, omitted.sourceName, omitted.message, omitted.severityLevel, -omitted.count);
+        }
+        fileEvents.omittedEvents = null;
+        for (AuditEvent event : events) {
+            addEvent(fileEvents, event);
         }
     }
 
+    /**
+     * @return a read-only view of the events by file, which are rebuilt when read
+     */
     public Map<String, List<AuditEvent>> getFiles() {
-        return files;
+        return new FilesView();
     }
 
     public void setFiles(Map<String, List<AuditEvent>> files) {
-        this.files = files;
+        this.files.clear();
+        this.strings.clear();
+        this.rules.clear();
+        this.retainedEvents.clear();
+        Arrays.fill(this.severityCounts, 0);
+        this.sourceCounts.clear();
+        this.ruleCounts.clear();
+        this.keptCounts.clear();
+        this.fixedMessageCounts.clear();
+        this.eventCount = 0;
+        if (this.spillFile != null) {
+            this.spillFile.clear();
+        }
+        for (Map.Entry<String, List<AuditEvent>> file : files.entrySet()) {
+            setFileViolations(file.getKey(), file.getValue());
+        }
+    }
+
+    /**
+     * Sets the maximum numbers of events kept, the following events being omitted. It applies to the events added
+     * afterwards.
+     *
+     * @param maxEventsPerRule the maximum number of events kept by rule, <code>0</code> or less for no limit
+     * @param maxEventsPerFile the maximum number of events kept by file, <code>0</code> or less for no limit
+     * @since 3.6.1
+     */
+    public void setRetentionLimits(int maxEventsPerRule, int maxEventsPerFile) {
+        this.maxEventsPerRule = maxEventsPerRule > 0 ? maxEventsPerRule : Integer.MAX_VALUE;
+        this.maxEventsPerFile = maxEventsPerFile > 0 ? maxEventsPerFile : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Adds all the events of other results to these results, without rebuilding them. The events omitted by the other
+     * results are counted as omitted.
+     *
+     * @param results the results to add
+     * @since 3.6.1
+     */
+    void addAll(CheckstyleResults results) {
+        for (Map.Entry<String, FileEvents> file : results.files.entrySet()) {
+            FileEvents source = file.getValue();
+            FileEvents target = files.computeIfAbsent(file.getKey(), f -> new FileEvents());
+            for (int i = 0; i < source.size; i++) {
+                int index = source.indexes[i];
+                int ruleId = results.get(results.ruleIds, index, SpillFile.RULE);
+                byte severity = results.getSeverity(index);
+                if (ruleId == RETAINED) {
+                    addEvent(target, results.retainedEvents.get(index));
+                    continue;
+                }
+                Rule rule = results.rules.get(ruleId);
+                String message = results.strings.get(results.get(results.messages, index, SpillFile.MESSAGE));
+                if (!keep(target, rule.sourceClass.getName())) {
+                    countOmitted(target, rule.sourceClass.getName(), message, SEVERITY_LEVELS[severity], 1);
+                    continue;
+                }
+                String fileName = results.strings.get(results.get(results.fileNames, index, SpillFile.FILE_NAME));
+                addEvent(
+                        target,
+                        strings.intern(fileName),
+                        results.get(results.lines, index, SpillFile.LINE),
+                        results.get(results.columns, index, SpillFile.COLUMN),
+                        severity,
+                        rules.intern(rule),
+                        strings.intern(message));
+            }
+            for (OmittedEvents events : source.getOmittedEvents()) {
+                countOmitted(target, events.sourceName, events.message, events.severityLevel, events.count);
+            }
+        }
     }
 
     public int getFileCount() {
@@ -76,30 +278,20 @@ public class CheckstyleResults {
     }
 
     public long getSeverityCount(SeverityLevel level) {
-        long count = 0;
-
-        for (List<AuditEvent> errors : this.files.values()) {
-            count = count + getSeverityCount(errors, level);
-        }
-
-        return count;
+        return this.severityCounts[level.ordinal()];
     }
 
     public long getSeverityCount(String file, SeverityLevel level) {
-        long count = 0;
-
-        if (!this.files.containsKey(file)) {
-            return count;
-        }
-
-        List<AuditEvent> violations = this.files.get(file);
+        FileEvents fileEvents = this.files.get(file);
 
-        count = getSeverityCount(violations, level);
-
-        return count;
+        return fileEvents == null ? 0 : fileEvents.severityCounts[level.ordinal()];
     }
 
     public long getSeverityCount(List<AuditEvent> violations, SeverityLevel level) {
+        if (violations instanceof FileViolations) {
+            return ((FileViolations) violations).fileEvents.severityCounts[level.ordinal()];
+        }
+
         long count = 0;
 
         for (AuditEvent event : violations) {
@@ -111,11 +303,585 @@ public class CheckstyleResults {
         return count;
     }
 
+    /**
+     * @param file the file name, relative to its source directory
+     * @return the number of events of the file which are omitted, counted but not kept
+     * @since 3.6.1
+     */
+    public long getOmittedEventCount(String file) {
+        FileEvents fileEvents = this.files.get(file);
+
+        return fileEvents == null ? 0 : fileEvents.omittedCount;
+    }
+
+    /**
+     * @return the names of the sources of the events, like the class names of the checks
+     * @since 3.6.1
+     */
+    public Set<String> getSourceNames() {
+        return Collections.unmodifiableSet(this.sourceCounts.keySet());
+    }
+
+    /**
+     * @param sourceName the name of the source of the events, like the class name of a check
+     * @param level the severity level of the events
+     * @return the number of events of the source with the severity level
+     * @since 3.6.1
+     */
+    public long getSourceSeverityCount(String sourceName, SeverityLevel level) {
+        long[] counts = this.sourceCounts.get(sourceName);
+
+        return counts == null ? 0 : counts[level.ordinal()];
+    }
+
+    /**
+     * @param sourceName the name of the source of the events, like the class name of a check
+     * @param message a message set by the configuration of a module, see {@link #setConfiguration(Configuration)}
+     * @param level the severity level of the events
+     * @return the number of events of the source with the message and the severity level, including the omitted ones
+     * @since 3.6.1
+     */
+    public long getSourceSeverityCount(String sourceName, String message, SeverityLevel level) {
+        long[] counts = this.fixedMessageCounts.get(new SourceMessage(sourceName, message));
+
+        return counts == null ? 0 : counts[level.ordinal()];
+    }
+
     public Configuration getConfiguration() {
         return configuration;
     }
 
+    /**
+     * Sets the configuration of the audit. The events with a message set by the configuration are counted by message:
+     * the configuration is to be set before the events are omitted, for the omitted events to be counted too.
+     *
+     * @param configuration the configuration, can be <code>null</code>
+     */
     public void setConfiguration(Configuration configuration) {
-        this.configuration = configuration;
+        if (configuration != this.configuration) {
+            this.configuration = configuration;
+            this.fixedMessages.clear();
+            if (configuration != null) {
+                addFixedMessages(configuration);
+            }
+            countFixedMessages();
+        }
+    }
+
+    /**
+     * Counts again the events by fixed message, once the fixed messages changed.
+     */
+    private void countFixedMessages() {
+        fixedMessageCounts.clear();
+        for (FileEvents fileEvents : files.values()) {
+            for (int i = 0; i < fileEvents.size; i++) {
+                int index = fileEvents.indexes[i];
+                int ruleId = get(ruleIds, index, SpillFile.RULE);
+                if (getSourceCounts(index, ruleId) != null) {
+                    countFixedMessage(getSourceName(index, ruleId), getMessage(index, ruleId), getSeverity(index), 1);
+                }
+            }
+            for (OmittedEvents events : fileEvents.getOmittedEvents()) {
+                if (events.sourceName != null && events.message != null) {
+                    countFixedMessage(
+                            events.sourceName, events.message, events.severityLevel.ordinal(), events.count);
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the messages set by the configuration of the modules, as matched by the rules summary of the report.
+     */
+    private void addFixedMessages(Configuration configuration) {
+        for (Configuration child : configuration.getChildren()) {
+            if (Arrays.asList(child.getPropertyNames()).contains("message")) {
+                try {
+                    String message = child.getProperty("message");
+                    fixedMessages.add(message);
+                    fixedMessages.add(message.replace("'", ""));
+                } catch (CheckstyleException e) {
+                    // no message
+                }
+            }
+            addFixedMessages(child);
+        }
+    }
+
+    /**
+     * @return the number of files skipped because they were not worth auditing, like too large or binary files
+     * @since 3.6.1
+     */
+    public int getSkippedFileCount() {
+        return skippedFileCount;
+    }
+
+    public void setSkippedFileCount(int skippedFileCount) {
+        this.skippedFileCount = skippedFileCount;
+    }
+
+    /**
+     * Deletes the file the events not kept in memory were written to. The events cannot be read anymore.
+     *
+     * @since 3.6.1
+     */
+    public void close() {
+        if (spillFile != null) {
+            try {
+                spillFile.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to close the results file", e);
+            }
+            spillFile = null;
+        }
+    }
+
+    private void addEvent(FileEvents fileEvents, AuditEvent event) {
+        if (!keep(fileEvents, event.getSourceName())) {
+            countOmitted(fileEvents, event.getSourceName(), event.getMessage(), event.getSeverityLevel(), 1);
+            return;
+        }
+
+        Violation violation = event.getViolation();
+        Optional<Class<?>> sourceClass = violation == null
+                ? Optional.empty()
+                : sourceClasses.computeIfAbsent(event.getSourceName(), CheckstyleResults::loadClass);
+        if (!sourceClass.isPresent()) {
+            retainedEvents.put(eventCount, event);
+            addEvent(fileEvents, -1, 0, 0, (byte) event.getSeverityLevel().ordinal(), RETAINED, -1);
+            return;
+        }
+
+        Rule rule = new Rule(event.getSource(), sourceClass.get(), event.getModuleId(), violation.getKey());
+        addEvent(
+                fileEvents,
+                strings.intern(event.getFileName()),
+                event.getLine(),
+                event.getColumn(),
+                (byte) event.getSeverityLevel().ordinal(),
+                rules.intern(rule),
+                strings.intern(event.getMessage()));
+    }
+
+    private void addEvent(
+            FileEvents fileEvents, int fileName, int line, int column, byte severity, int ruleId, int message) {
+        if (eventCount >= maxEventsInMemory) {
+            try {
+                if (spillFile == null) {
+                    spillFile = new SpillFile(spillDirectory);
+                }
+                spillFile.append(fileName, line, column, severity, ruleId, message);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to write the results to " + spillDirectory, e);
+            }
+        } else {
+            setColumns(fileName, line, column, severity, ruleId, message);
+        }
+        count(fileEvents, eventCount, severity, ruleId, 1);
+        fileEvents.add(eventCount++);
+    }
+
+    /**
+     * Checks the limits of the events kept, counting the event as kept if it is.
+     *
+     * @return <code>false</code> if the event is omitted
+     */
+    private boolean keep(FileEvents fileEvents, String sourceName) {
+        if (fileEvents.size >= maxEventsPerFile) {
+            return false;
+        }
+        if (maxEventsPerRule == Integer.MAX_VALUE) {
+            return true;
+        }
+        int[] kept = keptCounts.computeIfAbsent(sourceName, s -> new int[1]);
+        if (kept[0] >= maxEventsPerRule) {
+            return false;
+        }
+        kept[0]++;
+        return true;
+    }
+
+    /**
+     * Counts omitted events of a file.
+     *
+     * @param count the number of events omitted, negative to remove the count of omitted events
+     */
+    private void countOmitted(
+            FileEvents fileEvents, String sourceName, String message, SeverityLevel severityLevel, long count) {
+        int severity = severityLevel.ordinal();
+        severityCounts[severity] += count;
+        fileEvents.severityCounts[severity] += count;
+        fileEvents.omittedCount += count;
+        if (sourceName != null) {
+            sourceCounts.computeIfAbsent(sourceName, s -> new long[SEVERITY_LEVELS.length])[severity] += count;
+            countFixedMessage(sourceName, message, severity, count);
+        }
+        OmittedEvents key =
+                new OmittedEvents(sourceName, fixedMessages.contains(message) ? message : null, severityLevel);
+        if (fileEvents.omittedEvents == null) {
+            fileEvents.omittedEvents = new LinkedHashMap<>();
+        }
+        fileEvents.omittedEvents.computeIfAbsent(key, k -> k).count += count;
+    }
+
+    /**
+     * Stores the columns of the next event in memory.
+     */
+    private void setColumns(int fileName, int line, int column, byte severity, int ruleId, int message) {
+        if (eventCount == lines.length) {
+            int capacity = (int) Math.min(eventCount * 2L, maxEventsInMemory);
+            fileNames = Arrays.copyOf(fileNames, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+            severities = Arrays.copyOf(severities, capacity);
+            ruleIds = Arrays.copyOf(ruleIds, capacity);
+            messages = Arrays.copyOf(messages, capacity);
+        }
+        fileNames[eventCount] = fileName;
+        lines[eventCount] = line;
+        columns[eventCount] = column;
+        severities[eventCount] = severity;
+        ruleIds[eventCount] = ruleId;
+        messages[eventCount] = message;
+    }
+
+    /**
+     * Updates the counts of the events.
+     *
+     * @param delta <code>1</code> for an event added, <code>-1</code> for an event removed
+     */
+    private void count(FileEvents fileEvents, int index, int severity, int ruleId, int delta) {
+        severityCounts[severity] += delta;
+        fileEvents.severityCounts[severity] += delta;
+        long[] counts = getSourceCounts(index, ruleId);
+        if (counts != null) {
+            counts[severity] += delta;
+            if (!fixedMessages.isEmpty()) {
+                countFixedMessage(getSourceName(index, ruleId), getMessage(index, ruleId), severity, delta);
+            }
+        }
+    }
+
+    private void countFixedMessage(String sourceName, String message, int severity, long delta) {
+        if (fixedMessages.contains(message)) {
+            fixedMessageCounts.computeIfAbsent(
+                    new SourceMessage(sourceName, message), k -> new long[SEVERITY_LEVELS.length])[severity] += delta;
+        }
+    }
+
+    private long[] getSourceCounts(int index, int ruleId) {
+        if (ruleId == RETAINED) {
+            AuditEvent event = retainedEvents.get(index);
+            return event.getViolation() == null
+                    ? null
+                    : sourceCounts.computeIfAbsent(event.getSourceName(), s -> new long[SEVERITY_LEVELS.length]);
+        }
+        while (ruleCounts.size() <= ruleId) {
+            String sourceName = rules.get(ruleCounts.size()).sourceClass.getName();
+            ruleCounts.add(sourceCounts.computeIfAbsent(sourceName, s -> new long[SEVERITY_LEVELS.length]));
+        }
+        return ruleCounts.get(ruleId);
+    }
+
+    private String getSourceName(int index, int ruleId) {
+        return ruleId == RETAINED
+                ? retainedEvents.get(index).getSourceName()
+                : rules.get(ruleId).sourceClass.getName();
+    }
+
+    private String getMessage(int index, int ruleId) {
+        return ruleId == RETAINED
+                ? retainedEvents.get(index).getMessage()
+                : strings.get(get(messages, index, SpillFile.MESSAGE));
+    }
+
+    /**
+     * @param column the column of the events kept in memory
+     * @param index the index of the event
+     * @param field the field of the column in the records of {@link #spillFile}
+     */
+    private int get(int[] column, int index, int field) {
+        return index < maxEventsInMemory ? column[index] : spillFile.getInt(index - maxEventsInMemory, field);
+    }
+
+    private byte getSeverity(int index) {
+        return index < maxEventsInMemory ? severities[index] : spillFile.getSeverity(index - maxEventsInMemory);
+    }
+
+    /**
+     * Rebuilds an event from the columns.
+     */
+    private AuditEvent getEvent(int index) {
+        int ruleId = get(ruleIds, index, SpillFile.RULE);
+        if (ruleId == RETAINED) {
+            return retainedEvents.get(index);
+        }
+        Rule rule = rules.get(ruleId);
+        Violation violation = new Violation(
+                get(lines, index, SpillFile.LINE),
+                get(columns, index, SpillFile.COLUMN),
+                null,
+                rule.key,
+                null,
+                SEVERITY_LEVELS[getSeverity(index)],
+                rule.moduleId,
+                rule.sourceClass,
+                toPattern(strings.get(get(messages, index, SpillFile.MESSAGE))));
+        return new AuditEvent(rule.source, strings.get(get(fileNames, index, SpillFile.FILE_NAME)), violation);
+    }
+
+    /**
+     * Quotes a message, which is used as the pattern of the custom message of a violation.
+     */
+    private static String toPattern(String message) {
+        if (message == null || message.indexOf('\'') < 0 && message.indexOf('{') < 0) {
+            return message;
+        }
+        return '\'' + message.replace("'", "''") + '\'';
+    }
+
+    private static Optional<Class<?>> loadClass(String name) {
+        ClassLoader[] classLoaders = {
+            Thread.currentThread().getContextClassLoader(), CheckstyleResults.class.getClassLoader()
+        };
+        for (ClassLoader classLoader : classLoaders) {
+            try {
+                return Optional.of(Class.forName(name, false, classLoader));
+            } catch (ClassNotFoundException | LinkageError e) {
+                // try the next class loader
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * The indexes of the events of a file.
+     */
+    private static final class FileEvents {
+        /** The number of events by severity, including the omitted ones. */
+        private final long[] severityCounts = new long[SEVERITY_LEVELS.length];
+
+        private int[] indexes = new int[4];
+
+        private int size;
+
+        private long omittedCount;
+
+        /** The omitted events, by source name, fixed message and severity, <code>null</code> if there is none. */
+        private Map<OmittedEvents, OmittedEvents> omittedEvents;
+
+        void add(int index) {
+            if (size == indexes.length) {
+                indexes = Arrays.copyOf(indexes, size * 2);
+            }
+            indexes[size++] = index;
+        }
+
+        Collection<OmittedEvents> getOmittedEvents() {
+            return omittedEvents == null ? Collections.emptyList() : omittedEvents.values();
+        }
+    }
+
+    /**
+     * The number of events omitted, counted but not kept, of a source with a fixed message, or any other message, and
+     * a severity.
+     */
+    private static final class OmittedEvents {
+        private final String sourceName;
+
+        private final String message;
+
+        private final SeverityLevel severityLevel;
+
+        private long count;
+
+        OmittedEvents(String sourceName, String message, SeverityLevel severityLevel) {
+            this.sourceName = sourceName;
+            this.message = message;
+            this.severityLevel = severityLevel;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof OmittedEvents)) {
+                return false;
+            }
+            OmittedEvents other = (OmittedEvents) obj;
+            return Objects.equals(sourceName, other.sourceName)
+                    && Objects.equals(message, other.message)
+                    && severityLevel == other.severityLevel;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sourceName, message, severityLevel);
+        }
+    }
+
+    /**
+     * A source with a fixed message.
+     */
+    private static final class SourceMessage {
+        private final String sourceName;
+
+        private final String message;
+
+        SourceMessage(String sourceName, String message) {
+            this.sourceName = sourceName;
+            this.message = message;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof SourceMessage)) {
+                return false;
+            }
+            SourceMessage other = (SourceMessage) obj;
+            return sourceName.equals(other.sourceName) && message.equals(other.message);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sourceName.hashCode() + message.hashCode();
+        }
+    }
+
+    /**
+     * The rule of an event: the module which reported it.
+     */
+    private static final class Rule {
+        private final Object source;
+
+        private final Class<?> sourceClass;
+
+        private final String moduleId;
+
+        private final String key;
+
+        Rule(Object source, Class<?> sourceClass, String moduleId, String key) {
+            this.source = source;
+            this.sourceClass = sourceClass;
+            this.moduleId = moduleId;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Rule)) {
+                return false;
+            }
+            Rule other = (Rule) obj;
+            return source == other.source
+                    && sourceClass == other.sourceClass
+                    && Objects.equals(moduleId, other.moduleId)
+                    && Objects.equals(key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(source), sourceClass, moduleId, key);
+        }
+    }
+
+    /**
+     * Interns values, which are referenced by index.
+     */
+    private static final class Interner<T> {
+        private final Map<T, Integer> indexes = new HashMap<>();
+
+        private final List<T> values = new ArrayList<>();
+
+        int intern(T value) {
+            Integer index = indexes.get(value);
+            if (index == null) {
+                index = values.size();
+                indexes.put(value, index);
+                values.add(value);
+            }
+            return index;
+        }
+
+        T get(int index) {
+            return values.get(index);
+        }
+
+        void clear() {
+            indexes.clear();
+            values.clear();
+        }
+    }
+
+    /**
+     * The events of a file, rebuilt when read.
+     */
+    private final class FileViolations extends AbstractList<AuditEvent> implements RandomAccess {
+        private final FileEvents fileEvents;
+
+        FileViolations(FileEvents fileEvents) {
+            this.fileEvents = fileEvents;
+        }
+
+        @Override
+        public AuditEvent get(int index) {
+            if (index < 0 || index >= fileEvents.size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + fileEvents.size);
+            }
+            return getEvent(fileEvents.indexes[index]);
+        }
+
+        @Override
+        public int size() {
+            return fileEvents.size;
+        }
+
+        @Override
+        public boolean add(AuditEvent event) {
+            addEvent(fileEvents, event);
+            modCount++;
+            return true;
+        }
+    }
+
+    /**
+     * The events by file, rebuilt when read.
+     */
+    private final class FilesView extends AbstractMap<String, List<AuditEvent>> {
+        @Override
+        public Set<Map.Entry<String, List<AuditEvent>>> entrySet() {
+            return new AbstractSet<Map.Entry<String, List<AuditEvent>>>() {
+                @Override
+                public Iterator<Map.Entry<String, List<AuditEvent>>> iterator() {
+                    Iterator<Map.Entry<String, FileEvents>> iterator = files.entrySet().iterator();
+                    return new Iterator<Map.Entry<String, List<AuditEvent>>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return iterator.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<String, List<AuditEvent>> next() {
+                            Map.Entry<String, FileEvents> file = iterator.next();
+                            return new SimpleImmutableEntry<>(file.getKey(), new FileViolations(file.getValue()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return files.size();
+                }
+            };
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return files.containsKey(key);
+        }
+
+        @Override
+        public List<AuditEvent> get(Object key) {
+            FileEvents fileEvents = files.get(key);
+            return fileEvents == null ? null : new FileViolations(fileEvents);
+        }
     }
 }
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader.IgnoredModulesOptions;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+/**
+ * Cache of the Checkstyle configurations loaded by the executions of a build.
+ * <p>
+ * Loading a configuration parses its file and expands its properties, which is repeated for each module of a reactor
+ * using the same ruleset. The loaded configurations are kept here by checksum of their file and by ignored modules
+ * option, along with the values of the properties they used: another execution gets the same configuration if its
+ * properties have the same values, whatever its other properties, like the ones pointing into the build directory of
+ * its module. Each execution gets its own copy of the configuration, which it can modify.
+ *
+ * @since 3.6.1
+ */
+@Named
+@Singleton
+public class ConfigurationCache {
+    /** The maximum number of configurations kept for a file, with different values of its properties. */
+    private static final int MAX_VARIANTS = 8;
+
+    /** The loaded configurations by file checksum and ignored modules option, the most recently used first. */
+    private final Map<String, Deque<LoadedConfiguration>> configurations = new HashMap<>();
+
+    /** The last known states of the configuration files, by file name. */
+    private final Map<String, ChangeDetector.FileState> states = new ConcurrentHashMap<>();
+
+    private final ChangeDetector changeDetector = new ChangeDetector(1);
+
+    /**
+     * Loads a configuration, like {@link ConfigurationLoader#loadConfiguration(String,
+     * com.puppycrawl.tools.checkstyle.PropertyResolver, IgnoredModulesOptions)}.
+     *
+     * @param configFile the configuration file
+     * @param properties the properties to expand
+     * @param ignoredModulesOptions the option for the modules whose severity is <code>ignore</code>
+     * @return a copy of the configuration, owned by the caller
+     * @throws CheckstyleException if the configuration cannot be loaded
+     */
+    Configuration load(String configFile, Properties properties, IgnoredModulesOptions ignoredModulesOptions)
+            throws CheckstyleException {
+        String key = getKey(configFile, ignoredModulesOptions);
+        if (key != null) {
+            synchronized (configurations) {
+                Deque<LoadedConfiguration> variants = configurations.get(key);
+                if (variants != null) {
+                    for (LoadedConfiguration variant : variants) {
+                        if (variant.matches(properties)) {
+                            variants.remove(variant);
+                            variants.addFirst(variant);
+                            return copy(variant.configuration);
+                        }
+                    }
+                }
+            }
+        }
+
+        Map<String, String> usedProperties = new HashMap<>();
+        Configuration configuration = ConfigurationLoader.loadConfiguration(
+                configFile,
+                name -> {
+                    String value = properties.getProperty(name);
+                    usedProperties.put(name, value);
+                    return value;
+                },
+                ignoredModulesOptions);
+        if (key != null) {
+            synchronized (configurations) {
+                Deque<LoadedConfiguration> variants = configurations.computeIfAbsent(key, k -> new ArrayDeque<>());
+                variants.addFirst(new LoadedConfiguration(usedProperties, configuration));
+                if (variants.size() > MAX_VARIANTS) {
+                    variants.removeLast();
+                }
+            }
+        }
+        return copy(configuration);
+    }
+
+    /**
+     * @return the key of the configurations of a file, <code>null</code> if the file cannot be read, like a URL
+     */
+    private String getKey(String configFile, IgnoredModulesOptions ignoredModulesOptions) {
+        File file = new File(configFile);
+        String fileName = file.getAbsolutePath();
+        ChangeDetector.FileState state;
+        try {
+            state = file.isFile() ? changeDetector.detect(file, states.get(fileName)) : null;
+        } catch (IOException e) {
+            state = null;
+        }
+        if (state == null) {
+            states.remove(fileName);
+            return null;
+        }
+        states.put(fileName, state);
+        return state.getHash() + ':' + ignoredModulesOptions;
+    }
+
+    /**
+     * Copies a configuration tree, so that the copy can be modified without modifying the original.
+     *
+     * @param configuration a configuration
+     * @return the copy
+     * @throws CheckstyleException if a property cannot be read
+     */
+    static Configuration copy(Configuration configuration) throws CheckstyleException {
+        DefaultConfiguration copy = configuration instanceof DefaultConfiguration
+                ? new DefaultConfiguration(
+                        configuration.getName(), ((DefaultConfiguration) configuration).getThreadModeSettings())
+                : new DefaultConfiguration(configuration.getName());
+        for (String name : configuration.getPropertyNames()) {
+            copy.addProperty(name, configuration.getProperty(name));
+        }
+        for (Map.Entry<String, String> message : configuration.getMessages().entrySet()) {
+            copy.addMessage(message.getKey(), message.getValue());
+        }
+        for (Configuration child : configuration.getChildren()) {
+            copy.addChild(copy(child));
+        }
+        return copy;
+    }
+
+    /**
+     * A loaded configuration, with the values of the properties it used.
+     */
+    private static final class LoadedConfiguration {
+        private final Map<String, String> usedProperties;
+
+        private final Configuration configuration;
+
+        LoadedConfiguration(Map<String, String> usedProperties, Configuration configuration) {
+            this.usedProperties = usedProperties;
+            this.configuration = configuration;
+        }
+
+        boolean matches(Properties properties) {
+            for (Map.Entry<String, String> property : usedProperties.entrySet()) {
+                if (!Objects.equals(property.getValue(), properties.getProperty(property.getKey()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
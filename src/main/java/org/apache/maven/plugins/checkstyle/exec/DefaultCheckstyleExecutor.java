@@ -27,30 +27,38 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
 
 import com.puppycrawl.tools.checkstyle.Checker;
-import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
 import com.puppycrawl.tools.checkstyle.ConfigurationLoader.IgnoredModulesOptions;
 import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
 import com.puppycrawl.tools.checkstyle.PackageNamesLoader;
-import com.puppycrawl.tools.checkstyle.PropertiesExpander;
 import com.puppycrawl.tools.checkstyle.api.AuditListener;
 import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
 import com.puppycrawl.tools.checkstyle.api.Configuration;
 import com.puppycrawl.tools.checkstyle.api.FilterSet;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevelCounter;
 import com.puppycrawl.tools.checkstyle.filters.SuppressionsLoader;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.model.Resource;
+import org.apache.maven.plugins.checkstyle.CompositeAuditListener;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.resource.ResourceManager;
 import org.codehaus.plexus.resource.loader.FileResourceCreationException;
@@ -75,11 +83,28 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
 
     private final ResourceManager licenseLocator;
 
+    private final CheckerPool checkerPool;
+
+    private final ResourceCache resourceCache;
+
+    private final SessionAuditStore sessionAuditStore;
+
+    private final ConfigurationCache configurationCache;
+
     @Inject
     public DefaultCheckstyleExecutor(
-            final @Named("default") ResourceManager locator, final @Named("license") ResourceManager licenseLocator) {
+            final @Named("default") ResourceManager locator,
+            final @Named("license") ResourceManager licenseLocator,
+            final CheckerPool checkerPool,
+            final ResourceCache resourceCache,
+            final SessionAuditStore sessionAuditStore,
+            final ConfigurationCache configurationCache) {
         this.locator = locator;
         this.licenseLocator = licenseLocator;
+        this.checkerPool = checkerPool;
+        this.resourceCache = resourceCache;
+        this.sessionAuditStore = sessionAuditStore;
+        this.configurationCache = configurationCache;
     }
 
     @Override
@@ -91,6 +116,11 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
 
         MavenProject project = request.getProject();
 
+        UpToDateCheck upToDateCheck = request.getUpToDateCheck();
+        if (upToDateCheck != null) {
+            upToDateCheck.auditStarted();
+        }
+
         configureResourceLocator(locator, request, null);
 
         configureResourceLocator(licenseLocator, request, request.getLicenseArtifacts());
@@ -98,18 +128,29 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
         // Config is less critical than License, locator can still be used.
         // configureResourceLocator( configurationLocator, request, request.getConfigurationArtifacts() );
 
-        List<File> files;
-        try {
-            files = getFilesToProcess(request);
-        } catch (IOException e) {
-            throw new CheckstyleExecutorException("Error getting files to process", e);
+        FileSkipFilter skipFilter = getFileSkipFilter(request);
+        ChangedFiles changedFiles = getChangedFiles(request);
+        List<List<File>> filesByProject = new ArrayList<>();
+        // the discovery of the files, made while they are audited with pipelineDiscovery
+        AtomicReference<FileDiscovery> fileDiscovery = new AtomicReference<>();
+        boolean pipelineDiscovery = request.isPipelineDiscovery();
+        if (pipelineDiscovery) {
+            // the files are discovered while they are audited
+            int projects = request.isAggregate() ? request.getReactorProjects().size() : 1;
+            for (int i = 0; i < projects; i++) {
+                filesByProject.add(new ArrayList<>());
+            }
+        } else {
+            FileDiscovery discovery = new FileDiscovery(null, skipFilter, changedFiles);
+            collectFilesToProcess(request, discovery);
+            filesByProject = discovery.getFilesByProject();
+            fileDiscovery.set(discovery);
         }
+        List<File> files = flatten(filesByProject);
 
         final String suppressionsFilePath = getSuppressionsFilePath(request);
         FilterSet filterSet = getSuppressionsFilterSet(suppressionsFilePath);
 
-        Checker checker = new Checker();
-
         // setup classloader, needed to avoid "Unable to get class information for ..." errors
         List<String> classPathStrings = new ArrayList<>();
         List<String> outputDirectories = new ArrayList<>();
@@ -154,26 +195,44 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
                     request, project, classPathStrings, outputDirectories, sourceDirectories, testSourceDirectories);
         }
 
-        checker.setModuleClassLoader(Thread.currentThread().getContextClassLoader());
+        ClassLoader moduleClassLoader = Thread.currentThread().getContextClassLoader();
 
-        if (filterSet != null) {
-            checker.addFilter(filterSet);
-        }
         Configuration configuration = getConfiguration(request);
-        checker.configure(configuration);
+
+        // the cache file is maintained by the executor, so that the modules with their own cache files share the
+        // pooled Checkers
+        String cacheFile = getCacheFile(configuration);
+        Configuration checkerConfiguration;
+        try {
+            checkerConfiguration = CheckerPool.withoutCacheFile(configuration);
+        } catch (CheckstyleException e) {
+            throw new CheckstyleExecutorException("Failed during checkstyle configuration", e);
+        }
+
+        CompositeAuditListener auditListener = new CompositeAuditListener();
+
+        SeverityLevelCounter errorCounter = new SeverityLevelCounter(SeverityLevel.ERROR);
+        auditListener.addListener(errorCounter);
 
         AuditListener listener = request.getListener();
 
         if (listener != null) {
-            checker.addListener(listener);
+            auditListener.addListener(listener);
         }
 
         if (request.isConsoleOutput()) {
-            checker.addListener(request.getConsoleListener());
+            auditListener.addListener(request.getConsoleListener());
         }
 
         CheckstyleCheckerListener checkerListener = new CheckstyleCheckerListener(configuration);
+        checkerListener.setResultsSpill(request.getMaxResultsInMemory(), request.getResultsSpillDirectory());
+        checkerListener.setResultsRetention(request.getMaxViolationsPerRule(), request.getMaxViolationsPerFile());
+        List<CheckstyleCheckerListener> projectListeners = new ArrayList<>();
+        ProjectAuditRouter router = null;
         if (request.isAggregate()) {
+            // each project gets its own listener, so that the projects can be audited independently
+            router = new ProjectAuditRouter(checkerListener);
+            Iterator<List<File>> projectFiles = filesByProject.iterator();
             for (MavenProject childProject : request.getReactorProjects()) {
                 sourceDirectories = sourceDirectoriesByProject.get(childProject);
                 testSourceDirectories = testSourceDirectoriesByProject.get(childProject);
@@ -183,17 +242,263 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
                         testSourceDirectories,
                         childProject.getResources(),
                         request);
+
+                CheckstyleCheckerListener projectListener = new CheckstyleCheckerListener(configuration);
+                projectListener.setResultsSpill(request.getMaxResultsInMemory(), request.getResultsSpillDirectory());
+                projectListener.setResultsRetention(
+                        request.getMaxViolationsPerRule(), request.getMaxViolationsPerFile());
+                addSourceDirectory(
+                        projectListener,
+                        sourceDirectories,
+                        testSourceDirectories,
+                        childProject.getResources(),
+                        request);
+                projectListeners.add(projectListener);
+                router.addProject(projectListener, projectFiles.next());
             }
+            auditListener.addListener(router);
         } else {
             addSourceDirectory(
                     checkerListener, sourceDirectories, testSourceDirectories, request.getResources(), request);
+            if (request.isCollectResults()) {
+                auditListener.addListener(checkerListener);
+            }
         }
 
-        checker.addListener(checkerListener);
+        int threads = getThreads(request);
+        // the audit can only be stopped between units, which are split by directory
+        BooleanSupplier stopCondition = request.getStopCondition();
+        // the incremental store keeps the audits by unit
+        String incrementalCacheFile = request.getIncrementalCacheFile();
+        boolean splitUnits = threads > 1 || stopCondition != null || incrementalCacheFile != null;
+        List<List<File>> units = getUnits(filesByProject, splitUnits);
+
+        int workers = pipelineDiscovery ? threads : Math.max(1, Math.min(threads, units.size()));
+        Set<String> externalResourceLocations = new HashSet<>();
+        // Checkers replacing the ones abandoned over the time budget of a file are leased during the audit
+        List<PooledChecker> pooledCheckers = Collections.synchronizedList(new ArrayList<>(workers));
+        long fileAuditTimeout = request.getFileAuditTimeout();
+        ParallelAuditor auditor = null;
+        boolean reusable = false;
+        // the caches detect the changed files from their metadata first
+        ChangeDetector changeDetector = new ChangeDetector(threads);
+        SessionAuditStore.Audit sessionAudit = null;
+        SessionAuditStore.Audit recordedAudit = null;
+        try {
+            for (int i = 0; i < workers; i++) {
+                PooledChecker pooledChecker = checkerPool.lease(checkerConfiguration, moduleClassLoader);
+                pooledCheckers.add(pooledChecker);
+                if (filterSet != null) {
+                    pooledChecker.addFilter(filterSet);
+                }
+                externalResourceLocations.addAll(pooledChecker.getExternalResourceLocations());
+            }
+            String auditFingerprint =
+                    getAuditFingerprint(checkerConfiguration, externalResourceLocations, suppressionsFilePath, false);
+
+            // an equivalent audit of the project shared earlier in the build, like the one of the check goal before
+            // the report, is replayed instead
+            String sessionKey = getSessionKey(request, auditFingerprint, classPathStrings);
+            sessionAudit = sessionAuditStore.take(project, sessionKey, threads);
+            if (sessionAudit == null && request.isShareAudit()) {
+                recordedAudit = new SessionAuditStore.Audit(
+                        sessionKey, request.getMaxResultsInMemory(), request.getResultsSpillDirectory());
+                auditListener.addListener(recordedAudit);
+            }
 
-        int nbErrors = checker.process(files);
+            IncrementalAuditStore incrementalStore = null;
+            if (incrementalCacheFile != null && sessionAudit == null) {
+                incrementalStore = new IncrementalAuditStore(
+                        new File(incrementalCacheFile), auditFingerprint, moduleClassLoader, changeDetector);
+                int storedUnits = incrementalStore.load();
+                logger.debug("Loaded " + storedUnits + " units from incremental cache file " + incrementalCacheFile);
+            }
 
-        checker.destroy();
+            AuditCache auditCache = null;
+            // the shared cache supersedes the cache file of the execution
+            String sharedCacheFile = request.getSharedCacheFile();
+            String auditCacheFile = sharedCacheFile != null ? sharedCacheFile : cacheFile;
+            // the incremental store supersedes the Checkstyle cache, which only keeps the files without violations
+            if (auditCacheFile != null && incrementalStore == null && sessionAudit == null) {
+                if (sharedCacheFile != null) {
+                    // the shared cache can be restored in another workspace
+                    auditCache = new AuditCache(new SharedCacheFile(
+                            new File(sharedCacheFile),
+                            getAuditFingerprint(
+                                    checkerConfiguration, externalResourceLocations, suppressionsFilePath, true),
+                            project.getBasedir(),
+                            project.getGroupId() + ":" + project.getArtifactId() + "/",
+                            changeDetector));
+                } else {
+                    auditCache = new AuditCache(configuration, cacheFile);
+                }
+                try {
+                    auditCache.load(externalResourceLocations);
+                } catch (IOException e) {
+                    throw new CheckstyleExecutorException("Unable to read cache file " + auditCacheFile, e);
+                }
+                auditListener.addListener(auditCache);
+
+                List<File> filesToProcess = auditCache.getFilesToProcess(files);
+                if (!pipelineDiscovery && filesToProcess.size() < files.size()) {
+                    logger.debug("Skipped " + (files.size() - filesToProcess.size()) + " files found in cache.");
+                    Set<File> retainedFiles = new HashSet<>(filesToProcess);
+                    for (List<File> projectFiles : filesByProject) {
+                        projectFiles.retainAll(retainedFiles);
+                    }
+                    files = filesToProcess;
+                    units = getUnits(filesByProject, splitUnits);
+                }
+            }
+
+            if (sessionAudit != null) {
+                logger.debug("Replaying the audit of an equivalent execution of this build.");
+                sessionAudit.replay(auditListener);
+            } else if (pipelineDiscovery
+                    || stopCondition != null
+                    || fileAuditTimeout > 0
+                    || incrementalStore != null
+                    || (workers > 1 && units.size() > 1)) {
+                List<Checker> checkers = new ArrayList<>(workers);
+                for (PooledChecker pooledChecker : pooledCheckers) {
+                    checkers.add(pooledChecker.getChecker());
+                }
+                auditor = new ParallelAuditor(checkers, Thread.currentThread().getContextClassLoader());
+                if (stopCondition != null) {
+                    auditor.setStopCondition(stopCondition);
+                }
+                if (incrementalStore != null) {
+                    auditor.setUnitStore(incrementalStore);
+                }
+                if (fileAuditTimeout > 0) {
+                    auditor.setFileTimeout(fileAuditTimeout, () -> {
+                        PooledChecker pooledChecker = checkerPool.lease(checkerConfiguration, moduleClassLoader);
+                        pooledCheckers.add(pooledChecker);
+                        if (filterSet != null) {
+                            pooledChecker.addFilter(filterSet);
+                        }
+                        return pooledChecker.getChecker();
+                    });
+                }
+                if (pipelineDiscovery) {
+                    logger.debug("Auditing files with " + workers + " threads while they are discovered.");
+                    AuditCache cache = auditCache;
+                    ProjectAuditRouter projectRouter = router;
+                    auditor.audit(
+                            feed -> fileDiscovery.set(discoverFiles(
+                                    request, feed, skipFilter, changedFiles, cache, projectRouter, projectListeners)),
+                            2 * workers,
+                            auditListener);
+                } else {
+                    if (incrementalStore != null) {
+                        incrementalStore.prefetch(files);
+                    }
+                    logger.debug("Auditing " + files.size() + " files with " + workers + " threads.");
+                    auditor.audit(units, files, auditListener);
+                }
+                if (auditor.isStopped()) {
+                    logger.debug("The audit was stopped before all the files were audited.");
+                }
+                if (incrementalStore != null) {
+                    logger.debug("Replayed " + auditor.getStoredUnits() + " units from the incremental cache.");
+                }
+                for (String timedOutFile : auditor.getTimedOutFiles()) {
+                    logger.warn("Abandoned the audit of " + timedOutFile + ", which took more than " + fileAuditTimeout
+                            + " ms.");
+                }
+                if (logger.isDebugEnabled()) {
+                    for (ParallelAuditor.WorkerStatistics statistics : auditor.getStatistics()) {
+                        logger.debug("Audit " + statistics);
+                    }
+                }
+            } else {
+                PooledChecker pooledChecker = pooledCheckers.get(0);
+                pooledChecker.addListener(auditListener);
+                pooledChecker.getChecker().process(files);
+            }
+            reusable = true;
+            // a partial audit does not make a module up to date, and is not replayed
+            FileDiscovery discovery = fileDiscovery.get();
+            if (sessionAudit != null) {
+                if (upToDateCheck != null) {
+                    upToDateCheck.auditFinished(
+                            sessionAudit.getDirectories(), sessionAudit.getFiles(), sessionAudit.getDependencies());
+                }
+            } else if (discovery != null
+                    && (auditor == null || !auditor.isStopped() && auditor.getTimedOutFiles().isEmpty())) {
+                List<File> dependencies = new ArrayList<>();
+                for (String resource : externalResourceLocations) {
+                    File resourceFile = getLocalFile(resource);
+                    if (resourceFile != null) {
+                        dependencies.add(resourceFile);
+                    }
+                }
+                if (upToDateCheck != null) {
+                    upToDateCheck.auditFinished(
+                            discovery.getScannedDirectories(), discovery.getScannedFiles(), dependencies);
+                }
+                if (recordedAudit != null) {
+                    if (recordedAudit.complete(
+                            discovery.getScannedDirectories(), discovery.getScannedFiles(), dependencies, threads)) {
+                        sessionAuditStore.put(project, recordedAudit);
+                        recordedAudit = null;
+                    }
+                }
+            }
+            if (changeDetector.getStatHits() + changeDetector.getHashedFiles() > 0) {
+                logger.debug("Change detection: " + changeDetector + ".");
+            }
+
+            if (auditCache != null) {
+                try {
+                    auditCache.persist();
+                } catch (IOException e) {
+                    throw new CheckstyleExecutorException("Unable to write cache file " + auditCacheFile, e);
+                }
+            }
+            if (incrementalStore != null) {
+                try {
+                    incrementalStore.persist();
+                } catch (IOException e) {
+                    throw new CheckstyleExecutorException(
+                            "Unable to write incremental cache file " + incrementalCacheFile, e);
+                }
+            }
+        } finally {
+            changeDetector.close();
+            // the replayed audit is released, the recorded one is only kept once complete
+            if (sessionAudit != null) {
+                sessionAudit.close();
+            }
+            if (recordedAudit != null) {
+                recordedAudit.close();
+            }
+            // a Checker which failed may be left in an inconsistent state, it is not reused
+            List<Checker> abandonedCheckers =
+                    auditor == null ? Collections.emptyList() : auditor.getAbandonedCheckers();
+            for (PooledChecker pooledChecker : pooledCheckers) {
+                // an abandoned Checker may still be processing a file, it is left to its thread
+                if (!abandonedCheckers.contains(pooledChecker.getChecker())) {
+                    checkerPool.release(pooledChecker, reusable);
+                }
+            }
+        }
+
+        if (changedFiles != null) {
+            logger.debug("Left out " + changedFiles.getExcludedFileCount() + " files unchanged since "
+                    + request.getChangedSince() + ".");
+        }
+        if (skipFilter != null) {
+            for (String unsuitableFile : skipFilter.getUnsuitableFiles()) {
+                if (skipFilter.isSkip()) {
+                    logger.debug("Skipped " + unsuitableFile);
+                } else {
+                    logger.warn("Audited " + unsuitableFile);
+                }
+            }
+        }
+
+        int nbErrors = errorCounter.getCount();
 
         if (nbErrors > 0) {
             StringBuilder message = new StringBuilder("There ");
@@ -228,7 +533,104 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
             }
         }
 
-        return checkerListener.getResults();
+        CheckstyleResults results;
+        if (request.isAggregate()) {
+            // the results of the projects are merged in the order of the reactor, like a sequential audit
+            projectListeners.add(checkerListener);
+            results = mergeResults(configuration, projectListeners, request);
+        } else if (request.isCollectResults()) {
+            results = checkerListener.getResults();
+        } else {
+            results = new CheckstyleResults();
+            results.setConfiguration(configuration);
+        }
+        if (skipFilter != null) {
+            results.setSkippedFileCount(skipFilter.getSkippedFileCount());
+        }
+        return results;
+    }
+
+    /**
+     * Discover the files to audit, giving them to the auditor as soon as they are found.
+     *
+     * @param request executor request data
+     * @param feed the feed of the auditor
+     * @param skipFilter the filter of the files not worth auditing, can be <code>null</code>
+     * @param changedFiles the only files to audit, <code>null</code> to audit all the files
+     * @param auditCache the cache of the files which do not need to be audited, can be <code>null</code>
+     * @param router the router of the events to the projects in aggregate mode, <code>null</code> otherwise
+     * @param projectListeners the listeners of the projects in aggregate mode
+     * @return the discovery of the files
+     */
+    private FileDiscovery discoverFiles(
+            CheckstyleExecutorRequest request,
+            ParallelAuditor.Feed feed,
+            FileSkipFilter skipFilter,
+            ChangedFiles changedFiles,
+            AuditCache auditCache,
+            ProjectAuditRouter router,
+            List<CheckstyleCheckerListener> projectListeners) {
+        FileDiscovery.Listener listener = new FileDiscovery.Listener() {
+            @Override
+            public void fileDiscovered(int project, File file) {
+                if (auditCache == null || auditCache.isToProcess(file)) {
+                    if (router != null) {
+                        router.addFile(projectListeners.get(project), file);
+                    }
+                    feed.addFile(file);
+                }
+            }
+
+            @Override
+            public void directoryScanned(File directory) {
+                feed.directoryScanned(directory);
+            }
+        };
+        FileDiscovery discovery = new FileDiscovery(listener, skipFilter, changedFiles);
+        collectFilesToProcess(request, discovery);
+        return discovery;
+    }
+
+    /**
+     * Split the files to audit into units of work. When auditing in parallel, the files of each project are split by
+     * directory, so that the projects are audited independently of each other.
+     *
+     * @param filesByProject the files to audit, by project
+     * @param parallel <code>true</code> if the units are audited in parallel
+     * @return the units of work
+     */
+    private static List<List<File>> getUnits(List<List<File>> filesByProject, boolean parallel) {
+        if (!parallel) {
+            return Collections.singletonList(flatten(filesByProject));
+        }
+        List<List<File>> units = new ArrayList<>();
+        for (List<File> projectFiles : filesByProject) {
+            units.addAll(ParallelAuditor.groupByDirectory(projectFiles));
+        }
+        return units;
+    }
+
+    private static List<File> flatten(List<List<File>> filesByProject) {
+        List<File> files = new ArrayList<>();
+        for (List<File> projectFiles : filesByProject) {
+            files.addAll(projectFiles);
+        }
+        return files;
+    }
+
+    private static CheckstyleResults mergeResults(
+            Configuration configuration,
+            List<CheckstyleCheckerListener> listeners,
+            CheckstyleExecutorRequest request) {
+        CheckstyleResults results =
+                new CheckstyleResults(request.getMaxResultsInMemory(), request.getResultsSpillDirectory());
+        results.setRetentionLimits(request.getMaxViolationsPerRule(), request.getMaxViolationsPerFile());
+        results.setConfiguration(configuration);
+        for (CheckstyleCheckerListener listener : listeners) {
+            results.addAll(listener.getResults());
+            listener.getResults().close();
+        }
+        return results;
     }
 
     protected void addSourceDirectory(
@@ -282,8 +684,8 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
             } else {
                 omitIgnoredModules = IgnoredModulesOptions.EXECUTE;
             }
-            Configuration config = ConfigurationLoader.loadConfiguration(
-                    configFile, new PropertiesExpander(overridingProperties), omitIgnoredModules);
+            // a copy of the configuration loaded by a previous execution, the attributes below are only added to it
+            Configuration config = configurationCache.load(configFile, overridingProperties, omitIgnoredModules);
             String effectiveEncoding = StringUtils.isNotEmpty(request.getEncoding())
                     ? request.getEncoding()
                     : System.getProperty("file.encoding", "UTF-8");
@@ -321,6 +723,27 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
         }
     }
 
+    /**
+     * Get the effective number of threads of an execution.
+     *
+     * @param request executor request data
+     * @return the number of threads, the number of available processors if none is requested
+     */
+    private int getThreads(CheckstyleExecutorRequest request) {
+        int threads = request.getThreads();
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    private String getCacheFile(Configuration config) {
+        try {
+            String cacheFile = config.getProperty("cacheFile");
+            return StringUtils.isEmpty(cacheFile) ? null : cacheFile;
+        } catch (CheckstyleException ex) {
+            // Checkstyle throws an exception when trying to access an attribute that doesn't exist
+            return null;
+        }
+    }
+
     private void prepareCheckstylePaths(
             CheckstyleExecutorRequest request,
             MavenProject project,
@@ -354,6 +777,121 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
         return false;
     }
 
+    /**
+     * Computes the fingerprint of everything but the audited files the audit depends on: the configuration, the
+     * resources its modules depend on, like the header files, the suppressions and the version of Checkstyle.
+     *
+     * @param configuration the effective configuration
+     * @param externalResourceLocations the locations of the resources the configured modules depend on
+     * @param suppressionsFilePath the path of the suppressions file, can be <code>null</code>
+     * @param relocatable <code>true</code> to only use the content of the local files, not their location, so that
+     *            the fingerprint does not depend on the location of the workspace
+     * @return the fingerprint
+     * @throws CheckstyleException if the configuration cannot be read
+     */
+    private String getAuditFingerprint(
+            Configuration configuration,
+            Set<String> externalResourceLocations,
+            String suppressionsFilePath,
+            boolean relocatable)
+            throws CheckstyleException {
+        Fingerprint fingerprint = new Fingerprint(relocatable).add(getCheckstyleVersion()).add(configuration);
+        Set<String> resources = new TreeSet<>(externalResourceLocations);
+        if (suppressionsFilePath != null) {
+            resources.add(suppressionsFilePath);
+        }
+        for (String resource : resources) {
+            File resourceFile = getLocalFile(resource);
+            if (resourceFile == null || !relocatable) {
+                fingerprint.add(resource);
+            }
+            if (resourceFile != null) {
+                try {
+                    fingerprint.addContent(resourceFile);
+                } catch (IOException e) {
+                    // the location alone is used
+                    fingerprint.add(resource);
+                }
+            }
+        }
+        return fingerprint.toHex();
+    }
+
+    /**
+     * Computes the fingerprint of the inputs of an audit, which is the same for the executions of the build auditing
+     * the same files with the same configuration, whatever their listeners and their caches.
+     *
+     * @param request executor request data
+     * @param auditFingerprint the fingerprint of the configuration of the audit
+     * @param classPathStrings the class path of the checks
+     * @return the fingerprint
+     */
+    private String getSessionKey(
+            CheckstyleExecutorRequest request, String auditFingerprint, List<String> classPathStrings) {
+        Fingerprint fingerprint = new Fingerprint()
+                .add(auditFingerprint)
+                .add(String.valueOf(request.isAggregate()))
+                .add(request.getIncludes())
+                .add(request.getExcludes())
+                .add(request.getResourceIncludes())
+                .add(request.getResourceExcludes())
+                .add(String.valueOf(request.isIncludeTestSourceDirectory()))
+                .add(String.valueOf(request.isIncludeResources()))
+                .add(String.valueOf(request.isIncludeTestResources()))
+                .add(request.getEncoding())
+                .add(String.valueOf(request.getMaxFileSize()))
+                .add(String.valueOf(request.isDetectBinaryFiles()))
+                .add(request.getFileFilterPolicy())
+                .add(request.getChangedSince());
+        if (request.isAggregate()) {
+            for (MavenProject reactorProject : request.getReactorProjects()) {
+                fingerprint.add(reactorProject.getId()).add(String.valueOf(reactorProject.getBasedir()));
+            }
+        }
+        addFiles(fingerprint, request.getSourceDirectories());
+        addFiles(fingerprint, request.getTestSourceDirectories());
+        addResources(fingerprint, request.getResources());
+        addResources(fingerprint, request.getTestResources());
+        for (String classPathString : classPathStrings) {
+            fingerprint.add(classPathString);
+        }
+        return fingerprint.toHex();
+    }
+
+    private static void addFiles(Fingerprint fingerprint, Collection<File> files) {
+        fingerprint.add(files == null ? null : String.valueOf(files.size()));
+        if (files != null) {
+            for (File file : files) {
+                fingerprint.add(file.getAbsolutePath());
+            }
+        }
+    }
+
+    private static void addResources(Fingerprint fingerprint, List<Resource> resources) {
+        fingerprint.add(resources == null ? null : String.valueOf(resources.size()));
+        if (resources != null) {
+            for (Resource resource : resources) {
+                fingerprint
+                        .add(resource.getDirectory())
+                        .add(String.valueOf(resource.getIncludes()))
+                        .add(String.valueOf(resource.getExcludes()));
+            }
+        }
+    }
+
+    /**
+     * @param resource the location of a resource
+     * @return the local file of the resource, <code>null</code> if it is not a file, like a remote resource
+     */
+    private static File getLocalFile(String resource) {
+        try {
+            File file = resource.startsWith("file:") ? new File(URI.create(resource)) : new File(resource);
+            return file.isFile() ? file : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Get the effective Checkstyle version at runtime.
      *
@@ -374,13 +912,17 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
                     logger.debug("request.getPropertiesLocation() " + request.getPropertiesLocation());
                 }
 
-                File propertiesFile =
-                        locator.getResourceAsFile(request.getPropertiesLocation(), "checkstyle-checker.properties");
+                File propertiesFile = getResourceAsFile(
+                        locator, request, null, request.getPropertiesLocation(), "checkstyle-checker.properties");
 
                 if (propertiesFile != null) {
-                    try (InputStream in = new FileInputStream(propertiesFile)) {
-                        p.load(in);
-                    }
+                    p.putAll(resourceCache.getParsedForm("properties", propertiesFile, file -> {
+                        Properties properties = new Properties();
+                        try (InputStream in = new FileInputStream(file)) {
+                            properties.load(in);
+                        }
+                        return properties;
+                    }));
                 }
             }
 
@@ -407,7 +949,12 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
 
             if (headerLocation != null && !headerLocation.isEmpty()) {
                 try {
-                    File headerFile = licenseLocator.getResourceAsFile(headerLocation, "checkstyle-header.txt");
+                    File headerFile = getResourceAsFile(
+                            licenseLocator,
+                            request,
+                            request.getLicenseArtifacts(),
+                            headerLocation,
+                            "checkstyle-header.txt");
 
                     if (headerFile != null) {
                         p.setProperty("checkstyle.header.file", headerFile.getAbsolutePath());
@@ -435,7 +982,53 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
         return p;
     }
 
-    private List<File> getFilesToProcess(CheckstyleExecutorRequest request) throws IOException {
+    /**
+     * @param request executor request data
+     * @return the filter of the files not worth auditing, <code>null</code> if all the files are audited
+     * @throws CheckstyleExecutorException if the policy is invalid
+     */
+    private FileSkipFilter getFileSkipFilter(CheckstyleExecutorRequest request) throws CheckstyleExecutorException {
+        if (request.getMaxFileSize() <= 0 && !request.isDetectBinaryFiles()) {
+            return null;
+        }
+        String policy = request.getFileFilterPolicy();
+        if (!"skip".equals(policy) && !"warn".equals(policy)) {
+            throw new CheckstyleExecutorException(
+                    "Invalid file filter policy: (" + policy + "). Must be 'skip' or 'warn'.");
+        }
+        return new FileSkipFilter(
+                request.getMaxFileSize(), request.isDetectBinaryFiles(), request.getEncoding(), "skip".equals(policy));
+    }
+
+    /**
+     * @param request executor request data
+     * @return the files added or modified since the revision of the request, <code>null</code> if all the files are
+     *         audited, including when the git repository cannot be read
+     */
+    private ChangedFiles getChangedFiles(CheckstyleExecutorRequest request) {
+        String revision = request.getChangedSince();
+        if (revision == null || revision.isEmpty()) {
+            return null;
+        }
+        File basedir = request.getProject().getBasedir();
+        try {
+            ChangedFiles changedFiles = ChangedFiles.since(basedir, revision);
+            logger.debug(changedFiles.size() + " files changed since " + revision + " in " + basedir);
+            return changedFiles;
+        } catch (IOException e) {
+            logger.warn("Unable to list the files changed since " + revision + " in " + basedir
+                    + ", all the files are audited: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Collect the files to audit, of each reactor project in aggregate mode, or of the project otherwise.
+     *
+     * @param request executor request data
+     * @param discovery the discovery collecting the files
+     */
+    private void collectFilesToProcess(CheckstyleExecutorRequest request, FileDiscovery discovery) {
         StringBuilder excludesStr = new StringBuilder();
 
         if (StringUtils.isNotEmpty(request.getExcludes())) {
@@ -451,7 +1044,6 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
             excludesStr.append(defaultExclude);
         }
 
-        Set<File> files = new LinkedHashSet<>();
         if (request.isAggregate()) {
             for (MavenProject project : request.getReactorProjects()) {
                 Set<File> sourceDirectories = new LinkedHashSet<>();
@@ -469,28 +1061,29 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
                     testSourceDirectories.add(new File(testCompileSourceRoot));
                 }
 
+                // a file shared by several projects is audited with the first one
+                discovery.startProject();
                 addFilesToProcess(
                         request,
                         sourceDirectories,
                         project.getResources(),
                         project.getTestResources(),
-                        files,
+                        discovery,
                         testSourceDirectories);
             }
         } else {
             Collection<File> sourceDirectories = request.getSourceDirectories();
+            discovery.startProject();
             addFilesToProcess(
                     request,
                     sourceDirectories,
                     request.getResources(),
                     request.getTestResources(),
-                    files,
+                    discovery,
                     request.getTestSourceDirectories());
         }
 
-        logger.debug("Added " + files.size() + " files to process.");
-
-        return new ArrayList<>(files);
+        logger.debug("Added " + discovery.getFileCount() + " files to process.");
     }
 
     private void addFilesToProcess(
@@ -498,16 +1091,14 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
             Collection<File> sourceDirectories,
             List<Resource> resources,
             List<Resource> testResources,
-            Collection<File> files,
-            Collection<File> testSourceDirectories)
-            throws IOException {
+            FileDiscovery discovery,
+            Collection<File> testSourceDirectories) {
         if (sourceDirectories != null) {
             for (File sourceDirectory : sourceDirectories) {
                 if (sourceDirectory.isDirectory()) {
-                    final List<File> sourceFiles =
-                            FileUtils.getFiles(sourceDirectory, request.getIncludes(), request.getExcludes());
-                    files.addAll(sourceFiles);
-                    logger.debug("Added " + sourceFiles.size() + " source files found in '"
+                    final int sourceFiles =
+                            discovery.scan(sourceDirectory, request.getIncludes(), request.getExcludes());
+                    logger.debug("Added " + sourceFiles + " source files found in '"
                             + sourceDirectory.getAbsolutePath() + "'.");
                 }
             }
@@ -516,31 +1107,30 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
         if (request.isIncludeTestSourceDirectory() && testSourceDirectories != null) {
             for (File testSourceDirectory : testSourceDirectories) {
                 if (testSourceDirectory.isDirectory()) {
-                    final List<File> testSourceFiles =
-                            FileUtils.getFiles(testSourceDirectory, request.getIncludes(), request.getExcludes());
+                    final int testSourceFiles =
+                            discovery.scan(testSourceDirectory, request.getIncludes(), request.getExcludes());
 
-                    files.addAll(testSourceFiles);
-                    logger.debug("Added " + testSourceFiles.size() + " test source files found in '"
+                    logger.debug("Added " + testSourceFiles + " test source files found in '"
                             + testSourceDirectory.getAbsolutePath() + "'.");
                 }
             }
         }
 
         if (resources != null && request.isIncludeResources()) {
-            addResourceFilesToProcess(request, resources, files);
+            addResourceFilesToProcess(request, resources, discovery);
         } else {
             logger.debug("No resources found in this project.");
         }
 
         if (testResources != null && request.isIncludeTestResources()) {
-            addResourceFilesToProcess(request, testResources, files);
+            addResourceFilesToProcess(request, testResources, discovery);
         } else {
             logger.debug("No test resources found in this project.");
         }
     }
 
     private void addResourceFilesToProcess(
-            CheckstyleExecutorRequest request, List<Resource> resources, Collection<File> files) throws IOException {
+            CheckstyleExecutorRequest request, List<Resource> resources, FileDiscovery discovery) {
         for (Resource resource : resources) {
             if (resource.getDirectory() != null) {
                 File resourcesDirectory = new File(resource.getDirectory());
@@ -567,9 +1157,8 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
                         }
                     }
 
-                    List<File> resourceFiles = FileUtils.getFiles(resourcesDirectory, includes, excludes);
-                    files.addAll(resourceFiles);
-                    logger.debug("Added " + resourceFiles.size() + " resource files found in '"
+                    int resourceFiles = discovery.scan(resourcesDirectory, includes, excludes);
+                    logger.debug("Added " + resourceFiles + " resource files found in '"
                             + resourcesDirectory.getAbsolutePath() + "'.");
                 } else {
                     logger.debug("The resources directory '" + resourcesDirectory.getAbsolutePath()
@@ -585,7 +1174,11 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
         }
 
         try {
-            return SuppressionsLoader.loadSuppressions(suppressionsFilePath);
+            // the filters are immutable, they are shared by the checkers
+            return resourceCache.getParsedForm(
+                    "suppressions",
+                    new File(suppressionsFilePath),
+                    file -> SuppressionsLoader.loadSuppressions(file.getPath()));
         } catch (CheckstyleException ce) {
             throw new CheckstyleExecutorException("Failed to load suppressions file from: " + suppressionsFilePath, ce);
         }
@@ -598,7 +1191,8 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
         }
 
         try {
-            File suppressionsFile = locator.getResourceAsFile(suppressionsLocation, "checkstyle-suppressions.xml");
+            File suppressionsFile =
+                    getResourceAsFile(locator, request, null, suppressionsLocation, "checkstyle-suppressions.xml");
             return suppressionsFile == null ? null : suppressionsFile.getAbsolutePath();
         } catch (ResourceNotFoundException e) {
             throw new CheckstyleExecutorException(
@@ -615,7 +1209,8 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
                 logger.debug("request.getConfigLocation() " + request.getConfigLocation());
             }
 
-            File configFile = locator.getResourceAsFile(request.getConfigLocation(), "checkstyle-checker.xml");
+            File configFile =
+                    getResourceAsFile(locator, request, null, request.getConfigLocation(), "checkstyle-checker.xml");
             if (configFile == null) {
                 throw new CheckstyleExecutorException(
                         "Unable to process config location: " + request.getConfigLocation());
@@ -630,6 +1225,45 @@ public class DefaultCheckstyleExecutor implements CheckstyleExecutor {
         }
     }
 
+    /**
+     * Resolves a resource with a locator configured by
+     * {@link #configureResourceLocator(ResourceManager, CheckstyleExecutorRequest, List)}, and copies it into the build
+     * directory of the project. The resources resolved with the same search paths are cached for the build.
+     *
+     * @param resourceManager the locator
+     * @param request executor request data
+     * @param additionalArtifacts the artifacts the locator was configured with
+     * @param location the location of the resource
+     * @param outputName the name of the copy of the resource
+     * @return the copy of the resource
+     */
+    private File getResourceAsFile(
+            final ResourceManager resourceManager,
+            final CheckstyleExecutorRequest request,
+            final List<Artifact> additionalArtifacts,
+            final String location,
+            final String outputName)
+            throws ResourceNotFoundException, FileResourceCreationException {
+        final MavenProject project = request.getProject();
+        StringBuilder searchPaths = new StringBuilder(String.valueOf(System.identityHashCode(resourceManager)));
+        MavenProject parent = project;
+        while (parent != null && parent.getFile() != null) {
+            searchPaths.append('\n').append(parent.getFile().getParentFile().getAbsolutePath());
+            parent = parent.getParent();
+        }
+        if (additionalArtifacts != null) {
+            for (Artifact artifact : additionalArtifacts) {
+                searchPaths.append('\n').append(artifact.getFile());
+            }
+        }
+        return resourceCache.getResourceAsFile(
+                resourceManager,
+                searchPaths.toString(),
+                location,
+                new File(project.getBuild().getDirectory()),
+                outputName);
+    }
+
     /**
      * Configures search paths in the resource locator.
      * This method should only be called once per execution.
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.puppycrawl.tools.checkstyle.ModuleFactory;
+import com.puppycrawl.tools.checkstyle.PackageNamesLoader;
+import com.puppycrawl.tools.checkstyle.PackageObjectFactory;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.ExternalResourceHolder;
+
+/**
+ * Module factory creating the Checkstyle modules the same way the Checker does by default, while keeping track of the
+ * modules which depend on external resources (header files, suppressions, ...).
+ *
+ * @since 3.6.1
+ */
+class ExternalResourceCollector implements ModuleFactory {
+    private final ModuleFactory delegate;
+
+    private final List<ExternalResourceHolder> holders = new ArrayList<>();
+
+    /**
+     * @param moduleClassLoader the class loader used to load the Checkstyle modules
+     * @throws CheckstyleException if the package names of the modules cannot be loaded
+     */
+    ExternalResourceCollector(ClassLoader moduleClassLoader) throws CheckstyleException {
+        Set<String> packageNames = PackageNamesLoader.getPackageNames(moduleClassLoader);
+        this.delegate = new PackageObjectFactory(packageNames, moduleClassLoader);
+    }
+
+    @Override
+    public Object createModule(String name) throws CheckstyleException {
+        Object module = delegate.createModule(name);
+        if (module instanceof ExternalResourceHolder) {
+            holders.add((ExternalResourceHolder) module);
+        }
+        return module;
+    }
+
+    /**
+     * @return the locations of the external resources of the modules created so far
+     */
+    Set<String> getExternalResourceLocations() {
+        Set<String> locations = new HashSet<>();
+        for (ExternalResourceHolder holder : holders) {
+            locations.addAll(holder.getExternalResourceLocations());
+        }
+        return locations;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+
+/**
+ * The events fired by a Checker for one file, recorded so that they can be replayed later.
+ *
+ * @since 3.6.1
+ */
+final class FileAudit {
+    private final String fileName;
+
+    private AuditEvent startedEvent;
+
+    private AuditEvent finishedEvent;
+
+    private final List<AuditEvent> events = new ArrayList<>();
+
+    /**
+     * Parallel to {@link #events}: <code>null</code> for an error, the cause for an exception.
+     */
+    private final List<Throwable> throwables = new ArrayList<>();
+
+    FileAudit(String fileName) {
+        this.fileName = fileName;
+    }
+
+    String getFileName() {
+        return fileName;
+    }
+
+    AuditEvent getStartedEvent() {
+        return startedEvent;
+    }
+
+    AuditEvent getFinishedEvent() {
+        return finishedEvent;
+    }
+
+    /**
+     * @return the errors and exceptions, in the order they were received
+     */
+    List<AuditEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * @return <code>true</code> if an exception was received
+     */
+    boolean hasException() {
+        for (Throwable throwable : throwables) {
+            if (throwable != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void fileStarted(AuditEvent event) {
+        this.startedEvent = event;
+    }
+
+    void fileFinished(AuditEvent event) {
+        this.finishedEvent = event;
+    }
+
+    void addError(AuditEvent event) {
+        events.add(event);
+        throwables.add(null);
+    }
+
+    void addException(AuditEvent event, Throwable throwable) {
+        events.add(event);
+        throwables.add(throwable);
+    }
+
+    /**
+     * Fires the recorded events again, in the order they were received.
+     *
+     * @param listener the listener to notify
+     */
+    void replay(AuditListener listener) {
+        if (startedEvent != null) {
+            listener.fileStarted(startedEvent);
+        }
+
+        for (int i = 0; i < events.size(); i++) {
+            Throwable throwable = throwables.get(i);
+            if (throwable == null) {
+                listener.addError(events.get(i));
+            } else {
+                listener.addException(events.get(i), throwable);
+            }
+        }
+
+        if (finishedEvent != null) {
+            listener.fileFinished(finishedEvent);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.codehaus.plexus.util.MatchPatterns;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * Collects the files to audit, the way <code>FileUtils.getFiles</code> does, while notifying each file as soon as it
+ * is found and each directory once it has been scanned. The directories are walked with {@link Files#walkFileTree}
+ * and the paths are matched with the include and exclude patterns of <code>DirectoryScanner</code>. A file found
+ * several times is only kept the first time, and a file left out by the {@link ChangedFiles} or rejected by the
+ * {@link FileSkipFilter} is not kept.
+ *
+ * @since 3.6.1
+ */
+class FileDiscovery {
+    /**
+     * Receives the files as they are discovered.
+     */
+    interface Listener {
+        /**
+         * @param project the index of the project the file belongs to
+         * @param file a file which was not discovered before
+         */
+        void fileDiscovered(int project, File file);
+
+        /**
+         * @param directory a directory whose files have all been discovered
+         */
+        void directoryScanned(File directory);
+    }
+
+    private final Listener listener;
+
+    private final FileSkipFilter skipFilter;
+
+    private final ChangedFiles changedFiles;
+
+    private final Set<File> files = new HashSet<>();
+
+    private final Set<File> directories = new HashSet<>();
+
+    private final List<List<File>> filesByProject = new ArrayList<>();
+
+    private int fileCount;
+
+    /**
+     * @param listener the listener to notify, can be <code>null</code>
+     */
+    FileDiscovery(Listener listener) {
+        this(listener, null);
+    }
+
+    /**
+     * @param listener the listener to notify, can be <code>null</code>
+     * @param skipFilter the filter of the files not worth auditing, can be <code>null</code>
+     */
+    FileDiscovery(Listener listener, FileSkipFilter skipFilter) {
+        this(listener, skipFilter, null);
+    }
+
+    /**
+     * @param listener the listener to notify, can be <code>null</code>
+     * @param skipFilter the filter of the files not worth auditing, can be <code>null</code>
+     * @param changedFiles the only files to keep, <code>null</code> to keep all the files
+     */
+    FileDiscovery(Listener listener, FileSkipFilter skipFilter, ChangedFiles changedFiles) {
+        this.listener = listener;
+        this.skipFilter = skipFilter;
+        this.changedFiles = changedFiles;
+    }
+
+    /**
+     * Starts collecting the files of the next project.
+     */
+    void startProject() {
+        filesByProject.add(new ArrayList<>());
+    }
+
+    /**
+     * Collects the files of a directory.
+     *
+     * @param directory the directory to scan
+     * @param includes the comma separated patterns of the files to include, can be <code>null</code>
+     * @param excludes the comma separated patterns of the files to exclude, can be <code>null</code>
+     * @return the number of files found, including the ones already discovered or skipped
+     */
+    int scan(File directory, String includes, String excludes) {
+        if (filesByProject.isEmpty()) {
+            startProject();
+        }
+        MatchPatterns includePatterns = MatchPatterns.from(getPatterns(includes, "**"));
+        MatchPatterns excludePatterns = MatchPatterns.from(getPatterns(excludes, null));
+        // the directories whose whole content is excluded, like the ones of the default excludes
+        List<String> excludedDirectories = new ArrayList<>();
+        String allFiles = File.separator + "**";
+        for (String exclude : excludePatterns.getSources()) {
+            if (exclude.endsWith(allFiles)) {
+                excludedDirectories.add(exclude.substring(0, exclude.length() - allFiles.length()));
+            }
+        }
+        MatchPatterns excludedDirectoryPatterns = MatchPatterns.from(excludedDirectories);
+
+        Path root = directory.toPath();
+        int[] count = new int[1];
+        try {
+            Files.walkFileTree(
+                    root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+                            if (dir.equals(root)) {
+                                return FileVisitResult.CONTINUE;
+                            }
+                            String name = root.relativize(dir).toString();
+                            if (excludedDirectoryPatterns.matches(name, true)
+                                    || !includePatterns.matches(name, true)
+                                            && !includePatterns.matchesPatternStart(name, true)) {
+                                return FileVisitResult.SKIP_SUBTREE;
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                            String name = root.relativize(file).toString();
+                            if (attributes.isRegularFile()
+                                    && includePatterns.matches(name, true)
+                                    && !excludePatterns.matches(name, true)) {
+                                count[0]++;
+                                // same path as FileUtils.getFiles
+                                addFile(new File(directory + File.separator + name));
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFileFailed(Path file, IOException e) {
+                            // an unreadable file or directory, or a symbolic link loop, is left out
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+                            File scanned = dir.toFile();
+                            directories.add(scanned);
+                            if (listener != null) {
+                                listener.directoryScanned(scanned);
+                            }
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+        } catch (IOException e) {
+            // the visitor leaves out the files it fails to read
+            throw new UncheckedIOException(e);
+        }
+        return count[0];
+    }
+
+    /**
+     * @param patterns the comma separated patterns, can be <code>null</code>
+     * @param defaultPattern the pattern when there is none, can be <code>null</code>
+     * @return the patterns normalized like <code>DirectoryScanner</code> does
+     */
+    private static List<String> getPatterns(String patterns, String defaultPattern) {
+        List<String> normalized = new ArrayList<>();
+        if (patterns != null) {
+            for (String pattern : StringUtils.split(patterns, ",")) {
+                pattern = pattern.trim();
+                if (!pattern.startsWith("%regex[")) {
+                    pattern = pattern.replace(File.separatorChar == '/' ? '\\' : '/', File.separatorChar);
+                    if (pattern.endsWith(File.separator)) {
+                        pattern += "**";
+                    }
+                }
+                normalized.add(pattern);
+            }
+        } else if (defaultPattern != null) {
+            normalized.add(defaultPattern);
+        }
+        return normalized;
+    }
+
+    /**
+     * @return the files discovered in each project
+     */
+    List<List<File>> getFilesByProject() {
+        return filesByProject;
+    }
+
+    /**
+     * @return the distinct files found by the scans, including the unchanged and the skipped ones
+     */
+    Set<File> getScannedFiles() {
+        return files;
+    }
+
+    /**
+     * @return the directories whose files were listed by the scans
+     */
+    Set<File> getScannedDirectories() {
+        return directories;
+    }
+
+    /**
+     * @return the number of distinct files discovered, not including the unchanged and the skipped ones
+     */
+    int getFileCount() {
+        return fileCount;
+    }
+
+    private void addFile(File file) {
+        if (files.add(file)
+                && (changedFiles == null || changedFiles.accept(file))
+                && (skipFilter == null || skipFilter.accept(file))) {
+            fileCount++;
+            int project = filesByProject.size() - 1;
+            filesByProject.get(project).add(file);
+            if (listener != null) {
+                listener.fileDiscovered(project, file);
+            }
+        }
+    }
+}
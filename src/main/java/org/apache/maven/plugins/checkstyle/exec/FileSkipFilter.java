@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Finds the discovered files which are not worth auditing: the files larger than a maximum size, and the binary files,
+ * like the ones found among the resources. A file is considered binary if its first bytes contain a NUL byte.
+ *
+ * @since 3.6.1
+ */
+class FileSkipFilter {
+    /** The number of bytes read to detect a binary file. */
+    private static final int SNIFF_LENGTH = 8000;
+
+    private final long maxFileSize;
+
+    private final boolean detectBinaryFiles;
+
+    private final boolean skip;
+
+    /** The files found not worth auditing, with the reason, written by the thread of the discovery. */
+    private final List<String> unsuitableFiles = new CopyOnWriteArrayList<>();
+
+    private int skippedFileCount;
+
+    /**
+     * @param maxFileSize the maximum size of an audited file, in bytes, <code>0</code> or less for no limit
+     * @param detectBinaryFiles <code>true</code> to look for binary files
+     * @param encoding the encoding of the files, binary files are not detected in a multi-byte encoding like UTF-16
+     * @param skip <code>true</code> to skip the files not worth auditing, <code>false</code> to only report them
+     */
+    FileSkipFilter(long maxFileSize, boolean detectBinaryFiles, String encoding, boolean skip) {
+        this.maxFileSize = maxFileSize;
+        this.detectBinaryFiles = detectBinaryFiles && !isWideEncoding(encoding);
+        this.skip = skip;
+    }
+
+    private static boolean isWideEncoding(String encoding) {
+        if (encoding == null) {
+            return false;
+        }
+        String name = encoding.toUpperCase(Locale.ROOT).replace("_", "-");
+        return name.startsWith("UTF-16") || name.startsWith("UTF-32") || name.startsWith("UTF16")
+                || name.startsWith("UTF32");
+    }
+
+    /**
+     * @param file a discovered file
+     * @return <code>true</code> if the file is to be audited
+     */
+    boolean accept(File file) {
+        String reason = getReason(file);
+        if (reason == null) {
+            return true;
+        }
+        unsuitableFiles.add(file.getPath() + ": " + reason);
+        if (skip) {
+            skippedFileCount++;
+        }
+        return !skip;
+    }
+
+    private String getReason(File file) {
+        if (maxFileSize > 0) {
+            long length = file.length();
+            if (length > maxFileSize) {
+                return "size of " + length + " bytes over the maximum of " + maxFileSize + " bytes";
+            }
+        }
+        if (detectBinaryFiles && isBinary(file)) {
+            return "binary content";
+        }
+        return null;
+    }
+
+    private static boolean isBinary(File file) {
+        byte[] buffer = new byte[SNIFF_LENGTH];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int length = 0;
+            int read;
+            while (length < buffer.length && (read = in.read(buffer, length, buffer.length - length)) > 0) {
+                length += read;
+            }
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] == 0) {
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            // the Checker reports the files it cannot read
+        }
+        return false;
+    }
+
+    /**
+     * @return <code>true</code> if the files not worth auditing are skipped, <code>false</code> if they are only
+     *         reported
+     */
+    boolean isSkip() {
+        return skip;
+    }
+
+    /**
+     * @return the files found not worth auditing, with the reason
+     */
+    List<String> getUnsuitableFiles() {
+        return unsuitableFiles;
+    }
+
+    /**
+     * @return the number of files skipped
+     */
+    int getSkippedFileCount() {
+        return skippedFileCount;
+    }
+}
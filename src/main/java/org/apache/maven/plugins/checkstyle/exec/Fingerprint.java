@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+
+/**
+ * SHA-256 fingerprint of values, configurations and file contents. Each value is length-prefixed, so that different
+ * sequences of values never give the same fingerprint.
+ * <p>
+ * A relocatable fingerprint does not depend on the location of the workspace: the properties of a configuration
+ * holding the absolute path of a file, like a header file, are replaced by the content of the file.
+ *
+ * @since 3.6.1
+ */
+final class Fingerprint {
+    /** The size from which the content of a file is mapped in memory rather than read. */
+    private static final long MAPPING_THRESHOLD = 64 * 1024;
+
+    /** The size of the regions of a file mapped at once. */
+    private static final long MAPPING_SIZE = 64L * 1024 * 1024;
+
+    private final MessageDigest digest;
+
+    private final boolean relocatable;
+
+    Fingerprint() {
+        this(false);
+    }
+
+    /**
+     * @param relocatable <code>true</code> to replace the absolute paths of files by their content
+     */
+    Fingerprint(boolean relocatable) {
+        this.relocatable = relocatable;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @param value a value, can be <code>null</code>
+     * @return this object
+     */
+    Fingerprint add(String value) {
+        byte[] bytes = String.valueOf(value).getBytes(StandardCharsets.UTF_8);
+        digest.update(Integer.toString(bytes.length).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) ':');
+        digest.update(bytes);
+        return this;
+    }
+
+    /**
+     * Adds a configuration tree: the names, the properties and the messages of the modules, in a stable order.
+     *
+     * @param configuration a configuration
+     * @return this object
+     * @throws CheckstyleException if a property cannot be read
+     */
+    Fingerprint add(Configuration configuration) throws CheckstyleException {
+        add(configuration.getName());
+
+        String[] propertyNames = configuration.getPropertyNames();
+        Arrays.sort(propertyNames);
+        add(Integer.toString(propertyNames.length));
+        for (String name : propertyNames) {
+            add(name);
+            addProperty(configuration.getProperty(name));
+        }
+
+        Map<String, String> messages = new TreeMap<>(configuration.getMessages());
+        add(Integer.toString(messages.size()));
+        for (Map.Entry<String, String> message : messages.entrySet()) {
+            add(message.getKey());
+            add(message.getValue());
+        }
+
+        Configuration[] children = configuration.getChildren();
+        add(Integer.toString(children.length));
+        for (Configuration child : children) {
+            add(child);
+        }
+        return this;
+    }
+
+    private void addProperty(String value) {
+        if (relocatable && value != null) {
+            File file = new File(value);
+            if (file.isAbsolute() && file.isFile()) {
+                try {
+                    addContent(file);
+                    return;
+                } catch (IOException e) {
+                    // the path is used instead
+                }
+            }
+        }
+        add(value);
+    }
+
+    /**
+     * Adds the content of a file. A large file is mapped in memory, so that it is hashed without being copied.
+     *
+     * @param file a file
+     * @return this object
+     * @throws IOException if the file cannot be read
+     */
+    Fingerprint addContent(File file) throws IOException {
+        long length = file.length();
+        add(Long.toString(length));
+        if (length >= MAPPING_THRESHOLD) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                long size = channel.size();
+                for (long position = 0; position < size; position += MAPPING_SIZE) {
+                    digest.update(channel.map(
+                            FileChannel.MapMode.READ_ONLY, position, Math.min(MAPPING_SIZE, size - position)));
+                }
+            }
+            return this;
+        }
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            for (int read = in.read(buffer); read > 0; read = in.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds a content read in memory, like {@link #addContent(File)} adds the same content from a file.
+     *
+     * @param content the content
+     * @return this object
+     */
+    Fingerprint addContent(byte[] content) {
+        add(Integer.toString(content.length));
+        digest.update(content);
+        return this;
+    }
+
+    /**
+     * @return the fingerprint, in hexadecimal
+     */
+    String toHex() {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * @param file a file
+     * @return the fingerprint of the content of the file, in hexadecimal
+     * @throws IOException if the file cannot be read
+     */
+    static String of(File file) throws IOException {
+        return new Fingerprint().addContent(file).toHex();
+    }
+}
@@ -0,0 +1,428 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+
+/**
+ * Incremental store of the audits, kept in a file across builds.
+ * <p>
+ * The Checkstyle cache only remembers the files processed without any violation, so every file with a violation is
+ * parsed again on each build. The store keeps the events fired for each unit of work (the files of a directory), along
+ * with the content hash of its files: a unit whose files all have the same content is not audited again, its events are
+ * replayed instead. The changes are detected by a {@link ChangeDetector}, which only hashes the files whose size or
+ * modification time changed. The whole store is discarded when its fingerprint, covering the configuration and the
+ * resources it depends on, changes.
+ * <p>
+ * A unit with an exception is not stored, and the units which were not part of the last audit are dropped.
+ *
+ * @since 3.6.1
+ */
+class IncrementalAuditStore implements ParallelAuditor.UnitStore {
+    private static final int MAGIC = 0x43534153;
+
+    private static final int VERSION = 2;
+
+    private final File file;
+
+    private final String fingerprint;
+
+    private final ClassLoader moduleClassLoader;
+
+    private final ChangeDetector changeDetector;
+
+    /** The units read from the file, by directory. */
+    private final Map<String, StoredUnit> storedUnits = new ConcurrentHashMap<>();
+
+    /** The units of the current audit, by directory, which are written back to the file. */
+    private final Map<String, StoredUnit> currentUnits = new ConcurrentHashMap<>();
+
+    /** The states of the files read from the file, by file name. */
+    private final Map<String, ChangeDetector.FileState> storedStates = new ConcurrentHashMap<>();
+
+    /** The current states of the files, by file name, reused once the unit is audited. */
+    private final Map<String, ChangeDetector.FileState> currentStates = new ConcurrentHashMap<>();
+
+    private final Map<String, Class<?>> sourceClasses = new ConcurrentHashMap<>();
+
+    /**
+     * @param file the file of the store
+     * @param fingerprint the fingerprint of everything but the audited files the audit depends on
+     * @param moduleClassLoader the class loader of the Checkstyle modules, to resolve the sources of the events
+     * @param changeDetector the detector of the changed files
+     */
+    IncrementalAuditStore(
+            File file, String fingerprint, ClassLoader moduleClassLoader, ChangeDetector changeDetector) {
+        this.file = file;
+        this.fingerprint = fingerprint;
+        this.moduleClassLoader = moduleClassLoader;
+        this.changeDetector = changeDetector;
+    }
+
+    /**
+     * Reads the file of the store. A missing, outdated or unreadable file gives an empty store.
+     *
+     * @return the number of units read
+     */
+    int load() {
+        storedUnits.clear();
+        storedStates.clear();
+        if (!file.isFile()) {
+            return 0;
+        }
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !fingerprint.equals(readString(in))) {
+                return 0;
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                String key = readString(in);
+                StoredUnit unit = readUnit(in);
+                if (unit != null) {
+                    storedUnits.put(key, unit);
+                    for (int j = 0; j < unit.fileNames.size(); j++) {
+                        storedStates.put(unit.fileNames.get(j), unit.states.get(j));
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // the store is rebuilt
+            storedUnits.clear();
+            storedStates.clear();
+        }
+        return storedUnits.size();
+    }
+
+    /**
+     * Writes the units of the current audit to the file of the store.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    void persist() throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temporary = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+        try {
+            try (DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, fingerprint);
+                out.writeInt(currentUnits.size());
+                for (Map.Entry<String, StoredUnit> unit : currentUnits.entrySet()) {
+                    writeString(out, unit.getKey());
+                    writeUnit(out, unit.getValue());
+                }
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Detects the changes of files before they are looked up, so that they are hashed in parallel.
+     *
+     * @param files the files about to be looked up
+     */
+    void prefetch(Collection<File> files) {
+        try {
+            currentStates.putAll(changeDetector.detect(files, storedStates::get));
+        } catch (IOException e) {
+            // the files are detected again by the lookups
+        }
+    }
+
+    @Override
+    public AuditRecorder lookup(List<File> unit) {
+        List<File> undetected = new ArrayList<>();
+        for (File unitFile : unit) {
+            if (!currentStates.containsKey(unitFile.getAbsolutePath())) {
+                undetected.add(unitFile);
+            }
+        }
+        if (!undetected.isEmpty()) {
+            try {
+                currentStates.putAll(changeDetector.detect(undetected, storedStates::get));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        List<String> hashes = new ArrayList<>(unit.size());
+        for (File unitFile : unit) {
+            ChangeDetector.FileState state = currentStates.get(unitFile.getAbsolutePath());
+            if (state == null) {
+                // the Checker reports the files it cannot read
+                return null;
+            }
+            hashes.add(state.getHash());
+        }
+
+        String key = getKey(unit);
+        StoredUnit storedUnit = storedUnits.get(key);
+        if (storedUnit == null || !storedUnit.matches(unit, hashes)) {
+            return null;
+        }
+        currentUnits.put(key, storedUnit);
+
+        AuditRecorder recorder = new AuditRecorder(unit);
+        for (FileAudit fileAudit : storedUnit.fileAudits) {
+            recorder.addFileAudit(fileAudit);
+        }
+        for (FileAudit trailingAudit : storedUnit.trailingAudits) {
+            recorder.addTrailingAudit(trailingAudit);
+        }
+        return recorder;
+    }
+
+    @Override
+    public void unitAudited(List<File> unit, AuditRecorder recorder) {
+        String key = getKey(unit);
+        List<FileAudit> fileAudits = new ArrayList<>(recorder.getFileAudits());
+        List<FileAudit> trailingAudits = new ArrayList<>(recorder.getTrailingAudits());
+        for (List<FileAudit> audits : Arrays.asList(fileAudits, trailingAudits)) {
+            for (FileAudit audit : audits) {
+                if (audit.hasException()) {
+                    // the exception may not happen again
+                    currentUnits.remove(key);
+                    return;
+                }
+            }
+        }
+
+        List<String> fileNames = new ArrayList<>(unit.size());
+        List<ChangeDetector.FileState> states = new ArrayList<>(unit.size());
+        for (File unitFile : unit) {
+            String fileName = unitFile.getAbsolutePath();
+            ChangeDetector.FileState state = currentStates.get(fileName);
+            if (state == null) {
+                return;
+            }
+            fileNames.add(fileName);
+            states.add(state);
+        }
+        currentUnits.put(key, new StoredUnit(fileNames, states, fileAudits, trailingAudits));
+    }
+
+    private static String getKey(List<File> unit) {
+        return unit.isEmpty() ? "" : unit.get(0).getAbsoluteFile().getParent();
+    }
+
+    private StoredUnit readUnit(DataInputStream in) throws IOException {
+        boolean resolved = true;
+        int fileCount = in.readInt();
+        List<String> fileNames = new ArrayList<>(fileCount);
+        List<ChangeDetector.FileState> states = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            fileNames.add(readString(in));
+            long size = in.readLong();
+            long lastModified = in.readLong();
+            states.add(new ChangeDetector.FileState(size, lastModified, readString(in)));
+        }
+        List<List<FileAudit>> audits = new ArrayList<>(2);
+        for (int list = 0; list < 2; list++) {
+            int auditCount = in.readInt();
+            List<FileAudit> fileAudits = new ArrayList<>(auditCount);
+            for (int i = 0; i < auditCount; i++) {
+                FileAudit fileAudit = readAudit(in);
+                resolved &= fileAudit != null;
+                fileAudits.add(fileAudit);
+            }
+            audits.add(fileAudits);
+        }
+        // a unit with an event whose source cannot be loaded anymore is audited again
+        return resolved ? new StoredUnit(fileNames, states, audits.get(0), audits.get(1)) : null;
+    }
+
+    private void writeUnit(DataOutputStream out, StoredUnit unit) throws IOException {
+        out.writeInt(unit.fileNames.size());
+        for (int i = 0; i < unit.fileNames.size(); i++) {
+            ChangeDetector.FileState state = unit.states.get(i);
+            writeString(out, unit.fileNames.get(i));
+            out.writeLong(state.getSize());
+            out.writeLong(state.getLastModified());
+            writeString(out, state.getHash());
+        }
+        for (List<FileAudit> audits : Arrays.asList(unit.fileAudits, unit.trailingAudits)) {
+            out.writeInt(audits.size());
+            for (FileAudit audit : audits) {
+                writeAudit(out, audit);
+            }
+        }
+    }
+
+    private FileAudit readAudit(DataInputStream in) throws IOException {
+        String fileName = readString(in);
+        boolean started = in.readBoolean();
+        boolean finished = in.readBoolean();
+        FileAudit fileAudit = new FileAudit(fileName);
+        if (started) {
+            fileAudit.fileStarted(new AuditEvent(this, fileName));
+        }
+        boolean resolved = true;
+        for (int i = in.readInt(); i > 0; i--) {
+            int line = in.readInt();
+            int column = in.readInt();
+            int columnCharIndex = in.readInt();
+            int tokenType = in.readInt();
+            SeverityLevel severity = SeverityLevel.getInstance(readString(in));
+            String moduleId = readString(in);
+            String sourceName = readString(in);
+            String key = readString(in);
+            String message = readString(in);
+
+            Class<?> sourceClass = getSourceClass(sourceName);
+            if (sourceClass == null) {
+                resolved = false;
+                continue;
+            }
+            // the message is stored formatted, it is quoted so that it is used as is
+            Violation violation = new Violation(
+                    line,
+                    column,
+                    columnCharIndex,
+                    tokenType,
+                    null,
+                    key,
+                    new Object[0],
+                    severity,
+                    moduleId,
+                    sourceClass,
+                    "'" + message.replace("'", "''") + "'");
+            fileAudit.addError(new AuditEvent(this, fileName, violation));
+        }
+        if (finished) {
+            fileAudit.fileFinished(new AuditEvent(this, fileName));
+        }
+        return resolved ? fileAudit : null;
+    }
+
+    private static void writeAudit(DataOutputStream out, FileAudit audit) throws IOException {
+        writeString(out, audit.getFileName());
+        out.writeBoolean(audit.getStartedEvent() != null);
+        out.writeBoolean(audit.getFinishedEvent() != null);
+        out.writeInt(audit.getEvents().size());
+        for (AuditEvent event : audit.getEvents()) {
+            Violation violation = event.getViolation();
+            out.writeInt(violation.getLineNo());
+            out.writeInt(violation.getColumnNo());
+            out.writeInt(violation.getColumnCharIndex());
+            out.writeInt(violation.getTokenType());
+            writeString(out, violation.getSeverityLevel().getName());
+            writeString(out, violation.getModuleId());
+            writeString(out, violation.getSourceName());
+            writeString(out, violation.getKey());
+            writeString(out, violation.getViolation());
+        }
+    }
+
+    private Class<?> getSourceClass(String sourceName) {
+        if (sourceName == null) {
+            return null;
+        }
+        return sourceClasses.computeIfAbsent(sourceName, name -> {
+            try {
+                return Class.forName(name, false, moduleClassLoader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                return null;
+            }
+        });
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * The stored audit of a unit.
+     */
+    private static final class StoredUnit {
+        private final List<String> fileNames;
+
+        private final List<ChangeDetector.FileState> states;
+
+        private final List<FileAudit> fileAudits;
+
+        private final List<FileAudit> trailingAudits;
+
+        StoredUnit(
+                List<String> fileNames,
+                List<ChangeDetector.FileState> states,
+                List<FileAudit> fileAudits,
+                List<FileAudit> trailingAudits) {
+            this.fileNames = fileNames;
+            this.states = states;
+            this.fileAudits = fileAudits;
+            this.trailingAudits = trailingAudits;
+        }
+
+        boolean matches(List<File> unit, List<String> unitHashes) {
+            if (unit.size() != fileNames.size()) {
+                return false;
+            }
+            for (int i = 0; i < unit.size(); i++) {
+                if (!fileNames.get(i).equals(unit.get(i).getAbsolutePath())
+                        || !states.get(i).getHash().equals(unitHashes.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
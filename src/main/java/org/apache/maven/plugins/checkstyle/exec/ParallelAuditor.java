@@ -0,0 +1,902 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+
+/**
+ * Audits files with several Checker instances on a pool of worker threads.
+ * <p>
+ * The files are split into units of work, one per directory, so that the checks looking at several files of a
+ * directory (like <code>JavadocPackage</code> or <code>Translation</code>) see the same files as in a sequential
+ * run. The events fired by the Checkers are recorded and replayed into the listener of the execution from the calling
+ * thread, in the order of the files, so that the listener gets the same events as in a sequential run.
+ * <p>
+ * The units are scheduled longest first, by size in bytes: each worker has its own queue, filled by always giving the
+ * next unit to the least loaded worker, and a worker whose queue is empty steals the next unit of the most loaded
+ * one. A single large unit thus starts as early as possible instead of delaying the end of the audit.
+ * <p>
+ * The files can also be audited while they are being discovered: the units are then audited in the order they are
+ * completed by the discovery, which waits when too many units are waiting for a worker.
+ * <p>
+ * The audit can be stopped early by a condition checked after each replayed file: the files replayed so far are
+ * reported as a complete audit, and the workers stop once their current unit is audited.
+ * <p>
+ * Each file can be given a time budget, enforced by a watchdog: the Checker still processing a file after its budget is
+ * abandoned to its thread, the file is reported with an exception, and the other files of its unit are audited again
+ * by a new worker with a new Checker.
+ * <p>
+ * The audits of the units can be kept in a {@link UnitStore}: a unit found in the store is not audited again, its
+ * stored events are replayed instead.
+ *
+ * @since 3.6.1
+ */
+class ParallelAuditor {
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    /** Marks the end of the units, or of the files to replay. */
+    private static final Task END = new Task();
+
+    private final List<Checker> checkers;
+
+    private final ClassLoader contextClassLoader;
+
+    /** The workers, to which a new worker is added each time one is abandoned by the watchdog. */
+    private final List<Worker> workers = new CopyOnWriteArrayList<>();
+
+    /** The files in the order their events are replayed, with the task auditing them. */
+    private final BlockingQueue<Entry> replayOrder = new LinkedBlockingQueue<>();
+
+    /** The units completed by the discovery, <code>null</code> if all the units are known beforehand. */
+    private BlockingQueue<Task> discoveredUnits;
+
+    private volatile Throwable failure;
+
+    private volatile Throwable discoveryFailure;
+
+    private BooleanSupplier stopCondition = () -> false;
+
+    private volatile boolean stopped;
+
+    /** The thread running the discovery, interrupted if the audit is stopped while it waits for a worker. */
+    private volatile Thread discoveryThread;
+
+    private long fileTimeout;
+
+    private Callable<Checker> checkerFactory;
+
+    private ExecutorService executorService;
+
+    private final List<Checker> abandonedCheckers = new CopyOnWriteArrayList<>();
+
+    private final List<String> timedOutFiles = new CopyOnWriteArrayList<>();
+
+    private UnitStore unitStore;
+
+    private final AtomicInteger storedUnits = new AtomicInteger();
+
+    /**
+     * @param checkers the configured Checker instances, one per worker thread
+     * @param contextClassLoader the context class loader to use in the worker threads
+     */
+    ParallelAuditor(List<Checker> checkers, ClassLoader contextClassLoader) {
+        this.checkers = checkers;
+        this.contextClassLoader = contextClassLoader;
+    }
+
+    /**
+     * @param stopCondition checked after the events of each file have been replayed, the audit is stopped as soon as
+     *            it returns <code>true</code>
+     */
+    void setStopCondition(BooleanSupplier stopCondition) {
+        this.stopCondition = stopCondition;
+    }
+
+    /**
+     * @return <code>true</code> if the last audit was stopped before all the files were audited
+     */
+    boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Enforces a time budget on the audit of each file.
+     *
+     * @param fileTimeout the maximum time spent auditing a file, in milliseconds, <code>0</code> for no limit
+     * @param checkerFactory creates the Checker of the worker replacing one which exceeded the budget
+     */
+    void setFileTimeout(long fileTimeout, Callable<Checker> checkerFactory) {
+        this.fileTimeout = fileTimeout;
+        this.checkerFactory = checkerFactory;
+    }
+
+    /**
+     * @param unitStore the store of the audits of the units
+     */
+    void setUnitStore(UnitStore unitStore) {
+        this.unitStore = unitStore;
+    }
+
+    /**
+     * @return the number of units of the last audit replayed from the store instead of being audited
+     */
+    int getStoredUnits() {
+        return storedUnits.get();
+    }
+
+    /**
+     * @return the Checkers abandoned by the last audit, which may still be processing a file and must not be used
+     *         anymore
+     */
+    List<Checker> getAbandonedCheckers() {
+        return abandonedCheckers;
+    }
+
+    /**
+     * @return the files whose audit exceeded the time budget in the last audit
+     */
+    List<String> getTimedOutFiles() {
+        return timedOutFiles;
+    }
+
+    /**
+     * Splits files into units of work, one per directory, in the order the directories are first encountered.
+     *
+     * @param files the files to audit
+     * @return the units of work
+     */
+    static List<List<File>> groupByDirectory(List<File> files) {
+        Map<File, List<File>> units = new LinkedHashMap<>();
+        for (File file : files) {
+            units.computeIfAbsent(file.getAbsoluteFile().getParentFile(), k -> new ArrayList<>())
+                    .add(file);
+        }
+        return new ArrayList<>(units.values());
+    }
+
+    /**
+     * Audits the files.
+     *
+     * @param units the units of work, as returned by {@link #groupByDirectory(List)}
+     * @param files all the files to audit, in the order their events must be fired
+     * @param listener the listener to notify
+     * @throws CheckstyleException if a Checker fails to process a file
+     */
+    void audit(List<List<File>> units, List<File> files, AuditListener listener) throws CheckstyleException {
+        List<Task> tasks = new ArrayList<>(units.size());
+        Map<String, Task> fileTasks = new HashMap<>();
+        for (List<File> unit : units) {
+            Task task = new Task();
+            for (File file : unit) {
+                task.add(file);
+                fileTasks.put(file.getAbsolutePath(), task);
+            }
+            tasks.add(task);
+        }
+        for (File file : files) {
+            String fileName = file.getAbsolutePath();
+            replayOrder.add(new Entry(fileName, fileTasks.get(fileName)));
+        }
+        replayOrder.add(new Entry(null, END));
+        schedule(tasks);
+
+        run(null, listener);
+    }
+
+    /**
+     * Audits the files while they are discovered.
+     *
+     * @param discovery discovers the files and gives them to the feed, from another thread
+     * @param capacity the maximum number of discovered units waiting for a worker
+     * @param listener the listener to notify
+     * @throws CheckstyleException if a Checker fails to process a file or if the discovery fails
+     */
+    void audit(Consumer<Feed> discovery, int capacity, AuditListener listener) throws CheckstyleException {
+        discoveredUnits = new LinkedBlockingQueue<>(capacity);
+        schedule(Collections.emptyList());
+
+        run(discovery, listener);
+    }
+
+    private void run(Consumer<Feed> discovery, AuditListener listener) throws CheckstyleException {
+        stopped = false;
+        abandonedCheckers.clear();
+        timedOutFiles.clear();
+        WorkerThreadFactory threadFactory = new WorkerThreadFactory();
+        // new workers replace the ones abandoned by the watchdog
+        executorService = Executors.newCachedThreadPool(threadFactory);
+        ScheduledExecutorService watchdog = null;
+        try {
+            long start = System.nanoTime();
+            for (Worker worker : workers) {
+                worker.start = start;
+                executorService.execute(worker);
+            }
+            if (discovery != null) {
+                executorService.execute(() -> discover(discovery));
+            }
+            if (fileTimeout > 0) {
+                watchdog = Executors.newSingleThreadScheduledExecutor(threadFactory);
+                long period = Math.max(1, fileTimeout / 4);
+                watchdog.scheduleWithFixedDelay(this::checkFileTimeouts, period, period, TimeUnit.MILLISECONDS);
+            }
+
+            AuditEvent auditEvent = new AuditEvent(this);
+            listener.auditStarted(auditEvent);
+
+            // the tasks in the order of their first file
+            Set<Task> tasks = new LinkedHashSet<>();
+            for (Entry entry = replayOrder.take(); entry.task != END; entry = replayOrder.take()) {
+                tasks.add(entry.task);
+                FileAudit fileAudit = getResult(entry.task.future).removeFileAudit(entry.fileName);
+                if (fileAudit != null) {
+                    fileAudit.replay(listener);
+                }
+                if (stopCondition.getAsBoolean()) {
+                    stop();
+                    break;
+                }
+            }
+            if (discoveryFailure != null) {
+                throw new CheckstyleException("Failed to discover the files to audit", discoveryFailure);
+            }
+
+            for (Task task : tasks) {
+                for (FileAudit trailingAudit : getResult(task.future).getTrailingAudits()) {
+                    trailingAudit.replay(listener);
+                }
+            }
+
+            listener.auditFinished(auditEvent);
+
+            if (watchdog != null) {
+                watchdog.shutdown();
+                watchdog.awaitTermination(1, TimeUnit.MINUTES);
+            }
+            executorService.shutdown();
+            // the Checkers are reused once their worker is done, the abandoned ones are not waited for
+            for (Worker worker : workers) {
+                if (!worker.abandoned) {
+                    worker.finished.await(1, TimeUnit.MINUTES);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CheckstyleException("Interrupted while waiting for the audit to complete", e);
+        } finally {
+            if (watchdog != null) {
+                watchdog.shutdownNow();
+            }
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Abandons the workers auditing a file for longer than the time budget.
+     */
+    private void checkFileTimeouts() {
+        long now = System.nanoTime();
+        for (Worker worker : workers) {
+            Task task;
+            String fileName;
+            long elapsed;
+            synchronized (worker) {
+                AuditRecorder recorder = worker.currentRecorder;
+                if (worker.abandoned || recorder == null || recorder.getCurrentFileName() == null) {
+                    continue;
+                }
+                fileName = recorder.getCurrentFileName();
+                elapsed = TimeUnit.NANOSECONDS.toMillis(now - recorder.getCurrentFileStart());
+                if (elapsed < fileTimeout) {
+                    continue;
+                }
+                worker.abandoned = true;
+                task = worker.currentTask;
+            }
+            abandon(worker, task, fileName, elapsed);
+        }
+    }
+
+    /**
+     * Replaces a worker stuck on a file: the file is reported with an exception, and the other files of its unit are
+     * audited again by a new worker.
+     */
+    private void abandon(Worker worker, Task task, String fileName, long elapsed) {
+        abandonedCheckers.add(worker.checker);
+        timedOutFiles.add(fileName);
+        // some checks may react to the interruption, the thread is left to complete on its own anyway
+        worker.interrupt();
+
+        FileAudit timedOutAudit = new FileAudit(fileName);
+        AuditEvent event = new AuditEvent(this, fileName);
+        timedOutAudit.fileStarted(event);
+        timedOutAudit.addException(
+                event,
+                new CheckstyleException("Abandoned the audit of " + fileName + " after " + elapsed
+                        + " ms, over the time budget of " + fileTimeout + " ms"));
+        timedOutAudit.fileFinished(event);
+
+        Task retry = new Task();
+        for (File file : task.unit) {
+            if (!file.getAbsolutePath().equals(fileName)) {
+                retry.add(file);
+            }
+        }
+        retry.future.whenComplete((recorder, e) -> {
+            if (e == null) {
+                recorder.addFileAudit(timedOutAudit);
+                task.future.complete(recorder);
+            } else {
+                task.future.completeExceptionally(e);
+            }
+        });
+
+        Worker replacement;
+        try {
+            replacement = new Worker(workers.size(), checkerFactory.call());
+        } catch (Exception e) {
+            failure = e;
+            retry.future.completeExceptionally(e);
+            return;
+        }
+        replacement.start = System.nanoTime();
+        replacement.offer(retry);
+        workers.add(replacement);
+        try {
+            executorService.execute(replacement);
+        } catch (RejectedExecutionException e) {
+            // the audit is over
+            retry.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Stops the audit: the workers finish their current unit, and the discovery is abandoned.
+     */
+    private void stop() {
+        stopped = true;
+        Thread thread = discoveryThread;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void discover(Consumer<Feed> discovery) {
+        discoveryThread = Thread.currentThread();
+        Feed feed = new Feed();
+        try {
+            discovery.accept(feed);
+            feed.close();
+        } catch (CancellationException e) {
+            // the audit was stopped or abandoned
+            feed.cancel(e);
+        } catch (Throwable e) {
+            discoveryFailure = e;
+            feed.cancel(e);
+        } finally {
+            discoveryThread = null;
+            // an interruption meant for the discovery must not reach the next task of the thread
+            Thread.interrupted();
+        }
+    }
+
+    /**
+     * @return the statistics of the workers of the last audit, to check how well the load was balanced
+     */
+    List<WorkerStatistics> getStatistics() {
+        long end = 0;
+        for (Worker worker : workers) {
+            end = Math.max(end, worker.end);
+        }
+        List<WorkerStatistics> statistics = new ArrayList<>(workers.size());
+        for (Worker worker : workers) {
+            long busyTime = worker.busyTime;
+            long idleTime = Math.max(0, end - worker.start - busyTime);
+            statistics.add(new WorkerStatistics(
+                    worker.index, worker.units, worker.stolenUnits, worker.bytes, busyTime, idleTime));
+        }
+        return statistics;
+    }
+
+    /**
+     * Distributes the tasks to the workers, the largest first, each one to the worker with the smallest load.
+     */
+    private void schedule(List<Task> tasks) {
+        storedUnits.set(0);
+        List<Task> largestFirst = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (!completeFromStore(task)) {
+                largestFirst.add(task);
+            }
+        }
+        largestFirst.sort(Comparator.comparingLong((Task task) -> task.size).reversed());
+
+        workers.clear();
+        for (int i = 0; i < checkers.size(); i++) {
+            workers.add(new Worker(i, checkers.get(i)));
+        }
+        for (Task task : largestFirst) {
+            Collections.min(workers, Comparator.comparingLong(Worker::getQueuedLoad))
+                    .offer(task);
+        }
+    }
+
+    /**
+     * @param task a task to audit
+     * @return <code>true</code> if the audit of the unit was found in the store, the task is then complete
+     */
+    private boolean completeFromStore(Task task) {
+        if (unitStore == null) {
+            return false;
+        }
+        AuditRecorder recorder = unitStore.lookup(task.unit);
+        if (recorder == null) {
+            return false;
+        }
+        storedUnits.incrementAndGet();
+        task.future.complete(recorder);
+        return true;
+    }
+
+    /**
+     * @param thief the worker looking for a task
+     * @return the next task of the worker, or one stolen from the most loaded worker, <code>null</code> if none is
+     *         left
+     */
+    private Task nextTask(Worker thief) {
+        Task task = thief.poll();
+        if (task != null) {
+            return task;
+        }
+        while (true) {
+            Worker victim = null;
+            long victimLoad = 0;
+            for (Worker worker : workers) {
+                long load = worker.getQueuedLoad();
+                if (worker != thief && load > victimLoad) {
+                    victim = worker;
+                    victimLoad = load;
+                }
+            }
+            if (victim == null) {
+                return nextDiscoveredTask();
+            }
+            task = victim.steal();
+            if (task != null) {
+                thief.stolenUnits++;
+                return task;
+            }
+        }
+    }
+
+    /**
+     * @return the next unit completed by the discovery, <code>null</code> if none is left
+     */
+    private Task nextDiscoveredTask() {
+        if (discoveredUnits == null) {
+            return null;
+        }
+        try {
+            Task task = discoveredUnits.take();
+            if (task == END) {
+                // leave the end for the other workers
+                discoveredUnits.add(END);
+                return null;
+            }
+            return task;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void auditUnit(Checker checker, List<File> unit, AuditRecorder recorder) throws CheckstyleException {
+        Thread thread = Thread.currentThread();
+        ClassLoader previousClassLoader = thread.getContextClassLoader();
+        try {
+            thread.setContextClassLoader(contextClassLoader);
+            checker.addListener(recorder);
+            checker.process(unit);
+        } finally {
+            checker.removeListener(recorder);
+            thread.setContextClassLoader(previousClassLoader);
+        }
+    }
+
+    private static AuditRecorder getResult(CompletableFuture<AuditRecorder> future) throws CheckstyleException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CheckstyleException("Interrupted while waiting for the audit to complete", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CheckstyleException) {
+                throw (CheckstyleException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CheckstyleException("Failed to audit files", cause);
+        }
+    }
+
+    /**
+     * Statistics of a worker thread.
+     */
+    static final class WorkerStatistics {
+        private final int index;
+
+        private final int units;
+
+        private final int stolenUnits;
+
+        private final long bytes;
+
+        private final long busyTime;
+
+        private final long idleTime;
+
+        WorkerStatistics(int index, int units, int stolenUnits, long bytes, long busyTime, long idleTime) {
+            this.index = index;
+            this.units = units;
+            this.stolenUnits = stolenUnits;
+            this.bytes = bytes;
+            this.busyTime = busyTime;
+            this.idleTime = idleTime;
+        }
+
+        int getIndex() {
+            return index;
+        }
+
+        /**
+         * @return the number of units audited by the worker
+         */
+        int getUnits() {
+            return units;
+        }
+
+        /**
+         * @return the number of units the worker stole from the others
+         */
+        int getStolenUnits() {
+            return stolenUnits;
+        }
+
+        /**
+         * @return the size of the files audited by the worker
+         */
+        long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return the time spent auditing, in nanoseconds
+         */
+        long getBusyTime() {
+            return busyTime;
+        }
+
+        /**
+         * @return the time spent waiting for the other workers to complete, in nanoseconds
+         */
+        long getIdleTime() {
+            return idleTime;
+        }
+
+        @Override
+        public String toString() {
+            return "worker " + (index + 1) + ": " + units + " units (" + stolenUnits + " stolen), " + bytes
+                    + " bytes, busy " + TimeUnit.NANOSECONDS.toMillis(busyTime) + " ms, idle "
+                    + TimeUnit.NANOSECONDS.toMillis(idleTime) + " ms";
+        }
+    }
+
+    /**
+     * Keeps the audits of the units, so that an unchanged unit does not need to be audited again.
+     */
+    interface UnitStore {
+        /**
+         * Called from a single thread at a time.
+         *
+         * @param unit the files of a unit
+         * @return a new recorder holding the stored audit of the unit, <code>null</code> if the unit must be audited
+         */
+        AuditRecorder lookup(List<File> unit);
+
+        /**
+         * Called from the worker threads, before the events of the unit are replayed.
+         *
+         * @param unit the files of a unit
+         * @param recorder the events fired while auditing the unit
+         */
+        void unitAudited(List<File> unit, AuditRecorder recorder);
+    }
+
+    /**
+     * Receives the discovered files, from a single thread.
+     */
+    final class Feed {
+        private final Map<File, Task> openTasks = new LinkedHashMap<>();
+
+        private Feed() {}
+
+        /**
+         * @param file a file to audit
+         */
+        void addFile(File file) {
+            if (stopped) {
+                throw new CancellationException("The audit was stopped");
+            }
+            Task task = openTasks.computeIfAbsent(file.getAbsoluteFile().getParentFile(), k -> new Task());
+            task.add(file);
+            replayOrder.add(new Entry(file.getAbsolutePath(), task));
+        }
+
+        /**
+         * Submits the files found in a directory, once all of them have been discovered. Waits if too many units are
+         * waiting for a worker.
+         *
+         * @param directory a scanned directory
+         */
+        void directoryScanned(File directory) {
+            Task task = openTasks.remove(directory.getAbsoluteFile());
+            if (task != null) {
+                submit(task);
+            }
+        }
+
+        private void submit(Task task) {
+            if (task != END && completeFromStore(task)) {
+                return;
+            }
+            try {
+                discoveredUnits.put(task);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for a worker");
+            }
+        }
+
+        private void close() {
+            for (Task task : openTasks.values()) {
+                submit(task);
+            }
+            openTasks.clear();
+            submit(END);
+            replayOrder.add(new Entry(null, END));
+        }
+
+        private void cancel(Throwable cause) {
+            List<Task> tasks = new ArrayList<>(openTasks.values());
+            openTasks.clear();
+            // make room for the end, only this thread adds units
+            discoveredUnits.drainTo(tasks);
+            for (Task task : tasks) {
+                task.future.completeExceptionally(cause);
+            }
+            discoveredUnits.add(END);
+            replayOrder.add(new Entry(null, END));
+        }
+    }
+
+    private static final class Entry {
+        private final String fileName;
+
+        private final Task task;
+
+        Entry(String fileName, Task task) {
+            this.fileName = fileName;
+            this.task = task;
+        }
+    }
+
+    private static final class Task {
+        private final List<File> unit = new ArrayList<>();
+
+        private long size;
+
+        private final CompletableFuture<AuditRecorder> future = new CompletableFuture<>();
+
+        void add(File file) {
+            unit.add(file);
+            size += file.length();
+        }
+    }
+
+    private final class Worker implements Runnable {
+        private final int index;
+
+        private final Checker checker;
+
+        /** The queued tasks, largest first. */
+        private final Deque<Task> queue = new ArrayDeque<>();
+
+        private long queuedLoad;
+
+        private int units;
+
+        private int stolenUnits;
+
+        private long bytes;
+
+        private volatile long start;
+
+        private volatile long end;
+
+        private volatile long busyTime;
+
+        /** Set by the watchdog when the worker exceeded the time budget of a file, guarded by the worker. */
+        private volatile boolean abandoned;
+
+        private Task currentTask;
+
+        private AuditRecorder currentRecorder;
+
+        private Thread thread;
+
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        Worker(int index, Checker checker) {
+            this.index = index;
+            this.checker = checker;
+        }
+
+        synchronized void offer(Task task) {
+            queue.addLast(task);
+            queuedLoad += task.size;
+        }
+
+        synchronized Task poll() {
+            Task task = queue.pollFirst();
+            if (task != null) {
+                queuedLoad -= task.size;
+            }
+            return task;
+        }
+
+        /**
+         * @return the last task of the queue, the owner keeps taking the first ones, <code>null</code> if none is
+         *         left
+         */
+        synchronized Task steal() {
+            Task task = queue.pollLast();
+            if (task != null) {
+                queuedLoad -= task.size;
+            }
+            return task;
+        }
+
+        synchronized long getQueuedLoad() {
+            return queuedLoad;
+        }
+
+        synchronized void interrupt() {
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                thread = Thread.currentThread();
+            }
+            try {
+                Task task;
+                // the pool is shut down when the audit is abandoned
+                while (!abandoned && !Thread.currentThread().isInterrupted() && (task = nextTask(this)) != null) {
+                    if (failure != null) {
+                        // a Checker failed, the audit is aborted
+                        task.future.completeExceptionally(failure);
+                        continue;
+                    }
+                    if (stopped) {
+                        task.future.completeExceptionally(new CancellationException("The audit was stopped"));
+                        continue;
+                    }
+                    long taskStart = System.nanoTime();
+                    AuditRecorder recorder = new AuditRecorder(task.unit);
+                    synchronized (this) {
+                        currentTask = task;
+                        currentRecorder = recorder;
+                    }
+                    Throwable error = null;
+                    try {
+                        auditUnit(checker, task.unit, recorder);
+                    } catch (Throwable e) {
+                        error = e;
+                    }
+                    synchronized (this) {
+                        currentTask = null;
+                        currentRecorder = null;
+                        if (abandoned) {
+                            // the unit was given to another worker
+                            break;
+                        }
+                    }
+                    if (error == null) {
+                        if (unitStore != null) {
+                            unitStore.unitAudited(task.unit, recorder);
+                        }
+                        task.future.complete(recorder);
+                    } else {
+                        failure = error;
+                        task.future.completeExceptionally(error);
+                    }
+                    busyTime += System.nanoTime() - taskStart;
+                    units++;
+                    bytes += task.size;
+                }
+            } finally {
+                end = System.nanoTime();
+                finished.countDown();
+            }
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final int poolNumber = POOL_NUMBER.incrementAndGet();
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread =
+                    new Thread(runnable, "checkstyle-audit-" + poolNumber + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
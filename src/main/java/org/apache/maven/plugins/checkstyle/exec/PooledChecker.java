@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.Filter;
+
+/**
+ * A configured Checker leased from a {@link CheckerPool}.
+ * <p>
+ * The listeners and filters of an execution are added through this class, so that they can be removed before the
+ * Checker is leased to another execution.
+ *
+ * @since 3.6.1
+ */
+class PooledChecker {
+    private final Checker checker;
+
+    private final String key;
+
+    private final ClassLoader moduleClassLoader;
+
+    private final Set<String> externalResourceLocations;
+
+    private final Map<String, String> externalResourceStamps = new HashMap<>();
+
+    private final List<AuditListener> listeners = new ArrayList<>();
+
+    private final List<Filter> filters = new ArrayList<>();
+
+    /**
+     * @param checker the configured Checker
+     * @param key the fingerprint of the configuration of the Checker
+     * @param moduleClassLoader the class loader of the Checkstyle modules
+     * @param externalResourceLocations the locations of the resources the configured modules depend on
+     */
+    PooledChecker(
+            Checker checker, String key, ClassLoader moduleClassLoader, Set<String> externalResourceLocations) {
+        this.checker = checker;
+        this.key = key;
+        this.moduleClassLoader = moduleClassLoader;
+        this.externalResourceLocations = externalResourceLocations;
+        for (String location : externalResourceLocations) {
+            externalResourceStamps.put(location, getStamp(location));
+        }
+    }
+
+    Checker getChecker() {
+        return checker;
+    }
+
+    String getKey() {
+        return key;
+    }
+
+    ClassLoader getModuleClassLoader() {
+        return moduleClassLoader;
+    }
+
+    /**
+     * @return the locations of the resources the configured modules depend on
+     */
+    Set<String> getExternalResourceLocations() {
+        return externalResourceLocations;
+    }
+
+    void addListener(AuditListener listener) {
+        listeners.add(listener);
+        checker.addListener(listener);
+    }
+
+    void addFilter(Filter filter) {
+        filters.add(filter);
+        checker.addFilter(filter);
+    }
+
+    /**
+     * Removes the listeners and filters added since the Checker was leased.
+     */
+    void reset() {
+        for (AuditListener listener : listeners) {
+            checker.removeListener(listener);
+        }
+        listeners.clear();
+        for (Filter filter : filters) {
+            checker.removeFilter(filter);
+        }
+        filters.clear();
+    }
+
+    /**
+     * Tells whether the external resources the modules read when they were configured are unchanged. Only the
+     * resources which are local files can be checked, the others are assumed not to change during a build.
+     *
+     * @return <code>true</code> if the Checker can be reused
+     */
+    boolean isUpToDate() {
+        for (Map.Entry<String, String> stamp : externalResourceStamps.entrySet()) {
+            if (!stamp.getValue().equals(getStamp(stamp.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getStamp(String location) {
+        File file = new File(location);
+        if (location.startsWith("file:")) {
+            try {
+                file = new File(new URI(location));
+            } catch (URISyntaxException | IllegalArgumentException e) {
+                // not a local file
+            }
+        }
+        return file.isFile() ? file.lastModified() + ":" + file.length() : "";
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+
+/**
+ * Dispatches the events of an aggregated audit to the listener of the project each file belongs to.
+ * <p>
+ * Events about files which do not belong to any project, like the ones fired by some checks once all the files have
+ * been processed, are sent to a fallback listener.
+ *
+ * @since 3.6.1
+ */
+class ProjectAuditRouter implements AuditListener {
+    private final AuditListener fallbackListener;
+
+    private final List<AuditListener> listeners = new ArrayList<>();
+
+    /** The listeners by file, which may be discovered while the audit is running. */
+    private final Map<String, AuditListener> listenersByFile = new ConcurrentHashMap<>();
+
+    /**
+     * @param fallbackListener the listener of the files which do not belong to any project
+     */
+    ProjectAuditRouter(AuditListener fallbackListener) {
+        this.fallbackListener = fallbackListener;
+        this.listeners.add(fallbackListener);
+    }
+
+    /**
+     * @param listener the listener of a project
+     * @param files the files of the project
+     */
+    void addProject(AuditListener listener, List<File> files) {
+        listeners.add(listener);
+        for (File file : files) {
+            addFile(listener, file);
+        }
+    }
+
+    /**
+     * @param listener the listener of the project of the file, added with {@link #addProject(AuditListener, List)}
+     * @param file a file of the project
+     */
+    void addFile(AuditListener listener, File file) {
+        listenersByFile.put(file.getAbsolutePath(), listener);
+    }
+
+    private AuditListener getListener(AuditEvent event) {
+        AuditListener listener = event.getFileName() == null ? null : listenersByFile.get(event.getFileName());
+        return listener == null ? fallbackListener : listener;
+    }
+
+    @Override
+    public void auditStarted(AuditEvent event) {
+        for (AuditListener listener : listeners) {
+            listener.auditStarted(event);
+        }
+    }
+
+    @Override
+    public void auditFinished(AuditEvent event) {
+        for (AuditListener listener : listeners) {
+            listener.auditFinished(event);
+        }
+    }
+
+    @Override
+    public void fileStarted(AuditEvent event) {
+        getListener(event).fileStarted(event);
+    }
+
+    @Override
+    public void fileFinished(AuditEvent event) {
+        getListener(event).fileFinished(event);
+    }
+
+    @Override
+    public void addError(AuditEvent event) {
+        getListener(event).addError(event);
+    }
+
+    @Override
+    public void addException(AuditEvent event, Throwable throwable) {
+        getListener(event).addException(event, throwable);
+    }
+}
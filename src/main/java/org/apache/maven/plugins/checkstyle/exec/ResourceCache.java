@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.codehaus.plexus.resource.PlexusResource;
+import org.codehaus.plexus.resource.ResourceManager;
+import org.codehaus.plexus.resource.loader.FileResourceCreationException;
+import org.codehaus.plexus.resource.loader.ResourceNotFoundException;
+
+/**
+ * Cache of the configuration resources resolved by the executions of a build: the configuration, the suppressions, the
+ * properties and the header files.
+ * <p>
+ * Resolving a location searches the directories of the project and of its parents, the URLs and the plugin
+ * dependencies, then copies the resource into the build directory of the module. The resolved resources are kept here
+ * by location and search paths, along with the checksum of their content: a resource whose file did not change is not
+ * searched again, and its copy in a build directory is only written when its checksum differs, so that an unchanged
+ * copy is kept from one build to the next. The forms parsed from a resource, like the filters of a suppressions file,
+ * are kept by checksum.
+ *
+ * @since 3.6.1
+ */
+@Named
+@Singleton
+public class ResourceCache {
+    /** The resolved resources, by search paths and location. */
+    private final Map<String, ResolvedResource> resources = new ConcurrentHashMap<>();
+
+    /** The last known states of the resolved files and of their copies, by file name. */
+    private final Map<String, ChangeDetector.FileState> states = new ConcurrentHashMap<>();
+
+    /** The parsed forms of the resources, by kind and checksum. */
+    private final Map<String, Object> parsedForms = new ConcurrentHashMap<>();
+
+    private final ChangeDetector changeDetector = new ChangeDetector(1);
+
+    /**
+     * Parses a resource.
+     *
+     * @param <T> the type of the parsed form
+     * @param <E> the type of the parse failure
+     */
+    interface Parser<T, E extends Exception> {
+        /**
+         * @param file the file of the resource
+         * @return the parsed form of the resource
+         * @throws E if the resource cannot be parsed
+         */
+        T parse(File file) throws E;
+    }
+
+    /**
+     * Resolves a resource and copies it to an output directory, like
+     * {@link ResourceManager#getResourceAsFile(String, String)}.
+     *
+     * @param locator the locator, configured with the search paths
+     * @param searchPaths identifies the search paths of the locator
+     * @param location the location of the resource
+     * @param outputDirectory the output directory of the locator
+     * @param outputName the name of the copy of the resource
+     * @return the copy of the resource
+     * @throws ResourceNotFoundException if the resource cannot be found
+     * @throws FileResourceCreationException if the resource cannot be read or copied
+     */
+    File getResourceAsFile(
+            ResourceManager locator, String searchPaths, String location, File outputDirectory, String outputName)
+            throws ResourceNotFoundException, FileResourceCreationException {
+        String key = searchPaths + '\n' + location;
+        try {
+            ResolvedResource resource = resources.get(key);
+            if (resource == null || !resource.isUpToDate()) {
+                resource = resolve(locator, location);
+                resources.put(key, resource);
+            }
+            File output = new File(outputDirectory, outputName);
+            ChangeDetector.FileState outputState = detect(output);
+            if (outputState == null || !resource.checksum.equals(outputState.getHash())) {
+                resource.copyTo(output);
+                detect(output);
+            }
+            return output;
+        } catch (IOException e) {
+            throw new FileResourceCreationException("Cannot create file-based resource for " + location, e);
+        }
+    }
+
+    /**
+     * Gets the parsed form of a resource, which is only parsed the first time its content is seen. The parsed form is
+     * shared, it must not be modified.
+     *
+     * @param kind the kind of the parsed form, different for each parser
+     * @param file the file of the resource
+     * @param parser the parser of the resource
+     * @param <T> the type of the parsed form
+     * @param <E> the type of the parse failure
+     * @return the parsed form
+     * @throws E if the resource cannot be parsed
+     */
+    <T, E extends Exception> T getParsedForm(String kind, File file, Parser<T, E> parser) throws E {
+        ChangeDetector.FileState state;
+        try {
+            state = detect(file);
+        } catch (IOException e) {
+            state = null;
+        }
+        if (state == null) {
+            // the parser reports the file it cannot read
+            return parser.parse(file);
+        }
+        String key = kind + '\n' + state.getHash();
+        @SuppressWarnings("unchecked")
+        T parsedForm = (T) parsedForms.get(key);
+        if (parsedForm == null) {
+            parsedForm = parser.parse(file);
+            parsedForms.put(key, parsedForm);
+        }
+        return parsedForm;
+    }
+
+    private ChangeDetector.FileState detect(File file) throws IOException {
+        String fileName = file.getAbsolutePath();
+        ChangeDetector.FileState state = changeDetector.detect(file, states.get(fileName));
+        if (state == null) {
+            states.remove(fileName);
+        } else {
+            states.put(fileName, state);
+        }
+        return state;
+    }
+
+    private ResolvedResource resolve(ResourceManager locator, String location)
+            throws ResourceNotFoundException, IOException {
+        PlexusResource resource = locator.getResource(location);
+        File file = resource.getFile();
+        if (file != null && file.isFile()) {
+            ChangeDetector.FileState state = detect(file);
+            if (state != null) {
+                return new ResolvedResource(file.getAbsoluteFile(), null, state.getHash());
+            }
+        }
+        // a remote resource, or a resource of the plugin dependencies, which do not change during the build
+        byte[] content;
+        try (InputStream in = resource.getInputStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                out.write(buffer, 0, read);
+            }
+            content = out.toByteArray();
+        }
+        return new ResolvedResource(null, content, new Fingerprint().addContent(content).toHex());
+    }
+
+    /**
+     * A resolved resource, either a local file or the content of a resource which is not a file.
+     */
+    private final class ResolvedResource {
+        private final File file;
+
+        private final byte[] content;
+
+        private final String checksum;
+
+        ResolvedResource(File file, byte[] content, String checksum) {
+            this.file = file;
+            this.content = content;
+            this.checksum = checksum;
+        }
+
+        boolean isUpToDate() throws IOException {
+            if (file == null) {
+                return true;
+            }
+            ChangeDetector.FileState state = detect(file);
+            return state != null && checksum.equals(state.getHash());
+        }
+
+        void copyTo(File output) throws IOException {
+            Path target = output.toPath().toAbsolutePath();
+            Files.createDirectories(target.getParent());
+            // the copy is complete once visible, for the executions of the other modules
+            Path temporary = Files.createTempFile(target.getParent(), output.getName(), ".tmp");
+            try {
+                if (file != null) {
+                    Files.copy(file.toPath(), temporary, StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    Files.write(temporary, content);
+                }
+                try {
+                    Files.move(
+                            temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+}
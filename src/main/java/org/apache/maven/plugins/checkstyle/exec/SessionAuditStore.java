@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Store of the audits of the projects of a build, shared by the goals auditing the same project with the same inputs,
+ * like <code>checkstyle:check</code> followed by the <code>checkstyle</code> report.
+ * <p>
+ * The audits are only recorded by the executions sharing them. The events of the last complete audit of each project
+ * are kept in a {@link CheckstyleResults}, which stores them in columns and can write them to a file, along with the
+ * state of the files and the directories it found. The next execution with the same inputs fires these events again
+ * to its listeners instead of auditing the project again, provided that none of the files changed in the meantime.
+ * An audit is only replayed once: it is removed from the store by the next execution, whatever its inputs. The
+ * audits are kept in the context of the project instance, so that they do not outlive the build of the project.
+ *
+ * @since 3.6.1
+ */
+@Named
+@Singleton
+public class SessionAuditStore {
+    /** The files modified this close to the start of the audit may have been audited with another content. */
+    private static final long MODIFICATION_TIME_GRANULARITY = 2000;
+
+    /** The context key of the last complete audit of a project. */
+    private static final String AUDIT = SessionAuditStore.class.getName() + ".audit";
+
+    /**
+     * Takes the audit of a project out of the store. It is returned if it has the given inputs and none of its files
+     * changed since, otherwise it is closed.
+     *
+     * @param project the project
+     * @param key the fingerprint of the inputs of the audit
+     * @param threads the number of threads comparing the files
+     * @return the audit, to close once it has been replayed, <code>null</code> if there is none
+     */
+    Audit take(MavenProject project, String key, int threads) {
+        Audit audit;
+        synchronized (project) {
+            audit = (Audit) project.getContextValue(AUDIT);
+            project.setContextValue(AUDIT, null);
+        }
+        if (audit == null) {
+            return null;
+        }
+        if (!audit.isUpToDate(key, threads)) {
+            audit.close();
+            return null;
+        }
+        return audit;
+    }
+
+    /**
+     * Keeps the audit of a project, replacing its previous one.
+     *
+     * @param project the project
+     * @param audit the complete audit
+     */
+    void put(MavenProject project, Audit audit) {
+        Audit previousAudit;
+        synchronized (project) {
+            previousAudit = (Audit) project.getContextValue(AUDIT);
+            project.setContextValue(AUDIT, audit);
+        }
+        if (previousAudit != null) {
+            previousAudit.close();
+        }
+    }
+
+    /**
+     * The audit of a project: the listener recording the events of the audit, then the recorded events.
+     */
+    static final class Audit implements AuditListener {
+        private final String key;
+
+        private final long startTime = System.currentTimeMillis();
+
+        /** The events of the audit, by absolute file name. */
+        private final CheckstyleResults results;
+
+        /** Set when an event cannot be recorded, like an exception, the audit is then not kept. */
+        private boolean incomplete;
+
+        private final Map<File, Long> directoryTimes = new HashMap<>();
+
+        private final Set<File> files = new LinkedHashSet<>();
+
+        private final Set<File> dependencies = new LinkedHashSet<>();
+
+        /** The states of the files and of the dependencies, by file name. */
+        private final Map<String, ChangeDetector.FileState> fileStates = new HashMap<>();
+
+        /**
+         * @param key the fingerprint of the inputs of the audit
+         */
+        Audit(String key) {
+            this(key, 0, null);
+        }
+
+        /**
+         * @param key the fingerprint of the inputs of the audit
+         * @param maxEventsInMemory the maximum number of events kept in memory, <code>0</code> or less for no limit
+         * @param spillDirectory the directory of the file the following events are written to, <code>null</code> to
+         *            keep all the events in memory
+         */
+        Audit(String key, int maxEventsInMemory, File spillDirectory) {
+            this.key = key;
+            this.results = new CheckstyleResults(maxEventsInMemory, spillDirectory);
+        }
+
+        /**
+         * @param key the fingerprint of the inputs of an execution
+         * @param threads the number of threads comparing the files
+         * @return <code>true</code> if the audit has the same inputs, and none of its files changed since
+         */
+        private boolean isUpToDate(String key, int threads) {
+            if (!this.key.equals(key)) {
+                return false;
+            }
+            for (Map.Entry<File, Long> directory : directoryTimes.entrySet()) {
+                if (directory.getKey().lastModified() != directory.getValue()) {
+                    return false;
+                }
+            }
+            try (ChangeDetector changeDetector = new ChangeDetector(threads)) {
+                List<File> files = new ArrayList<>(this.files);
+                files.addAll(dependencies);
+                Map<String, ChangeDetector.FileState> states = changeDetector.detect(files, fileStates::get);
+                for (Map.Entry<String, ChangeDetector.FileState> file : fileStates.entrySet()) {
+                    ChangeDetector.FileState state = states.get(file.getKey());
+                    if (state == null || !state.getHash().equals(file.getValue().getHash())) {
+                        return false;
+                    }
+                }
+            } catch (IOException e) {
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Keeps the state of the files of the audit, once it is complete.
+         *
+         * @param directories the directories scanned by the discovery
+         * @param files the files found by the discovery
+         * @param dependencies the files the configuration depends on
+         * @param threads the number of threads hashing the files
+         * @return <code>false</code> if a file was modified while it was audited, the audit cannot be kept
+         */
+        boolean complete(
+                Collection<File> directories, Collection<File> files, Collection<File> dependencies, int threads) {
+            if (incomplete) {
+                return false;
+            }
+            long modifiedAfter = startTime - MODIFICATION_TIME_GRANULARITY;
+            for (File directory : directories) {
+                long lastModified = directory.lastModified();
+                if (lastModified == 0 || lastModified >= modifiedAfter) {
+                    return false;
+                }
+                directoryTimes.put(directory.getAbsoluteFile(), lastModified);
+            }
+            for (File file : files) {
+                this.files.add(file.getAbsoluteFile());
+            }
+            for (File dependency : dependencies) {
+                this.dependencies.add(dependency.getAbsoluteFile());
+            }
+            Set<File> checkedFiles = new LinkedHashSet<>(this.files);
+            checkedFiles.addAll(this.dependencies);
+            try (ChangeDetector changeDetector = new ChangeDetector(threads)) {
+                Map<String, ChangeDetector.FileState> states = changeDetector.detect(checkedFiles, fileName -> null);
+                for (File checkedFile : checkedFiles) {
+                    ChangeDetector.FileState state = states.get(checkedFile.getAbsolutePath());
+                    // the dependencies, like the copies of the configuration files, are written before the audit
+                    if (state == null
+                            || (this.files.contains(checkedFile) && state.getLastModified() >= modifiedAfter)) {
+                        return false;
+                    }
+                    fileStates.put(checkedFile.getAbsolutePath(), state);
+                }
+            } catch (IOException e) {
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * @return the directories scanned by the discovery of the audit
+         */
+        Collection<File> getDirectories() {
+            return directoryTimes.keySet();
+        }
+
+        /**
+         * @return the files found by the discovery of the audit
+         */
+        Collection<File> getFiles() {
+            return files;
+        }
+
+        /**
+         * @return the files the configuration of the audit depends on
+         */
+        Collection<File> getDependencies() {
+            return dependencies;
+        }
+
+        /**
+         * Fires the recorded events again, in the order they were received.
+         *
+         * @param listener the listener to notify
+         */
+        void replay(AuditListener listener) {
+            listener.auditStarted(new AuditEvent(this));
+            for (Map.Entry<String, List<AuditEvent>> file : results.getFiles().entrySet()) {
+                AuditEvent fileEvent = new AuditEvent(this, file.getKey());
+                listener.fileStarted(fileEvent);
+                for (AuditEvent event : file.getValue()) {
+                    listener.addError(event);
+                }
+                listener.fileFinished(fileEvent);
+            }
+            listener.auditFinished(new AuditEvent(this));
+        }
+
+        /**
+         * Deletes the file the recorded events were written to, if any. The audit cannot be replayed anymore.
+         */
+        void close() {
+            results.close();
+        }
+
+        @Override
+        public void auditStarted(AuditEvent event) {
+            // replayed with a new event
+        }
+
+        @Override
+        public void auditFinished(AuditEvent event) {
+            // replayed with a new event
+        }
+
+        @Override
+        public void fileStarted(AuditEvent event) {
+            // the files without any event are replayed too
+            results.getFileViolations(event.getFileName());
+        }
+
+        @Override
+        public void fileFinished(AuditEvent event) {
+            // replayed with a new event
+        }
+
+        @Override
+        public void addError(AuditEvent event) {
+            if (event.getFileName() == null || event.getViolation() == null) {
+                // fired outside of a file or without a violation, it cannot be stored
+                incomplete = true;
+                return;
+            }
+            results.getFileViolations(event.getFileName()).add(event);
+        }
+
+        @Override
+        public void addException(AuditEvent event, Throwable throwable) {
+            incomplete = true;
+        }
+    }
+}
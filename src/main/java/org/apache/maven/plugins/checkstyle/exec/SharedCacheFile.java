@@ -0,0 +1,430 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A cache file shared by the executions of a whole reactor, which may run concurrently, in the same JVM with
+ * <code>-T</code> or in several processes.
+ * <p>
+ * The file is an append-only log of entries, each one giving the content hash of a file processed without any violation
+ * with a given fingerprint of the configuration, or the removal of a file. The modules with different configurations
+ * keep their own entries in the same file. An execution reads the entries of its fingerprint once, before its audit,
+ * and appends its changes once, after its audit: the file is only locked while it is read or written, not during the
+ * audits, so that the executions are not serialized. The log is compacted in place, keeping the last entry of each
+ * file, once it holds many more entries than files. A file is only kept with the fingerprint of its last entry: the
+ * entries of a configuration which was changed since are dropped.
+ * <p>
+ * The file is locked with a {@link FileLock} against the other processes, and with a lock per file against the other
+ * threads, since a {@link FileLock} is held by the whole JVM and cannot overlap another one of the same JVM, even a
+ * shared one. A truncated entry, left by a process that was killed, is ignored and overwritten.
+ * <p>
+ * The entries do not depend on the location of the workspace, so that the file can be restored in another workspace,
+ * or shared by several build agents: a file is identified by the coordinates of its project and its path relative to
+ * the base directory of the project, and it is up to date when its content is unchanged, whatever its timestamp. The
+ * size and the modification time of the files are stored too, so that the {@link ChangeDetector} only hashes the files
+ * whose metadata changed.
+ *
+ * @since 3.6.1
+ */
+class SharedCacheFile implements AuditCache.Store {
+    private static final int MAGIC = 0x43534348;
+
+    private static final int VERSION = 3;
+
+    /** The size of the header, made of the magic number and the version. */
+    private static final int HEADER_LENGTH = 8;
+
+    /** The state of a removed file. */
+    private static final ChangeDetector.FileState REMOVED = new ChangeDetector.FileState(-1, -1, "");
+
+    /** The minimum number of entries before the log is compacted. */
+    private static final int COMPACTION_THRESHOLD = 1000;
+
+    /** The locks of the files, shared by the threads of the JVM. */
+    private static final Map<Path, Lock> LOCKS = new ConcurrentHashMap<>();
+
+    private final Path file;
+
+    private final String fingerprint;
+
+    private final Path basedir;
+
+    private final String keyPrefix;
+
+    private final ChangeDetector changeDetector;
+
+    /** The states read from the file, by key. */
+    private final Map<String, ChangeDetector.FileState> states = new ConcurrentHashMap<>();
+
+    /** The changes of the current execution, by key: the file name to store, or an empty name for a removal. */
+    private final Map<String, String> changes = new ConcurrentHashMap<>();
+
+    /** The current states computed by the lookups, by file name, reused once the file is processed. */
+    private final Map<String, ChangeDetector.FileState> currentStates = new ConcurrentHashMap<>();
+
+    /**
+     * @param file the shared cache file
+     * @param fingerprint the fingerprint of the configuration and of the resources it depends on, which must not
+     *            depend on the location of the workspace
+     * @param basedir the base directory of the project, the files are identified by their path relative to it
+     * @param keyPrefix the prefix of the keys of the files of the project, like its coordinates
+     * @param changeDetector the detector of the changed files
+     */
+    SharedCacheFile(
+            File file, String fingerprint, File basedir, String keyPrefix, ChangeDetector changeDetector) {
+        this.file = file.toPath().toAbsolutePath().normalize();
+        this.fingerprint = fingerprint;
+        this.basedir = basedir.toPath().toAbsolutePath().normalize();
+        this.keyPrefix = keyPrefix;
+        this.changeDetector = changeDetector;
+    }
+
+    @Override
+    public void load() throws IOException {
+        states.clear();
+        changes.clear();
+        currentStates.clear();
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        Lock lock = getLock();
+        lock.lock();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                FileLock fileLock = channel.lock(0, Long.MAX_VALUE, true)) {
+            Log log = read(channel);
+            Map<String, ChangeDetector.FileState> entries = log.entries.get(fingerprint);
+            if (entries != null) {
+                states.putAll(entries);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * {@inheritDoc} The timestamp is ignored, the content of the file is compared instead.
+     */
+    @Override
+    public void prefetch(Collection<File> files) {
+        // the files without any entry are only hashed once they are known to have no violation
+        List<File> cachedFiles = new ArrayList<>(files.size());
+        for (File cachedFile : files) {
+            if (states.containsKey(getKey(cachedFile.getAbsolutePath()))) {
+                cachedFiles.add(cachedFile);
+            }
+        }
+        try {
+            currentStates.putAll(
+                    changeDetector.detect(cachedFiles, fileName -> states.get(getKey(fileName))));
+        } catch (IOException e) {
+            // the files are detected again by the lookups
+        }
+    }
+
+    @Override
+    public boolean isInCache(String fileName, long timestamp) {
+        ChangeDetector.FileState cached = states.get(getKey(fileName));
+        if (cached == null) {
+            return false;
+        }
+        ChangeDetector.FileState current = getCurrentState(fileName, cached);
+        return current != null && cached.getHash().equals(current.getHash());
+    }
+
+    /**
+     * {@inheritDoc} The timestamp is ignored, the content of the file is stored instead, once it is known to have no
+     * violation.
+     */
+    @Override
+    public void put(String fileName, long timestamp) {
+        changes.put(getKey(fileName), fileName);
+    }
+
+    @Override
+    public void remove(String fileName) {
+        changes.put(getKey(fileName), "");
+    }
+
+    /**
+     * @param fileName the absolute path of a file
+     * @return the key of the file, which does not depend on the location of the workspace if the file is in the base
+     *         directory
+     */
+    String getKey(String fileName) {
+        Path path = Paths.get(fileName).toAbsolutePath().normalize();
+        if (!path.startsWith(basedir)) {
+            return fileName;
+        }
+        return keyPrefix + basedir.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * @return the current state of the file, <code>null</code> if it cannot be read
+     */
+    private ChangeDetector.FileState getCurrentState(String fileName, ChangeDetector.FileState previous) {
+        ChangeDetector.FileState current = currentStates.get(fileName);
+        if (current == null) {
+            try {
+                current = changeDetector.detect(new File(fileName), previous);
+            } catch (IOException e) {
+                return null;
+            }
+            if (current != null) {
+                currentStates.put(fileName, current);
+            }
+        }
+        return current;
+    }
+
+    @Override
+    public void persist() throws IOException {
+        Map<String, ChangeDetector.FileState> appended = new LinkedHashMap<>();
+        for (Map.Entry<String, String> change : changes.entrySet()) {
+            ChangeDetector.FileState cached = states.get(change.getKey());
+            if (change.getValue().isEmpty()) {
+                if (cached != null) {
+                    appended.put(change.getKey(), REMOVED);
+                }
+            } else {
+                ChangeDetector.FileState current = getCurrentState(change.getValue(), cached);
+                // only the changes are written
+                if (current != null && current != cached) {
+                    appended.put(change.getKey(), current);
+                }
+            }
+        }
+        if (appended.isEmpty()) {
+            return;
+        }
+
+        Files.createDirectories(file.getParent());
+        Lock lock = getLock();
+        lock.lock();
+        try (FileChannel channel = FileChannel.open(
+                        file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                FileLock fileLock = channel.lock()) {
+            // the log is read again, it may have been written by another execution since it was loaded
+            Log log = read(channel);
+            log.add(fingerprint, appended);
+            log.dropStaleEntries();
+            if (log.entryCount > COMPACTION_THRESHOLD && log.entryCount > 2 * log.liveCount()) {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(buffer);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                for (Map.Entry<String, Map<String, ChangeDetector.FileState>> entries : log.entries.entrySet()) {
+                    writeEntries(out, entries.getKey(), entries.getValue());
+                }
+                write(channel, 0, buffer.toByteArray());
+            } else {
+                ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(buffer);
+                if (log.validLength < HEADER_LENGTH) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(VERSION);
+                }
+                writeEntries(out, fingerprint, appended);
+                write(channel, Math.max(log.validLength, 0), buffer.toByteArray());
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Map.Entry<String, ChangeDetector.FileState> change : appended.entrySet()) {
+            if (change.getValue() == REMOVED) {
+                states.remove(change.getKey());
+            } else {
+                states.put(change.getKey(), change.getValue());
+            }
+        }
+        changes.clear();
+    }
+
+    private Lock getLock() {
+        return LOCKS.computeIfAbsent(file, k -> new ReentrantLock());
+    }
+
+    private static void writeEntries(
+            DataOutputStream out, String fingerprint, Map<String, ChangeDetector.FileState> entries)
+            throws IOException {
+        for (Map.Entry<String, ChangeDetector.FileState> entry : entries.entrySet()) {
+            writeString(out, fingerprint);
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue().getHash());
+            out.writeLong(entry.getValue().getSize());
+            out.writeLong(entry.getValue().getLastModified());
+        }
+    }
+
+    /**
+     * Writes the given bytes at a position, and truncates the file after them.
+     */
+    private static void write(FileChannel channel, long position, byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+        channel.truncate(offset);
+    }
+
+    /**
+     * Reads the whole log, up to its first truncated or invalid entry.
+     */
+    private static Log read(FileChannel channel) throws IOException {
+        Log log = new Log();
+        channel.position(0);
+        // the stream is not closed, which would close the channel
+        InputStream channelStream = Channels.newInputStream(channel);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(channelStream));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                // an unknown file is replaced
+                log.validLength = 0;
+                return log;
+            }
+            log.validLength = HEADER_LENGTH;
+            while (true) {
+                long length = log.validLength;
+                String fingerprint = readString(in);
+                String key = readString(in);
+                String hash = readString(in);
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                length += 28 + utf8Length(fingerprint) + utf8Length(key) + utf8Length(hash);
+                log.add(
+                        fingerprint,
+                        key,
+                        hash.isEmpty() ? REMOVED : new ChangeDetector.FileState(size, lastModified, hash));
+                log.validLength = length;
+            }
+        } catch (EOFException e) {
+            // the end of the log, or a truncated entry
+        }
+        return log;
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > 1 << 16) {
+            throw new EOFException("Invalid entry");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * The content of the log.
+     */
+    private static final class Log {
+        /** The last state of each file, by fingerprint, without the removed files. */
+        private final Map<String, Map<String, ChangeDetector.FileState>> entries = new LinkedHashMap<>();
+
+        /** The fingerprint of the last entry of each file. */
+        private final Map<String, String> lastFingerprints = new HashMap<>();
+
+        private int entryCount;
+
+        /** The length of the log up to its last valid entry, <code>-1</code> if the file is empty. */
+        private long validLength = -1;
+
+        void add(String fingerprint, String key, ChangeDetector.FileState state) {
+            entryCount++;
+            lastFingerprints.put(key, fingerprint);
+            Map<String, ChangeDetector.FileState> states = entries.computeIfAbsent(fingerprint, k -> new HashMap<>());
+            if (state == REMOVED) {
+                states.remove(key);
+            } else {
+                states.put(key, state);
+            }
+        }
+
+        void add(String fingerprint, Map<String, ChangeDetector.FileState> states) {
+            for (Map.Entry<String, ChangeDetector.FileState> entry : states.entrySet()) {
+                add(fingerprint, entry.getKey(), entry.getValue());
+            }
+        }
+
+        /**
+         * Drops the entries of the files last written with another fingerprint, and the fingerprints left without
+         * any entry.
+         */
+        void dropStaleEntries() {
+            Iterator<Map.Entry<String, Map<String, ChangeDetector.FileState>>> iterator =
+                    entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<String, Map<String, ChangeDetector.FileState>> fingerprintEntries = iterator.next();
+                String fingerprint = fingerprintEntries.getKey();
+                fingerprintEntries
+                        .getValue()
+                        .keySet()
+                        .removeIf(key -> !fingerprint.equals(lastFingerprints.get(key)));
+                if (fingerprintEntries.getValue().isEmpty()) {
+                    iterator.remove();
+                }
+            }
+        }
+
+        int liveCount() {
+            int count = 0;
+            for (Map<String, ChangeDetector.FileState> states : entries.values()) {
+                count += states.size();
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * The source directories of the audited files, in a trie of the characters of their paths, so that the source
+ * directory of a file is found by reading its name once, whatever the number of source directories.
+ * <p>
+ * The paths are compared with <code>/</code> as separator. When several source directories contain a file, like
+ * nested ones, the first one added is used.
+ *
+ * @since 3.6.1
+ */
+final class SourceRoots {
+    private final Node root = new Node();
+
+    private int count;
+
+    /**
+     * @param sourceDirectory a source directory
+     */
+    void add(File sourceDirectory) {
+        String path = sourceDirectory.getPath();
+        Node node = root;
+        for (int i = 0; i < path.length(); i++) {
+            node = node.addChild(normalize(path.charAt(i)));
+        }
+        node = node.addChild('/');
+        if (node.index < 0) {
+            node.index = count;
+        }
+        count++;
+    }
+
+    /**
+     * @param fileName the name of a file
+     * @return the length of the path of the source directory of the file, including the separator which follows it,
+     *         <code>0</code> if the file is not in any source directory
+     */
+    int getPrefixLength(String fileName) {
+        Node node = root;
+        int first = Integer.MAX_VALUE;
+        int length = 0;
+        for (int i = 0; i < fileName.length(); i++) {
+            node = node.getChild(normalize(fileName.charAt(i)));
+            if (node == null) {
+                break;
+            }
+            if (node.index >= 0 && node.index < first) {
+                first = node.index;
+                length = i + 1;
+            }
+        }
+        return length;
+    }
+
+    private static char normalize(char c) {
+        return c == '\\' ? '/' : c;
+    }
+
+    /**
+     * A node of the trie, with its children sorted by character.
+     */
+    private static final class Node {
+        private char[] keys = new char[0];
+
+        private Node[] children = new Node[0];
+
+        /** The index of the source directory ending at this node, <code>-1</code> if none. */
+        private int index = -1;
+
+        Node getChild(char c) {
+            int position = Arrays.binarySearch(keys, c);
+            return position < 0 ? null : children[position];
+        }
+
+        Node addChild(char c) {
+            int position = Arrays.binarySearch(keys, c);
+            if (position >= 0) {
+                return children[position];
+            }
+            int insertion = -position - 1;
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertion);
+            System.arraycopy(children, 0, newChildren, 0, insertion);
+            System.arraycopy(keys, insertion, newKeys, insertion + 1, keys.length - insertion);
+            System.arraycopy(children, insertion, newChildren, insertion + 1, children.length - insertion);
+            Node child = new Node();
+            newKeys[insertion] = c;
+            newChildren[insertion] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only file of the events of {@link CheckstyleResults} which are not kept in memory.
+ * <p>
+ * Each event is a record of fixed size, holding the same columns as the ones kept in memory: the file name, the rule
+ * and the message are indexes of the tables of {@link CheckstyleResults}, which are not spilled. The file is mapped in
+ * memory by chunks of records, so that the records are read and written without any copy, and out of the heap. It is
+ * a temporary file, deleted when closed or when the JVM exits.
+ *
+ * @since 3.6.1
+ */
+final class SpillFile {
+    static final int FILE_NAME = 0;
+
+    static final int LINE = 4;
+
+    static final int COLUMN = 8;
+
+    static final int RULE = 12;
+
+    static final int MESSAGE = 16;
+
+    static final int SEVERITY = 20;
+
+    private static final int RECORD_SIZE = 24;
+
+    private static final int CHUNK_RECORDS = 1 << 16;
+
+    private final Path path;
+
+    private final FileChannel channel;
+
+    private final List<MappedByteBuffer> chunks = new ArrayList<>();
+
+    private int size;
+
+    /**
+     * @param directory the directory of the file, created if needed
+     * @throws IOException if the file cannot be created
+     */
+    SpillFile(File directory) throws IOException {
+        Files.createDirectories(directory.toPath());
+        path = Files.createTempFile(directory.toPath(), "checkstyle-results", ".tmp");
+        path.toFile().deleteOnExit();
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Appends a record, whose index is the number of records appended before.
+     */
+    void append(int fileName, int line, int column, byte severity, int ruleId, int message) throws IOException {
+        int chunk = size / CHUNK_RECORDS;
+        if (chunk == chunks.size()) {
+            long position = (long) chunk * CHUNK_RECORDS * RECORD_SIZE;
+            chunks.add(channel.map(FileChannel.MapMode.READ_WRITE, position, (long) CHUNK_RECORDS * RECORD_SIZE));
+        }
+        MappedByteBuffer buffer = chunks.get(chunk);
+        int offset = (size % CHUNK_RECORDS) * RECORD_SIZE;
+        buffer.putInt(offset + FILE_NAME, fileName);
+        buffer.putInt(offset + LINE, line);
+        buffer.putInt(offset + COLUMN, column);
+        buffer.putInt(offset + RULE, ruleId);
+        buffer.putInt(offset + MESSAGE, message);
+        buffer.put(offset + SEVERITY, severity);
+        size++;
+    }
+
+    /**
+     * @param record the index of the record
+     * @param field the offset of the field in the record, like {@link #LINE}
+     * @return the value of the field
+     */
+    int getInt(int record, int field) {
+        return chunks.get(record / CHUNK_RECORDS).getInt((record % CHUNK_RECORDS) * RECORD_SIZE + field);
+    }
+
+    byte getSeverity(int record) {
+        return chunks.get(record / CHUNK_RECORDS).get((record % CHUNK_RECORDS) * RECORD_SIZE + SEVERITY);
+    }
+
+    /**
+     * Removes all the records, the file is reused by the next ones.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    void close() throws IOException {
+        chunks.clear();
+        channel.close();
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // still mapped on some platforms, deleted when the JVM exits
+        }
+    }
+}
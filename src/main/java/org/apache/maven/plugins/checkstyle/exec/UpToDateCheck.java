@@ -0,0 +1,340 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Tells whether the audit of a module is up to date, so that its previous result file can be used instead of auditing
+ * the module again.
+ * <p>
+ * The state of the last complete audit is kept in a file: the fingerprint of the inputs given by the caller, like the
+ * parameters and the versions of the plugin and of Checkstyle, the files the configuration depends on, the result
+ * file, and the files and the directories found by the discovery. The audit is up to date when none of them changed:
+ * a directory whose modification time is the same did not get any file added or removed, and the content of a file
+ * is only hashed when its size or its modification time changed, see {@link ChangeDetector}.
+ *
+ * @since 3.6.1
+ */
+public class UpToDateCheck {
+    private static final int MAGIC = 0x43535544;
+
+    private static final int VERSION = 1;
+
+    /** The files modified this close to the start of the audit may have been audited with another content. */
+    private static final long MODIFICATION_TIME_GRANULARITY = 2000;
+
+    private static final ChangeDetector.FileState ABSENT = new ChangeDetector.FileState(-1, -1, null);
+
+    private final File file;
+
+    private final int threads;
+
+    private final Fingerprint inputs = new Fingerprint();
+
+    private final Set<File> inputFiles = new LinkedHashSet<>();
+
+    private final Set<File> dependencies = new LinkedHashSet<>();
+
+    private String inputsFingerprint;
+
+    /** The states of the files read from the file, by file name. */
+    private final Map<String, ChangeDetector.FileState> storedStates = new HashMap<>();
+
+    private long auditStartTime;
+
+    private Collection<File> auditedDirectories;
+
+    private Collection<File> auditedFiles;
+
+    /**
+     * @param file the file keeping the state of the last audit
+     * @param threads the number of threads hashing the changed files, <code>0</code> or less for the number of
+     *            available processors
+     */
+    public UpToDateCheck(File file, int threads) {
+        this.file = file;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Adds an input of the audit.
+     *
+     * @param name the name of the input
+     * @param value its value, can be <code>null</code>
+     * @return this object
+     */
+    public UpToDateCheck addInput(String name, String value) {
+        inputs.add(name).add(value);
+        return this;
+    }
+
+    /**
+     * Adds a file the audit depends on, whose content is compared. A file which does not exist is expected to still
+     * not exist.
+     *
+     * @param inputFile a file
+     * @return this object
+     */
+    public UpToDateCheck addInputFile(File inputFile) {
+        inputFiles.add(inputFile.getAbsoluteFile());
+        return this;
+    }
+
+    /**
+     * Compares the inputs with the ones of the last audit.
+     *
+     * @param resultFile the result file of the audit
+     * @return <code>true</code> if the result file of the last audit is still valid
+     */
+    public boolean isUpToDate(File resultFile) {
+        storedStates.clear();
+        if (!file.isFile()) {
+            return false;
+        }
+        List<String> directories = new ArrayList<>();
+        List<Long> directoryTimes = new ArrayList<>();
+        List<File> files = new ArrayList<>();
+        try (DataInputStream in =
+                new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || !getInputsFingerprint().equals(readString(in))) {
+                return false;
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                directories.add(readString(in));
+                directoryTimes.add(in.readLong());
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                String fileName = readString(in);
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                storedStates.put(fileName, new ChangeDetector.FileState(size, lastModified, readString(in)));
+                files.add(new File(fileName));
+            }
+        } catch (IOException | RuntimeException e) {
+            storedStates.clear();
+            return false;
+        }
+
+        // the directories are checked first, as they are the cheapest
+        for (int i = 0; i < directories.size(); i++) {
+            try {
+                BasicFileAttributes attributes =
+                        Files.readAttributes(new File(directories.get(i)).toPath(), BasicFileAttributes.class);
+                if (!attributes.isDirectory() || attributes.lastModifiedTime().toMillis() != directoryTimes.get(i)) {
+                    return false;
+                }
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        // the stored files include the input files, the dependencies and the result file
+        Set<File> checkedFiles = new LinkedHashSet<>(files);
+        checkedFiles.addAll(inputFiles);
+        checkedFiles.add(resultFile.getAbsoluteFile());
+        try (ChangeDetector changeDetector = new ChangeDetector(threads)) {
+            Map<String, ChangeDetector.FileState> states = changeDetector.detect(checkedFiles, storedStates::get);
+            for (File checkedFile : checkedFiles) {
+                ChangeDetector.FileState stored = storedStates.get(checkedFile.getAbsolutePath());
+                ChangeDetector.FileState current = states.get(checkedFile.getAbsolutePath());
+                if (stored == null) {
+                    return false;
+                } else if (stored.getSize() < 0) {
+                    if (checkedFile.exists()) {
+                        return false;
+                    }
+                } else if (current == null || !stored.getHash().equals(current.getHash())) {
+                    return false;
+                }
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Called by the executor before the files are discovered: the state of the last audit is dropped, so that it is
+     * not used if this audit fails.
+     */
+    void auditStarted() {
+        auditStartTime = System.currentTimeMillis();
+        auditedDirectories = null;
+        auditedFiles = null;
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            // the fingerprint of the state does not match the new result file anyway
+        }
+    }
+
+    /**
+     * Called by the executor once all the files have been audited.
+     *
+     * @param directories the directories scanned by the discovery
+     * @param files the files found by the discovery, including the ones which were not audited
+     * @param dependencies the files the configuration depends on
+     */
+    void auditFinished(Collection<File> directories, Collection<File> files, Collection<File> dependencies) {
+        auditedDirectories = directories;
+        auditedFiles = files;
+        for (File dependency : dependencies) {
+            this.dependencies.add(dependency.getAbsoluteFile());
+        }
+    }
+
+    /**
+     * Keeps the state of the audit, once its result file is complete. Nothing is kept if the audit did not finish, or
+     * if a file was modified while it was audited.
+     *
+     * @param resultFile the result file of the audit
+     * @return <code>true</code> if the state was kept
+     * @throws IOException if the file of the state cannot be written
+     */
+    public boolean record(File resultFile) throws IOException {
+        if (auditedFiles == null) {
+            return false;
+        }
+        long modifiedAfter = auditStartTime - MODIFICATION_TIME_GRANULARITY;
+        Map<String, Long> directoryTimes = new TreeMap<>();
+        for (File directory : auditedDirectories) {
+            long lastModified = directory.lastModified();
+            if (lastModified == 0 || lastModified >= modifiedAfter) {
+                return false;
+            }
+            directoryTimes.put(directory.getAbsolutePath(), lastModified);
+        }
+
+        Set<File> files = new TreeSet<>();
+        for (File auditedFile : auditedFiles) {
+            files.add(auditedFile.getAbsoluteFile());
+        }
+        Set<File> inputs = new TreeSet<>(inputFiles);
+        inputs.addAll(dependencies);
+        inputs.removeAll(files);
+        Map<String, ChangeDetector.FileState> states;
+        try (ChangeDetector changeDetector = new ChangeDetector(threads)) {
+            states = changeDetector.detect(files, storedStates::get);
+            for (File stateFile : files) {
+                ChangeDetector.FileState state = states.get(stateFile.getAbsolutePath());
+                if (state == null || state.getLastModified() >= modifiedAfter) {
+                    return false;
+                }
+            }
+            // the inputs, like the copies of the configuration files, are written before the audit
+            states.putAll(changeDetector.detect(inputs, storedStates::get));
+            for (File inputFile : inputs) {
+                if (!states.containsKey(inputFile.getAbsolutePath())) {
+                    if (!inputFiles.contains(inputFile) || inputFile.exists()) {
+                        return false;
+                    }
+                    states.put(inputFile.getAbsolutePath(), ABSENT);
+                }
+            }
+        }
+        // the result file is written by the audit
+        File result = resultFile.getAbsoluteFile();
+        ChangeDetector.FileState resultState = new ChangeDetector.FileState(
+                result.length(), result.lastModified(), Fingerprint.of(result));
+        states.put(result.getAbsolutePath(), resultState);
+
+        Path target = file.toPath().toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temporary = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+        try {
+            try (DataOutputStream out =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeString(out, getInputsFingerprint());
+                out.writeInt(directoryTimes.size());
+                for (Map.Entry<String, Long> directory : directoryTimes.entrySet()) {
+                    writeString(out, directory.getKey());
+                    out.writeLong(directory.getValue());
+                }
+                out.writeInt(states.size());
+                for (Map.Entry<String, ChangeDetector.FileState> state : new TreeMap<>(states).entrySet()) {
+                    writeString(out, state.getKey());
+                    out.writeLong(state.getValue().getSize());
+                    out.writeLong(state.getValue().getLastModified());
+                    writeString(out, state.getValue().getHash());
+                }
+            }
+            try {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return true;
+    }
+
+    private String getInputsFingerprint() {
+        if (inputsFingerprint == null) {
+            for (File inputFile : inputFiles) {
+                inputs.add(inputFile.getAbsolutePath());
+            }
+            inputsFingerprint = inputs.toHex();
+        }
+        return inputsFingerprint;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+}
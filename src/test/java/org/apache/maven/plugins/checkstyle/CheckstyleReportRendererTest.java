@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import com.puppycrawl.tools.checkstyle.checks.coding.MagicNumberCheck;
+import com.puppycrawl.tools.checkstyle.checks.regexp.RegexpSinglelineCheck;
+import com.puppycrawl.tools.checkstyle.checks.sizes.LineLengthCheck;
+import org.apache.maven.doxia.sink.SinkEventAttributes;
+import org.apache.maven.doxia.sink.impl.SinkAdapter;
+import org.apache.maven.plugins.checkstyle.exec.CheckstyleResults;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.i18n.DefaultI18N;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class CheckstyleReportRendererTest {
+    @Test
+    public void testRulesSummary() {
+        DefaultConfiguration configuration = new DefaultConfiguration("Checker");
+        configuration.addChild(new DefaultConfiguration("LineLength"));
+        DefaultConfiguration trailingSpaces = new DefaultConfiguration("RegexpSingleline");
+        trailingSpaces.addProperty("message", "Line has trailing spaces.");
+        configuration.addChild(trailingSpaces);
+        DefaultConfiguration tabs = new DefaultConfiguration("RegexpSingleline");
+        tabs.addProperty("message", "Line can't have tabs.");
+        configuration.addChild(tabs);
+        DefaultConfiguration treeWalker = new DefaultConfiguration("TreeWalker");
+        treeWalker.addChild(new DefaultConfiguration("MagicNumber"));
+        configuration.addChild(treeWalker);
+
+        CheckstyleResults results = new CheckstyleResults();
+        results.setConfiguration(configuration);
+        // the following violations of each rule are omitted from the results, only counted
+        results.setRetentionLimits(1, 0);
+        addViolation(results, LineLengthCheck.class, "Line is longer than 80 characters.");
+        addViolation(results, LineLengthCheck.class, "Line is longer than 80 characters.");
+        addViolation(results, LineLengthCheck.class, "Line is longer than 80 characters.");
+        addViolation(results, RegexpSinglelineCheck.class, "Line has trailing spaces.");
+        addViolation(results, RegexpSinglelineCheck.class, "Line has trailing spaces.");
+        addViolation(results, RegexpSinglelineCheck.class, "Line cant have tabs.");
+        addViolation(results, MagicNumberCheck.class, "'42' is a magic number.");
+        addViolation(results, MagicNumberCheck.class, "'42' is a magic number.");
+
+        TableSink sink = new TableSink();
+        DefaultI18N i18n = new DefaultI18N();
+        i18n.initialize();
+        CheckstyleReportRenderer renderer = new CheckstyleReportRenderer(
+                sink,
+                i18n,
+                Locale.ENGLISH,
+                new MavenProject(),
+                null,
+                "sun_checks.xml",
+                null,
+                null,
+                Collections.emptyList(),
+                true,
+                false,
+                false,
+                results);
+        renderer.render();
+
+        List<List<String>> rows = sink.getRows("Category");
+        assertEquals(4, rows.size(), "test rules " + rows);
+        assertEquals(Arrays.asList("coding", "MagicNumber", "2", "Error"), rows.get(0));
+        assertEquals(
+                Arrays.asList(
+                        "regexp",
+                        "RegexpSingleline",
+                        "message",
+                        ": ",
+                        "\"",
+                        "Line can't have tabs.",
+                        "\"",
+                        "1",
+                        "Error"),
+                rows.get(1),
+                "test message without single quote");
+        assertEquals(
+                Arrays.asList(
+                        "RegexpSingleline", "message", ": ", "\"", "Line has trailing spaces.", "\"", "2", "Error"),
+                rows.get(2));
+        assertEquals(Arrays.asList("sizes", "LineLength", "3", "Error"), rows.get(3), "test omitted violations");
+    }
+
+    private static void addViolation(CheckstyleResults results, Class<?> check, String message) {
+        Violation violation = new Violation(1, 0, "", "key", null, SeverityLevel.ERROR, null, check, message);
+        results.getFileViolations("File.java").add(new AuditEvent(check, "/src/File.java", violation));
+    }
+
+    /**
+     * Sink keeping the texts of the rows of the tables.
+     */
+    private static class TableSink extends SinkAdapter {
+        private final List<List<String>> rows = new ArrayList<>();
+
+        private List<String> row;
+
+        @Override
+        public void tableRow(SinkEventAttributes attributes) {
+            row = new ArrayList<>();
+            rows.add(row);
+        }
+
+        @Override
+        public void tableRow_() {
+            row = null;
+        }
+
+        @Override
+        public void text(String text, SinkEventAttributes attributes) {
+            if (row != null) {
+                row.add(text);
+            }
+        }
+
+        /**
+         * @param firstHeader the text of the first header of a table
+         * @return the rows of the table, without its header
+         */
+        List<List<String>> getRows(String firstHeader) {
+            List<List<String>> table = new ArrayList<>();
+            boolean inTable = false;
+            for (List<String> row : rows) {
+                if (!row.isEmpty() && row.get(0).equals(firstHeader)) {
+                    inTable = true;
+                } else if (inTable && row.size() > 1 && row.get(1).equals("Category")) {
+                    break;
+                } else if (inTable) {
+                    table.add(row);
+                }
+            }
+            return table;
+        }
+    }
+}
@@ -20,6 +20,14 @@ package org.apache.maven.plugins.checkstyle;
 
 import javax.inject.Inject;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import org.apache.maven.api.di.Provides;
 import org.apache.maven.api.plugin.testing.InjectMojo;
 import org.apache.maven.api.plugin.testing.MojoParameter;
@@ -27,9 +35,13 @@ import org.apache.maven.api.plugin.testing.MojoTest;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.plugin.descriptor.PluginDescriptor;
+import org.apache.maven.plugin.logging.SystemStreamLog;
 import org.apache.maven.project.MavenProject;
 import org.junit.jupiter.api.Test;
 
+import static org.apache.maven.api.plugin.testing.MojoExtension.getVariableValueFromObject;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 /**
@@ -121,6 +133,77 @@ public class CheckstyleViolationCheckMojoTest {
         mojo.execute();
     }
 
+    @InjectMojo(goal = "check", pom = "src/test/resources/plugin-configs/fail-fast-plugin-config.xml")
+    @MojoParameter(name = "failOnViolation", value = "false")
+    @Test
+    public void testWithoutFailFast(CheckstyleViolationCheckMojo mojo) throws Exception {
+        mojo.execute();
+
+        assertEquals(3, getAuditedFiles(mojo).size(), "all the files are audited");
+    }
+
+    @InjectMojo(goal = "check", pom = "src/test/resources/plugin-configs/fail-fast-plugin-config.xml")
+    @MojoParameter(name = "failFast", value = "true")
+    @Test
+    public void testFailFast(CheckstyleViolationCheckMojo mojo) throws Exception {
+        try {
+            mojo.execute();
+
+            fail("Must fail on violations");
+        } catch (MojoFailureException e) {
+            // expected
+        }
+
+        assertEquals(1, getAuditedFiles(mojo).size(), "the audit stops after the first file with violations");
+    }
+
+    @InjectMojo(goal = "check", pom = "src/test/resources/plugin-configs/fail-fast-plugin-config.xml")
+    @MojoParameter(name = "failOnViolation", value = "false")
+    @Test
+    public void testViolationsLoggedToConsole(CheckstyleViolationCheckMojo mojo) throws Exception {
+        List<String> errors = new ArrayList<>();
+        List<String> infos = new ArrayList<>();
+        mojo.setLog(new SystemStreamLog() {
+            @Override
+            public void error(CharSequence content) {
+                errors.add(content.toString());
+            }
+
+            @Override
+            public void info(CharSequence content) {
+                infos.add(content.toString());
+            }
+        });
+
+        mojo.execute();
+
+        // the mojo does not collect the results, the violations are counted and logged as they are found
+        File outputFile = (File) getVariableValueFromObject(mojo, "outputFile");
+        long violations = Files.readAllLines(outputFile.toPath(), StandardCharsets.UTF_8).stream()
+                .filter(line -> line.startsWith("[ERROR] "))
+                .count();
+        assertEquals(19, violations);
+        assertEquals(violations, errors.size());
+        for (String error : errors) {
+            assertTrue(error.matches("[\\w/\\\\.-]+\\.java:\\[\\d+(,\\d+)?\\] \\(\\w+\\) \\w+: .+"), error);
+        }
+        assertTrue(infos.contains("You have 19 Checkstyle violations."), infos.toString());
+    }
+
+    /**
+     * @return the files with violations in the plain output file of the mojo
+     */
+    private static Set<String> getAuditedFiles(CheckstyleViolationCheckMojo mojo) throws Exception {
+        File outputFile = (File) getVariableValueFromObject(mojo, "outputFile");
+        Set<String> files = new HashSet<>();
+        for (String line : Files.readAllLines(outputFile.toPath(), StandardCharsets.UTF_8)) {
+            if (line.startsWith("[ERROR] ")) {
+                files.add(line.substring("[ERROR] ".length(), line.indexOf(".java:") + ".java".length()));
+            }
+        }
+        return files;
+    }
+
     @InjectMojo(goal = "check", pom = "src/test/resources/plugin-configs/check-plugin-config.xml")
     @MojoParameter(name = "configLocation", value = "sun_checks.xml")
     @MojoParameter(name = "cacheFile", value = "/target/classes/checkstyle-cachefile")
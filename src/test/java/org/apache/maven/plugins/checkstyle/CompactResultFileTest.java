@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompactResultFileTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testErrorsAreReadBack() throws Exception {
+        File xmlFile = directory.resolve("checkstyle-result.xml").toFile();
+        write(xmlFile, 1000);
+
+        List<String> errors = new ArrayList<>();
+        List<String> fileNames = new ArrayList<>();
+        assertTrue(CompactResultFile.read(xmlFile, (file, line, column, severity, source, message) -> {
+            fileNames.add(file);
+            errors.add(file + ":" + line + ":" + column + " " + severity + " " + source + " " + message);
+        }));
+        assertEquals(1000, errors.size());
+        assertEquals("/src/File0.java:1:0 error " + getClass().getName() + " message 0", errors.get(0));
+        assertEquals("/src/File9.java:1000:19 warning " + getClass().getName() + " message 9", errors.get(999));
+        assertSame(fileNames.get(0), fileNames.get(10), "the strings are interned");
+    }
+
+    @Test
+    public void testStaleFileIsNotRead() throws Exception {
+        File xmlFile = directory.resolve("checkstyle-result.xml").toFile();
+        write(xmlFile, 10);
+        Files.write(xmlFile.toPath(), "<checkstyle></checkstyle>".getBytes(StandardCharsets.UTF_8));
+        assertFalse(CompactResultFile.read(xmlFile, (file, line, column, severity, source, message) -> {
+            throw new AssertionError("not matching the XML output file");
+        }));
+
+        write(xmlFile, 10);
+        long lastModified = xmlFile.lastModified();
+        try (RandomAccessFile content = new RandomAccessFile(CompactResultFile.getFile(xmlFile), "rw")) {
+            content.seek(9);
+            content.write(0x7F);
+        }
+        xmlFile.setLastModified(lastModified);
+        assertFalse(CompactResultFile.read(xmlFile, (file, line, column, severity, source, message) -> {
+            throw new AssertionError("corrupted");
+        }));
+
+        assertFalse(CompactResultFile.read(directory.resolve("missing.xml").toFile(), null));
+    }
+
+    /**
+     * Writes an XML output file and its compact result file.
+     */
+    private void write(File xmlFile, int errors) throws Exception {
+        AuditListener writer = CompactResultFile.newWriter(xmlFile);
+        writer.auditStarted(new AuditEvent(this));
+        for (int i = 0; i < errors; i++) {
+            String fileName = "/src/File" + (i % 10) + ".java";
+            SeverityLevel severity = i < 500 ? SeverityLevel.ERROR : SeverityLevel.WARNING;
+            Violation violation =
+                    new Violation(i + 1, i % 20, "", "", null, severity, null, getClass(), "message " + (i % 10));
+            writer.addError(new AuditEvent(this, fileName, violation));
+        }
+        writer.addError(new AuditEvent(
+                this,
+                "/src/Ignored.java",
+                new Violation(1, 0, "", "", null, SeverityLevel.IGNORE, null, getClass(), "ignored")));
+        Files.write(xmlFile.toPath(), ("<checkstyle>" + errors + "</checkstyle>").getBytes(StandardCharsets.UTF_8));
+        writer.auditFinished(new AuditEvent(this));
+    }
+}
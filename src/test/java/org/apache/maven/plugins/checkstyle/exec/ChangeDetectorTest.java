@@ -0,0 +1,78 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ChangeDetectorTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testOnlyFilesWithChangedMetadataAreHashed() throws Exception {
+        List<File> files = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Path file = directory.resolve("Source" + i + ".java");
+            Files.write(file, ("class Source" + i + " {}").getBytes(StandardCharsets.UTF_8));
+            file.toFile().setLastModified(1000000L);
+            files.add(file.toFile());
+        }
+
+        try (ChangeDetector changeDetector = new ChangeDetector(4)) {
+            Map<String, ChangeDetector.FileState> states = changeDetector.detect(files, name -> null);
+            assertEquals(10, states.size());
+            assertEquals(0, changeDetector.getStatHits());
+            assertEquals(10, changeDetector.getHashedFiles());
+            assertEquals(10, changeDetector.getChangedFiles(), "unknown files are changed");
+
+            // touched, but with the same content
+            files.get(0).setLastModified(2000000L);
+            Files.write(files.get(1).toPath(), "class Changed {}\n".getBytes(StandardCharsets.UTF_8));
+            files.get(1).setLastModified(1000000L);
+            Map<String, ChangeDetector.FileState> newStates = changeDetector.detect(files, states::get);
+            assertEquals(8, changeDetector.getStatHits());
+            assertEquals(12, changeDetector.getHashedFiles());
+            assertEquals(11, changeDetector.getChangedFiles());
+
+            String fileName = files.get(0).getAbsolutePath();
+            assertEquals(states.get(fileName).getHash(), newStates.get(fileName).getHash());
+            assertEquals(2000000L, newStates.get(fileName).getLastModified());
+            fileName = files.get(1).getAbsolutePath();
+            assertNotEquals(states.get(fileName).getHash(), newStates.get(fileName).getHash());
+            fileName = files.get(2).getAbsolutePath();
+            assertSame(states.get(fileName), newStates.get(fileName));
+
+            assertNull(changeDetector.detect(directory.resolve("Missing.java").toFile(), null));
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Properties;
+
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.XMLLogger;
+import com.puppycrawl.tools.checkstyle.api.AutomaticBean.OutputStreamOptions;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CheckerPoolTest {
+    @TempDir
+    Path directory;
+
+    private final ClassLoader classLoader = getClass().getClassLoader();
+
+    @Test
+    public void testReuseCheckerWithSameConfiguration() throws Exception {
+        CheckerPool pool = new CheckerPool(4);
+
+        PooledChecker first = pool.lease(createConfiguration("120"), classLoader);
+        pool.release(first, true);
+
+        PooledChecker second = pool.lease(createConfiguration("120"), classLoader);
+        assertSame(first, second, "a Checker with the same configuration is reused");
+
+        PooledChecker other = pool.lease(createConfiguration("80"), classLoader);
+        assertNotSame(second, other, "a Checker with another configuration is not reused");
+    }
+
+    @Test
+    public void testDiscardFailedChecker() throws Exception {
+        CheckerPool pool = new CheckerPool(4);
+
+        PooledChecker first = pool.lease(createConfiguration("120"), classLoader);
+        pool.release(first, false);
+
+        assertNotSame(first, pool.lease(createConfiguration("120"), classLoader));
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+        CheckerPool pool = new CheckerPool(1);
+
+        PooledChecker first = pool.lease(createConfiguration("120"), classLoader);
+        PooledChecker second = pool.lease(createConfiguration("80"), classLoader);
+        pool.release(first, true);
+        pool.release(second, true);
+
+        assertNotSame(first, pool.lease(createConfiguration("120"), classLoader));
+        assertSame(second, pool.lease(createConfiguration("80"), classLoader));
+    }
+
+    @Test
+    public void testDiscardCheckerWhenExternalResourceChanged() throws Exception {
+        Path header = directory.resolve("header.txt");
+        Files.write(header, "// header".getBytes(StandardCharsets.UTF_8));
+
+        DefaultConfiguration configuration = new DefaultConfiguration("Checker");
+        DefaultConfiguration headerCheck = new DefaultConfiguration("Header");
+        headerCheck.addProperty("headerFile", header.toString());
+        configuration.addChild(headerCheck);
+
+        CheckerPool pool = new CheckerPool(4);
+        PooledChecker first = pool.lease(configuration, classLoader);
+        assertEquals(1, first.getExternalResourceLocations().size());
+        pool.release(first, true);
+
+        Files.write(header, "// another header".getBytes(StandardCharsets.UTF_8));
+        PooledChecker second = pool.lease(configuration, classLoader);
+        assertNotSame(first, second, "a Checker is not reused once its header file changed");
+    }
+
+    @Test
+    public void testReuseCheckerAcrossModules() throws Exception {
+        CheckerPool pool = new CheckerPool(4);
+
+        PooledChecker first = pool.lease(createModuleConfiguration("module-a", "// header"), classLoader);
+        pool.release(first, true);
+
+        PooledChecker second = pool.lease(createModuleConfiguration("module-b", "// header"), classLoader);
+        assertSame(first, second, "a Checker is reused by a module with the same header file content");
+        pool.release(second, true);
+
+        PooledChecker other = pool.lease(createModuleConfiguration("module-c", "// other header"), classLoader);
+        assertNotSame(first, other, "a Checker is not reused by a module with another header file content");
+    }
+
+    @Test
+    public void testReuseCheckerWithOtherCacheFile() throws Exception {
+        CheckerPool pool = new CheckerPool(4);
+
+        PooledChecker first = auditModule(pool, "module-a");
+        PooledChecker second = auditModule(pool, "module-b");
+        assertSame(first, second, "a Checker is reused by a module with another cache file");
+        // the Checker does not own a cache file, destroying it does not write any
+        first.getChecker().destroy();
+
+        Properties cacheA = loadCacheFile("module-a");
+        Properties cacheB = loadCacheFile("module-b");
+        assertTrue(cacheA.containsKey(getSource("module-a").getAbsolutePath()));
+        assertFalse(cacheA.containsKey(getSource("module-b").getAbsolutePath()), "written by module-b");
+        assertTrue(cacheB.containsKey(getSource("module-b").getAbsolutePath()));
+        assertFalse(cacheB.containsKey(getSource("module-a").getAbsolutePath()), "written by module-a");
+    }
+
+    @Test
+    public void testListenersAndFiltersAreReset() throws Exception {
+        Path source = directory.resolve("Source.java");
+        Files.write(source, "class Source {}".getBytes(StandardCharsets.UTF_8));
+        File file = source.toFile();
+
+        CheckerPool pool = new CheckerPool(4);
+        PooledChecker checker = pool.lease(createConfiguration("120"), classLoader);
+        ByteArrayOutputStream firstOutput = new ByteArrayOutputStream();
+        checker.addListener(new XMLLogger(firstOutput, OutputStreamOptions.NONE));
+        checker.addFilter(event -> false);
+        checker.getChecker().process(Collections.singletonList(file));
+        pool.release(checker, true);
+
+        checker = pool.lease(createConfiguration("120"), classLoader);
+        ByteArrayOutputStream secondOutput = new ByteArrayOutputStream();
+        checker.addListener(new XMLLogger(secondOutput, OutputStreamOptions.NONE));
+        checker.getChecker().process(Collections.singletonList(file));
+
+        assertFalse(firstOutput.toString("UTF-8").contains("<error"), "violations are filtered");
+        assertTrue(secondOutput.toString("UTF-8").contains("<error"), "the filter is removed");
+        assertEquals(1, countOccurrences(secondOutput.toString("UTF-8"), "<checkstyle"));
+    }
+
+    private static Configuration createConfiguration(String max) {
+        DefaultConfiguration configuration = new DefaultConfiguration("Checker");
+        DefaultConfiguration lineLength = new DefaultConfiguration("LineLength");
+        lineLength.addProperty("max", max);
+        configuration.addChild(lineLength);
+        configuration.addChild(new DefaultConfiguration("NewlineAtEndOfFile"));
+        DefaultConfiguration treeWalker = new DefaultConfiguration("TreeWalker");
+        treeWalker.addChild(new DefaultConfiguration("JavadocType"));
+        configuration.addChild(treeWalker);
+        return configuration;
+    }
+
+    private Configuration createModuleConfiguration(String module, String header) throws Exception {
+        Path target = Files.createDirectories(directory.resolve(module).resolve("target"));
+        Path headerFile = target.resolve("checkstyle-header.txt");
+        Files.write(headerFile, header.getBytes(StandardCharsets.UTF_8));
+
+        DefaultConfiguration configuration = new DefaultConfiguration("Checker");
+        DefaultConfiguration headerCheck = new DefaultConfiguration("Header");
+        headerCheck.addProperty("headerFile", headerFile.toAbsolutePath().toString());
+        configuration.addChild(headerCheck);
+        return configuration;
+    }
+
+    /**
+     * Audits the source of a module with a leased Checker, the cache file of the module being maintained by an
+     * {@link AuditCache}, the way the executor does.
+     *
+     * @return the released Checker
+     */
+    private PooledChecker auditModule(CheckerPool pool, String module) throws Exception {
+        File source = getSource(module);
+        Files.createDirectories(source.toPath().getParent());
+        Files.write(source.toPath(), "/** Source. */\nclass Source {}\n".getBytes(StandardCharsets.UTF_8));
+
+        DefaultConfiguration configuration = (DefaultConfiguration) createConfiguration("120");
+        String cacheFile = getCacheFile(module).getAbsolutePath();
+        configuration.addProperty("cacheFile", cacheFile);
+
+        PooledChecker checker = pool.lease(configuration, classLoader);
+        AuditCache auditCache = new AuditCache(configuration, cacheFile);
+        auditCache.load(checker.getExternalResourceLocations());
+        checker.addListener(auditCache);
+        checker.getChecker().process(auditCache.getFilesToProcess(Collections.singletonList(source)));
+        auditCache.persist();
+        pool.release(checker, true);
+        return checker;
+    }
+
+    private File getSource(String module) {
+        return directory.resolve(module).resolve("src").resolve("Source.java").toFile();
+    }
+
+    private File getCacheFile(String module) {
+        return directory.resolve(module).resolve("target").resolve("checkstyle-cachefile").toFile();
+    }
+
+    private Properties loadCacheFile(String module) throws Exception {
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(getCacheFile(module).toPath())) {
+            properties.load(in);
+        }
+        return properties;
+    }
+
+    private static int countOccurrences(String text, String token) {
+        int count = 0;
+        for (int index = text.indexOf(token); index >= 0; index = text.indexOf(token, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -18,24 +18,31 @@
  */
 package org.apache.maven.plugins.checkstyle.exec;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
 import com.puppycrawl.tools.checkstyle.api.AuditEvent;
 import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
 import com.puppycrawl.tools.checkstyle.api.Violation;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 /**
  * @author Edwin Punzalan
  *
  */
 public class CheckstyleResultsTest {
+    @TempDir
+    Path directory;
+
     private CheckstyleResults results = new CheckstyleResults();
 
     @Test
@@ -126,4 +133,173 @@ public class CheckstyleResultsTest {
         results.setFileViolations("file", Collections.emptyList());
         assertEquals(0, results.getFileViolations("file").size(), "test file violations");
     }
+
+    @Test
+    public void testEventsAreRebuilt() {
+        List<AuditEvent> violations = results.getFileViolations("File.java");
+        Violation message = new Violation(
+                12, 5, "", "key", null, SeverityLevel.WARNING, "id", getClass(), "Don't use '{0}'");
+        violations.add(new AuditEvent(this, "/src/File.java", message));
+        message = new Violation(13, 0, "", "key", null, SeverityLevel.ERROR, null, getClass(), "{0} too long");
+        violations.add(new AuditEvent(this, "/src/File.java", message));
+
+        List<AuditEvent> events = results.getFiles().get("File.java");
+        assertEquals(2, events.size(), "test file violations");
+        AuditEvent event = events.get(0);
+        assertEquals("/src/File.java", event.getFileName());
+        assertEquals(12, event.getLine());
+        assertEquals(5, event.getColumn());
+        assertEquals(SeverityLevel.WARNING, event.getSeverityLevel());
+        assertEquals("id", event.getModuleId());
+        assertEquals(getClass().getName(), event.getSourceName());
+        assertEquals("Dont use {0}", event.getMessage(), "the message is not formatted again");
+        assertSame(this, event.getSource());
+        assertEquals("{0} too long", events.get(1).getMessage());
+        assertEquals(1, results.getSeverityCount(SeverityLevel.ERROR));
+
+        CheckstyleResults merged = new CheckstyleResults();
+        merged.getFileViolations("File.java").add(new AuditEvent(this, "/other/File.java", message));
+        merged.addAll(results);
+        events = merged.getFileViolations("File.java");
+        assertEquals(3, events.size(), "test merged violations");
+        assertEquals("/other/File.java", events.get(0).getFileName());
+        assertEquals("Dont use {0}", events.get(1).getMessage());
+        assertEquals(2, merged.getSeverityCount("File.java", SeverityLevel.ERROR));
+    }
+
+    @Test
+    public void testEventsAreSpilled() throws Exception {
+        CheckstyleResults spilledResults = new CheckstyleResults(3, directory.toFile());
+        for (int i = 0; i < 10; i++) {
+            SeverityLevel level = i % 2 == 0 ? SeverityLevel.ERROR : SeverityLevel.WARNING;
+            Violation message = new Violation(i + 1, i, "", "key", null, level, null, getClass(), "message " + i);
+            spilledResults.getFileViolations("File" + (i % 3) + ".java").add(new AuditEvent(this, "File", message));
+        }
+        assertEquals(1, directory.toFile().list().length, "test spill file");
+
+        List<AuditEvent> events = spilledResults.getFileViolations("File1.java");
+        assertEquals(3, events.size(), "test file violations");
+        assertEquals(8, events.get(2).getLine());
+        assertEquals(7, events.get(2).getColumn());
+        assertEquals("message 7", events.get(2).getMessage());
+        assertEquals(5, spilledResults.getSeverityCount(SeverityLevel.ERROR));
+        assertEquals(2, spilledResults.getSeverityCount("File1.java", SeverityLevel.WARNING));
+
+        CheckstyleResults merged = new CheckstyleResults(4, directory.toFile());
+        merged.addAll(spilledResults);
+        assertEquals(2, directory.toFile().list().length, "test merged spill file");
+        spilledResults.close();
+        assertEquals(1, directory.toFile().list().length, "test spill file deleted when closed");
+        assertEquals("message 9", merged.getFileViolations("File0.java").get(3).getMessage());
+        assertEquals(5, merged.getSeverityCount(SeverityLevel.WARNING));
+
+        merged.close();
+        assertEquals(0, directory.toFile().list().length, "test spill files deleted");
+    }
+
+    @Test
+    public void testCountsAreMaintained() {
+        List<AuditEvent> violations = results.getFileViolations("File.java");
+        Violation warning = new Violation(1, 0, "", "key", null, SeverityLevel.WARNING, null, getClass(), "warning");
+        Violation error = new Violation(2, 0, "", "key", null, SeverityLevel.ERROR, null, String.class, "error");
+        violations.add(new AuditEvent(this, "/src/File.java", warning));
+        violations.add(new AuditEvent(this, "/src/File.java", warning));
+        violations.add(new AuditEvent(this, "/src/File.java", error));
+
+        assertEquals(2, results.getSeverityCount(SeverityLevel.WARNING));
+        assertEquals(1, results.getSeverityCount(violations, SeverityLevel.ERROR));
+        assertEquals(2, results.getSourceNames().size());
+        assertEquals(2, results.getSourceSeverityCount(getClass().getName(), SeverityLevel.WARNING));
+        assertEquals(0, results.getSourceSeverityCount(getClass().getName(), SeverityLevel.ERROR));
+        assertEquals(1, results.getSourceSeverityCount(String.class.getName(), SeverityLevel.ERROR));
+
+        AuditEvent event = new AuditEvent(this, "/src/File.java", error);
+        results.setFileViolations("File.java", Collections.singletonList(event));
+        assertEquals(0, results.getSeverityCount(SeverityLevel.WARNING), "test replaced violations");
+        assertEquals(1, results.getSeverityCount("File.java", SeverityLevel.ERROR));
+        assertEquals(0, results.getSourceSeverityCount(getClass().getName(), SeverityLevel.WARNING));
+        assertEquals(1, results.getSourceSeverityCount(String.class.getName(), SeverityLevel.ERROR));
+    }
+
+    @Test
+    public void testEventsAreOmitted() {
+        results.setRetentionLimits(3, 2);
+        for (int i = 0; i < 6; i++) {
+            Violation message =
+                    new Violation(i + 1, 0, "", "key", null, SeverityLevel.WARNING, null, getClass(), "message");
+            results.getFileViolations("File" + (i % 2) + ".java").add(new AuditEvent(this, "File", message));
+        }
+        Violation error = new Violation(1, 0, "", "key", null, SeverityLevel.ERROR, null, String.class, "error");
+        results.getFileViolations("File0.java").add(new AuditEvent(this, "File", error));
+
+        assertEquals(2, results.getFileViolations("File0.java").size(), "test file limit");
+        assertEquals(1, results.getFileViolations("File1.java").size(), "test rule limit");
+        assertEquals(2, results.getOmittedEventCount("File0.java"));
+        assertEquals(2, results.getOmittedEventCount("File1.java"));
+        assertEquals(6, results.getSeverityCount(SeverityLevel.WARNING));
+        assertEquals(3, results.getSeverityCount("File1.java", SeverityLevel.WARNING));
+        assertEquals(1, results.getSourceSeverityCount(String.class.getName(), SeverityLevel.ERROR));
+        assertEquals(6, results.getSourceSeverityCount(getClass().getName(), SeverityLevel.WARNING));
+
+        CheckstyleResults merged = new CheckstyleResults();
+        merged.addAll(results);
+        assertEquals(6, merged.getSeverityCount(SeverityLevel.WARNING), "test merged counts");
+        assertEquals(2, merged.getOmittedEventCount("File0.java"));
+        assertEquals(3, merged.getSeverityCount("File0.java", SeverityLevel.WARNING));
+        assertEquals(6, merged.getSourceSeverityCount(getClass().getName(), SeverityLevel.WARNING));
+    }
+
+    @Test
+    public void testReplacedViolationsResetOmittedEvents() {
+        results.setRetentionLimits(0, 1);
+        for (int i = 0; i < 3; i++) {
+            Violation message =
+                    new Violation(i + 1, 0, "", "key", null, SeverityLevel.WARNING, null, getClass(), "message");
+            results.getFileViolations("File.java").add(new AuditEvent(this, "File", message));
+        }
+        assertEquals(2, results.getOmittedEventCount("File.java"));
+
+        Violation error = new Violation(1, 0, "", "key", null, SeverityLevel.ERROR, null, String.class, "error");
+        results.setFileViolations("File.java", Collections.singletonList(new AuditEvent(this, "File", error)));
+        assertEquals(0, results.getOmittedEventCount("File.java"), "test omitted events replaced");
+        assertEquals(0, results.getSeverityCount(SeverityLevel.WARNING));
+        assertEquals(0, results.getSeverityCount("File.java", SeverityLevel.WARNING));
+        assertEquals(0, results.getSourceSeverityCount(getClass().getName(), SeverityLevel.WARNING));
+        assertEquals(1, results.getSeverityCount("File.java", SeverityLevel.ERROR));
+    }
+
+    @Test
+    public void testFixedMessagesAreCounted() {
+        DefaultConfiguration configuration = new DefaultConfiguration("Checker");
+        DefaultConfiguration regexp = new DefaultConfiguration("RegexpSingleline");
+        regexp.addProperty("message", "don't do that");
+        configuration.addChild(regexp);
+        results.setConfiguration(configuration);
+        results.setRetentionLimits(1, 0);
+        for (int i = 0; i < 3; i++) {
+            String text = i < 2 ? "dont do that" : "another message";
+            Violation message = new Violation(i + 1, 0, "", "key", null, SeverityLevel.WARNING, null, getClass(), text);
+            results.getFileViolations("File.java").add(new AuditEvent(this, "File", message));
+        }
+
+        String sourceName = getClass().getName();
+        assertEquals(1, results.getFileViolations("File.java").size(), "test rule limit");
+        assertEquals(3, results.getSourceSeverityCount(sourceName, SeverityLevel.WARNING));
+        assertEquals(2, results.getSourceSeverityCount(sourceName, "dont do that", SeverityLevel.WARNING));
+        assertEquals(0, results.getSourceSeverityCount(sourceName, "another message", SeverityLevel.WARNING));
+
+        CheckstyleResults merged = new CheckstyleResults();
+        merged.setConfiguration(configuration);
+        merged.addAll(results);
+        assertEquals(2, merged.getSourceSeverityCount(sourceName, "dont do that", SeverityLevel.WARNING));
+
+        CheckstyleResults configuredAfter = new CheckstyleResults();
+        configuredAfter.getFileViolations("File.java").addAll(results.getFileViolations("File.java"));
+        assertEquals(0, configuredAfter.getSourceSeverityCount(sourceName, "dont do that", SeverityLevel.WARNING));
+        configuredAfter.setConfiguration(configuration);
+        assertEquals(
+                1,
+                configuredAfter.getSourceSeverityCount(sourceName, "dont do that", SeverityLevel.WARNING),
+                "test counted again with the configuration");
+    }
 }
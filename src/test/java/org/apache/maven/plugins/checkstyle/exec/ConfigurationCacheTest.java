@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Properties;
+
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader.IgnoredModulesOptions;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+public class ConfigurationCacheTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testConfigurationIsSharedByEqualProperties() throws Exception {
+        File configFile = writeConfig("${max}");
+        ConfigurationCache cache = new ConfigurationCache();
+
+        Configuration first =
+                cache.load(configFile.getPath(), properties("100", "module1"), IgnoredModulesOptions.OMIT);
+        ((DefaultConfiguration) first).addProperty("charset", "UTF-8");
+        ((DefaultConfiguration) first.getChildren()[0]).addProperty("fileExtensions", "java");
+
+        // the unused property has another value
+        Configuration second =
+                cache.load(configFile.getPath(), properties("100", "module2"), IgnoredModulesOptions.OMIT);
+        assertNotSame(first, second);
+        assertNotSame(first.getChildren()[0], second.getChildren()[0]);
+        assertEquals("100", second.getChildren()[0].getProperty("max"));
+        assertFalse(Arrays.asList(second.getPropertyNames()).contains("charset"), "the copies are isolated");
+        assertFalse(Arrays.asList(second.getChildren()[0].getPropertyNames()).contains("fileExtensions"));
+
+        Configuration other =
+                cache.load(configFile.getPath(), properties("200", "module1"), IgnoredModulesOptions.OMIT);
+        assertEquals("200", other.getChildren()[0].getProperty("max"));
+    }
+
+    @Test
+    public void testChangedConfigurationIsLoadedAgain() throws Exception {
+        File configFile = writeConfig("${max}");
+        ConfigurationCache cache = new ConfigurationCache();
+        Configuration configuration =
+                cache.load(configFile.getPath(), properties("100", "module1"), IgnoredModulesOptions.OMIT);
+        assertEquals("100", configuration.getChildren()[0].getProperty("max"));
+
+        writeConfig("3000");
+        configuration = cache.load(configFile.getPath(), properties("100", "module1"), IgnoredModulesOptions.OMIT);
+        assertEquals("3000", configuration.getChildren()[0].getProperty("max"));
+    }
+
+    private File writeConfig(String max) throws Exception {
+        Path configFile = directory.resolve("checkstyle.xml");
+        String config = "<?xml version=\"1.0\"?>\n"
+                + "<!DOCTYPE module PUBLIC \"-//Checkstyle//DTD Checkstyle Configuration 1.3//EN\""
+                + " \"https://checkstyle.org/dtds/configuration_1_3.dtd\">\n"
+                + "<module name=\"Checker\">\n"
+                + "  <property name=\"severity\" value=\"warning\"/>\n"
+                + "  <module name=\"FileLength\">\n"
+                + "    <property name=\"max\" value=\"" + max + "\"/>\n"
+                + "  </module>\n"
+                + "</module>\n";
+        Files.write(configFile, config.getBytes(StandardCharsets.UTF_8));
+        return configFile.toFile();
+    }
+
+    private static Properties properties(String max, String module) {
+        Properties properties = new Properties();
+        properties.setProperty("max", max);
+        properties.setProperty("checkstyle.header.file", "/" + module + "/target/checkstyle-header.txt");
+        return properties;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileDiscoveryTest {
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        for (String name : Arrays.asList(
+                "a/A.java", "a/b/B.java", "a/b/c/C.java", "a/b/Notes.txt", "d/D.java", "d/DTest.java", "E.java")) {
+            Path file = directory.resolve(name);
+            Files.createDirectories(file.getParent());
+            Files.createFile(file);
+        }
+    }
+
+    @Test
+    public void testSameFilesAsFileUtils() throws IOException {
+        assertSameFiles(null, null);
+        assertSameFiles("**/*.java", null);
+        assertSameFiles("**/*.java", "**/*Test.java,a/b/c/**");
+        assertSameFiles("a/**", "**/*.txt");
+        assertSameFiles("a/b/", "a/b/c/");
+    }
+
+    @Test
+    public void testExcludedDirectoriesAreNotWalked() throws IOException {
+        Path vcsFile = directory.resolve("a/.git/Config.java");
+        Files.createDirectories(vcsFile.getParent());
+        Files.createFile(vcsFile);
+
+        assertSameFiles("**/*.java", String.join(",", FileUtils.getDefaultExcludes()));
+
+        Set<File> scannedDirectories = new HashSet<>();
+        FileDiscovery discovery = new FileDiscovery(new FileDiscovery.Listener() {
+            @Override
+            public void fileDiscovered(int project, File file) {}
+
+            @Override
+            public void directoryScanned(File directory) {
+                scannedDirectories.add(directory);
+            }
+        });
+        discovery.scan(directory.toFile(), "**/*.java", "**/.git/**");
+        assertEquals(6, discovery.getFileCount());
+        assertTrue(scannedDirectories.contains(directory.resolve("a").toFile()));
+        assertTrue(!scannedDirectories.contains(vcsFile.getParent().toFile()), "excluded directory walked");
+    }
+
+    @Test
+    public void testFilesAreNotifiedBeforeTheirDirectory() {
+        File root = directory.toFile();
+        List<File> files = new ArrayList<>();
+        Set<File> scannedDirectories = new HashSet<>();
+        FileDiscovery discovery = new FileDiscovery(new FileDiscovery.Listener() {
+            @Override
+            public void fileDiscovered(int project, File file) {
+                assertTrue(
+                        !scannedDirectories.contains(file.getParentFile()), "file discovered after its directory");
+                files.add(file);
+            }
+
+            @Override
+            public void directoryScanned(File directory) {
+                scannedDirectories.add(directory);
+            }
+        });
+
+        assertEquals(6, discovery.scan(root, "**/*.java", null));
+        assertEquals(2, discovery.scan(new File(root, "d"), "**/*.java", null), "duplicates are counted");
+        assertEquals(6, files.size(), "duplicates are notified once");
+        assertEquals(6, discovery.getFileCount());
+        assertEquals(Collections.singletonList(files), discovery.getFilesByProject());
+        assertTrue(scannedDirectories.contains(new File(root, "a/b/c")));
+    }
+
+    @Test
+    public void testSkipFilter() throws IOException {
+        File root = directory.toFile();
+        Files.write(directory.resolve("a/Large.java"), new byte[100]);
+        Files.write(directory.resolve("a/b/Binary.java"), new byte[] {'a', 0, 'b'});
+
+        FileSkipFilter skipFilter = new FileSkipFilter(50, true, "UTF-8", true);
+        FileDiscovery discovery = new FileDiscovery(null, skipFilter);
+        assertEquals(8, discovery.scan(root, "**/*.java", null));
+        assertEquals(6, discovery.getFileCount());
+        assertEquals(2, skipFilter.getSkippedFileCount());
+        assertEquals(2, skipFilter.getUnsuitableFiles().size());
+
+        FileSkipFilter warnFilter = new FileSkipFilter(50, true, "UTF-16LE", false);
+        discovery = new FileDiscovery(null, warnFilter);
+        discovery.scan(root, "**/*.java", null);
+        assertEquals(8, discovery.getFileCount(), "the files are only reported");
+        assertEquals(0, warnFilter.getSkippedFileCount());
+        assertEquals(1, warnFilter.getUnsuitableFiles().size(), "binary files are not detected in UTF-16");
+    }
+
+    @Test
+    public void testChangedFiles() {
+        File root = directory.toFile();
+        Set<Path> changed = new HashSet<>();
+        changed.add(directory.resolve("a/b/B.java").toAbsolutePath());
+        changed.add(directory.resolve("d/D.java").toAbsolutePath());
+        changed.add(directory.resolve("d/Deleted.java").toAbsolutePath());
+
+        ChangedFiles changedFiles = new ChangedFiles(changed);
+        FileDiscovery discovery = new FileDiscovery(null, null, changedFiles);
+        assertEquals(6, discovery.scan(root, "**/*.java", null));
+        assertEquals(2, discovery.getFileCount());
+        assertEquals(
+                new HashSet<>(Arrays.asList(new File(root, "a/b/B.java"), new File(root, "d/D.java"))),
+                new HashSet<>(discovery.getFilesByProject().get(0)));
+        assertEquals(4, changedFiles.getExcludedFileCount());
+    }
+
+    @Test
+    public void testChangedFilesOutsideOfRepository() {
+        assertThrows(IOException.class, () -> ChangedFiles.since(directory.toFile(), "HEAD"));
+        assertThrows(IOException.class, () -> ChangedFiles.since(directory.toFile(), "--output=file"));
+    }
+
+    private void assertSameFiles(String includes, String excludes) throws IOException {
+        File root = directory.toFile();
+        FileDiscovery discovery = new FileDiscovery(null);
+        discovery.scan(root, includes, excludes);
+        assertEquals(
+                FileUtils.getFiles(root, includes, excludes),
+                discovery.getFilesByProject().get(0),
+                "includes " + includes + ", excludes " + excludes);
+    }
+}
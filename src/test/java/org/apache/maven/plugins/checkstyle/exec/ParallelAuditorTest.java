@@ -0,0 +1,382 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.XMLLogger;
+import com.puppycrawl.tools.checkstyle.api.AbstractFileSetCheck;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.AutomaticBean.OutputStreamOptions;
+import com.puppycrawl.tools.checkstyle.api.CheckstyleException;
+import com.puppycrawl.tools.checkstyle.api.FileText;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevelCounter;
+import org.apache.maven.plugins.checkstyle.CompositeAuditListener;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelAuditorTest {
+    @TempDir
+    Path sourceDirectory;
+
+    private final List<File> files = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        for (int i = 0; i < 12; i++) {
+            Path directory = sourceDirectory.resolve("package" + (i % 4));
+            Files.createDirectories(directory);
+            Path file = directory.resolve("Source" + i + ".java");
+            StringBuilder content = new StringBuilder();
+            for (int line = 0; line < i; line++) {
+                content.append("\t// line ").append(line).append('\n');
+            }
+            Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+            files.add(file.toFile());
+        }
+    }
+
+    @Test
+    public void testSameOutputAsSequentialAudit() throws Exception {
+        ByteArrayOutputStream sequentialOutput = new ByteArrayOutputStream();
+        Checker checker = createChecker();
+        checker.addListener(new XMLLogger(sequentialOutput, OutputStreamOptions.NONE));
+        checker.process(files);
+        checker.destroy();
+
+        List<Checker> checkers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            checkers.add(createChecker());
+        }
+        List<List<File>> units = ParallelAuditor.groupByDirectory(files);
+        assertEquals(4, units.size(), "one unit per directory");
+
+        ByteArrayOutputStream parallelOutput = new ByteArrayOutputStream();
+        ParallelAuditor auditor = new ParallelAuditor(checkers, getClass().getClassLoader());
+        auditor.audit(units, files, new XMLLogger(parallelOutput, OutputStreamOptions.NONE));
+
+        String expected = sequentialOutput.toString("UTF-8");
+        assertTrue(expected.contains("FileTabCharacter"), "violations are reported");
+        assertEquals(expected, parallelOutput.toString("UTF-8"));
+
+        int auditedUnits = 0;
+        long auditedBytes = 0;
+        for (ParallelAuditor.WorkerStatistics statistics : auditor.getStatistics()) {
+            auditedUnits += statistics.getUnits();
+            auditedBytes += statistics.getBytes();
+        }
+        long totalBytes = 0;
+        for (File file : files) {
+            totalBytes += file.length();
+        }
+        assertEquals(units.size(), auditedUnits, "every unit is audited once");
+        assertEquals(totalBytes, auditedBytes);
+    }
+
+    @Test
+    public void testUnbalancedUnits() throws Exception {
+        // one unit large in bytes, but each file takes the same time to audit: the units of the packages are all
+        // scheduled on the other worker, and the worker of the large unit steals them once it is done
+        Path large = sourceDirectory.resolve("large");
+        Files.createDirectories(large);
+        StringBuilder content = new StringBuilder();
+        for (int line = 0; line < 20000; line++) {
+            content.append("\t// line ").append(line).append('\n');
+        }
+        Path largeFile = large.resolve("Large.java");
+        Files.write(largeFile, content.toString().getBytes(StandardCharsets.UTF_8));
+        files.add(largeFile.toFile());
+
+        List<Checker> checkers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            checkers.add(createChecker(SleepingCheck.class.getName()));
+        }
+        List<List<File>> units = ParallelAuditor.groupByDirectory(files);
+        ParallelAuditor auditor = new ParallelAuditor(checkers, getClass().getClassLoader());
+        SleepingCheck.AUDITED_FILES.clear();
+        auditor.audit(units, files, new XMLLogger(new ByteArrayOutputStream(), OutputStreamOptions.NONE));
+
+        List<ParallelAuditor.WorkerStatistics> statistics = auditor.getStatistics();
+        int auditedUnits = 0;
+        for (ParallelAuditor.WorkerStatistics worker : statistics) {
+            auditedUnits += worker.getUnits();
+        }
+        assertEquals(units.size(), auditedUnits, "every unit is audited once");
+
+        String largeThread = null;
+        for (String[] audited : SleepingCheck.AUDITED_FILES) {
+            if (largeFile.toFile().getAbsolutePath().equals(audited[1])) {
+                largeThread = audited[0];
+                break;
+            }
+        }
+        for (String[] audited : SleepingCheck.AUDITED_FILES) {
+            if (audited[0].equals(largeThread)) {
+                assertEquals(largeFile.toFile().getAbsolutePath(), audited[1], "the large unit is started first");
+                break;
+            }
+        }
+
+        ParallelAuditor.WorkerStatistics largeWorker = statistics.get(0);
+        ParallelAuditor.WorkerStatistics otherWorker = statistics.get(1);
+        assertTrue(largeWorker.getBytes() >= Files.size(largeFile), "the large unit is scheduled on the first worker");
+        assertTrue(largeWorker.getStolenUnits() > 0, "the first worker steals the units of the other one");
+        // the large file then 2 units of 3 files for the first worker, 2 units of 3 files for the other one, while
+        // without stealing the first worker would only audit the large file
+        for (ParallelAuditor.WorkerStatistics worker : statistics) {
+            assertTrue(worker.getIdleTime() < worker.getBusyTime(), worker.toString());
+        }
+        assertTrue(largeWorker.getBusyTime() < 2 * otherWorker.getBusyTime(), statistics.toString());
+        assertTrue(otherWorker.getBusyTime() < 2 * largeWorker.getBusyTime(), statistics.toString());
+    }
+
+    @Test
+    public void testAuditWhileDiscovering() throws Exception {
+        List<Checker> checkers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            checkers.add(createChecker());
+        }
+        ByteArrayOutputStream pipelinedOutput = new ByteArrayOutputStream();
+        List<File> discoveredFiles = new ArrayList<>();
+        ParallelAuditor auditor = new ParallelAuditor(checkers, getClass().getClassLoader());
+        auditor.audit(
+                feed -> {
+                    FileDiscovery discovery = new FileDiscovery(new FileDiscovery.Listener() {
+                        @Override
+                        public void fileDiscovered(int project, File file) {
+                            discoveredFiles.add(file);
+                            feed.addFile(file);
+                        }
+
+                        @Override
+                        public void directoryScanned(File directory) {
+                            feed.directoryScanned(directory);
+                        }
+                    });
+                    discovery.scan(sourceDirectory.toFile(), "**/*.java", null);
+                },
+                1,
+                new XMLLogger(pipelinedOutput, OutputStreamOptions.NONE));
+        assertEquals(files.size(), discoveredFiles.size());
+
+        ByteArrayOutputStream sequentialOutput = new ByteArrayOutputStream();
+        Checker checker = createChecker();
+        checker.addListener(new XMLLogger(sequentialOutput, OutputStreamOptions.NONE));
+        checker.process(discoveredFiles);
+        checker.destroy();
+
+        assertEquals(sequentialOutput.toString("UTF-8"), pipelinedOutput.toString("UTF-8"));
+    }
+
+    @Test
+    public void testStopCondition() throws Exception {
+        List<Checker> checkers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            checkers.add(createChecker());
+        }
+        // every file has a single violation
+        SeverityLevelCounter counter = new SeverityLevelCounter(SeverityLevel.ERROR);
+        CountingListener listener = new CountingListener();
+        CompositeAuditListener compositeListener = new CompositeAuditListener();
+        compositeListener.addListener(counter);
+        compositeListener.addListener(listener);
+
+        ParallelAuditor auditor = new ParallelAuditor(checkers, getClass().getClassLoader());
+        auditor.setStopCondition(() -> counter.getCount() >= 5);
+        auditor.audit(ParallelAuditor.groupByDirectory(files), files, compositeListener);
+
+        assertTrue(auditor.isStopped());
+        assertEquals(5, counter.getCount());
+        assertEquals(5, listener.files, "the files are replayed in order until the condition is met");
+        assertEquals(1, listener.finishedAudits);
+    }
+
+    @Test
+    public void testFileTimeout() throws Exception {
+        Path slowFile = sourceDirectory.resolve("package0").resolve("Slow.java");
+        Files.write(slowFile, "\t// slow\n".getBytes(StandardCharsets.UTF_8));
+        files.add(1, slowFile.toFile());
+
+        List<Checker> checkers = new ArrayList<>();
+        checkers.add(createChecker(StallingCheck.class.getName()));
+        CountingListener listener = new CountingListener();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        CompositeAuditListener compositeListener = new CompositeAuditListener();
+        compositeListener.addListener(listener);
+        compositeListener.addListener(new XMLLogger(output, OutputStreamOptions.NONE));
+
+        ParallelAuditor auditor = new ParallelAuditor(checkers, getClass().getClassLoader());
+        auditor.setFileTimeout(200, () -> createChecker(StallingCheck.class.getName()));
+        long start = System.nanoTime();
+        auditor.audit(ParallelAuditor.groupByDirectory(files), files, compositeListener);
+
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(StallingCheck.STALL_MILLIS));
+        assertEquals(Collections.singletonList(slowFile.toFile().getAbsolutePath()), auditor.getTimedOutFiles());
+        assertEquals(checkers, auditor.getAbandonedCheckers());
+        assertEquals(files.size(), listener.files, "the other files of the unit are audited");
+        assertEquals(1, listener.exceptions);
+        assertTrue(output.toString("UTF-8").contains("Abandoned the audit of " + slowFile.toFile().getAbsolutePath()));
+    }
+
+    @Test
+    public void testIncrementalStoreReplaysUnchangedUnits() throws Exception {
+        ByteArrayOutputStream sequentialOutput = new ByteArrayOutputStream();
+        Checker checker = createChecker();
+        checker.addListener(new XMLLogger(sequentialOutput, OutputStreamOptions.NONE));
+        checker.process(files);
+        checker.destroy();
+
+        File storeFile = sourceDirectory.resolve("store").resolve("incremental").toFile();
+        List<List<File>> units = ParallelAuditor.groupByDirectory(files);
+
+        ChangeDetector changeDetector = new ChangeDetector(1);
+        IncrementalAuditStore store =
+                new IncrementalAuditStore(storeFile, "fingerprint", getClass().getClassLoader(), changeDetector);
+        assertEquals(0, store.load(), "no store yet");
+        ParallelAuditor auditor =
+                new ParallelAuditor(Collections.singletonList(createChecker()), getClass().getClassLoader());
+        auditor.setUnitStore(store);
+        auditor.audit(units, files, new CountingListener());
+        assertEquals(0, auditor.getStoredUnits());
+        store.persist();
+
+        store = new IncrementalAuditStore(storeFile, "fingerprint", getClass().getClassLoader(), changeDetector);
+        assertEquals(units.size(), store.load());
+        ByteArrayOutputStream replayedOutput = new ByteArrayOutputStream();
+        auditor = new ParallelAuditor(Collections.singletonList(createChecker()), getClass().getClassLoader());
+        auditor.setUnitStore(store);
+        auditor.audit(units, files, new XMLLogger(replayedOutput, OutputStreamOptions.NONE));
+        assertEquals(units.size(), auditor.getStoredUnits(), "every unit is replayed");
+        assertEquals(sequentialOutput.toString("UTF-8"), replayedOutput.toString("UTF-8"));
+
+        Files.write(files.get(0).toPath(), "class Changed {}\n".getBytes(StandardCharsets.UTF_8));
+        store = new IncrementalAuditStore(storeFile, "fingerprint", getClass().getClassLoader(), changeDetector);
+        store.load();
+        auditor = new ParallelAuditor(Collections.singletonList(createChecker()), getClass().getClassLoader());
+        auditor.setUnitStore(store);
+        auditor.audit(units, files, new CountingListener());
+        assertEquals(units.size() - 1, auditor.getStoredUnits(), "the changed unit is audited again");
+
+        store = new IncrementalAuditStore(
+                storeFile, "other fingerprint", getClass().getClassLoader(), changeDetector);
+        assertEquals(0, store.load(), "the store is discarded when the fingerprint changes");
+    }
+
+    private Checker createChecker(String... extraModules) throws Exception {
+        DefaultConfiguration configuration = new DefaultConfiguration("Checker");
+        configuration.addChild(new DefaultConfiguration("FileTabCharacter"));
+        configuration.addChild(new DefaultConfiguration("NewlineAtEndOfFile"));
+        for (String module : extraModules) {
+            configuration.addChild(new DefaultConfiguration(module));
+        }
+
+        Checker checker = new Checker();
+        checker.setModuleClassLoader(getClass().getClassLoader());
+        checker.configure(configuration);
+        return checker;
+    }
+
+    private static class CountingListener implements AuditListener {
+        private int files;
+
+        private int finishedAudits;
+
+        private int exceptions;
+
+        @Override
+        public void auditStarted(AuditEvent event) {}
+
+        @Override
+        public void auditFinished(AuditEvent event) {
+            finishedAudits++;
+        }
+
+        @Override
+        public void fileStarted(AuditEvent event) {}
+
+        @Override
+        public void fileFinished(AuditEvent event) {
+            files++;
+        }
+
+        @Override
+        public void addError(AuditEvent event) {}
+
+        @Override
+        public void addException(AuditEvent event, Throwable throwable) {
+            exceptions++;
+        }
+    }
+
+    /**
+     * Check taking the same time to audit any file, whatever its size, recording the thread auditing each file.
+     */
+    public static class SleepingCheck extends AbstractFileSetCheck {
+        static final List<String[]> AUDITED_FILES = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        protected void processFiltered(File file, FileText fileText) throws CheckstyleException {
+            AUDITED_FILES.add(new String[] {Thread.currentThread().getName(), file.getAbsolutePath()});
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CheckstyleException("interrupted", e);
+            }
+        }
+    }
+
+    /**
+     * Check stalling on the files named <code>Slow.java</code>, whatever the interruptions.
+     */
+    public static class StallingCheck extends AbstractFileSetCheck {
+        static final long STALL_MILLIS = 5000;
+
+        @Override
+        protected void processFiltered(File file, FileText fileText) {
+            if ("Slow.java".equals(file.getName())) {
+                long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STALL_MILLIS);
+                while (System.nanoTime() < end) {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        // stuck anyway
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.util.Collections;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ProjectAuditRouterTest {
+    @Test
+    public void testEventsAreSentToTheProjectOfTheFile() {
+        File moduleA = new File("module-a/src/main/java");
+        File moduleB = new File("module-b/src/main/java");
+        File fileA = new File(moduleA, "A.java");
+        File fileB = new File(moduleB, "B.java");
+
+        CheckstyleCheckerListener fallbackListener = new CheckstyleCheckerListener(moduleA.getAbsoluteFile());
+        fallbackListener.addSourceDirectory(moduleB.getAbsoluteFile());
+        CheckstyleCheckerListener listenerA = new CheckstyleCheckerListener(moduleA.getAbsoluteFile());
+        CheckstyleCheckerListener listenerB = new CheckstyleCheckerListener(moduleB.getAbsoluteFile());
+
+        ProjectAuditRouter router = new ProjectAuditRouter(fallbackListener);
+        router.addProject(listenerA, Collections.singletonList(fileA));
+        router.addProject(listenerB, Collections.singletonList(fileB));
+
+        router.auditStarted(new AuditEvent(this));
+        audit(router, fileA);
+        audit(router, fileB);
+        audit(router, new File(moduleB, "C.java"));
+        router.auditFinished(new AuditEvent(this));
+
+        assertEquals(Collections.singleton("A.java"), listenerA.getResults().getFiles().keySet());
+        assertEquals(Collections.singleton("B.java"), listenerB.getResults().getFiles().keySet());
+        assertEquals(Collections.singleton("C.java"), fallbackListener.getResults().getFiles().keySet());
+        assertEquals(1, listenerB.getResults().getSeverityCount(SeverityLevel.WARNING));
+    }
+
+    private void audit(ProjectAuditRouter router, File file) {
+        String fileName = file.getAbsolutePath();
+        router.fileStarted(new AuditEvent(this, fileName));
+        Violation violation = new Violation(0, 0, "", "", null, SeverityLevel.WARNING, null, getClass(), null);
+        router.addError(new AuditEvent(this, fileName, violation));
+        router.fileFinished(new AuditEvent(this, fileName));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.codehaus.plexus.resource.PlexusResource;
+import org.codehaus.plexus.resource.ResourceManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ResourceCacheTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testUnchangedResourceIsNotResolvedAgain() throws Exception {
+        File configFile = write(directory.resolve("config").resolve("checkstyle.xml"), "<module name=\"Checker\"/>");
+        PlexusResource resource = Mockito.mock(PlexusResource.class);
+        Mockito.when(resource.getFile()).thenReturn(configFile);
+        ResourceManager locator = Mockito.mock(ResourceManager.class);
+        Mockito.when(locator.getResource("checkstyle.xml")).thenReturn(resource);
+        File outputDirectory = directory.resolve("target").toFile();
+
+        ResourceCache cache = new ResourceCache();
+        File output = cache.getResourceAsFile(locator, "paths", "checkstyle.xml", outputDirectory, "checker.xml");
+        assertEquals("<module name=\"Checker\"/>", read(output));
+        output.setLastModified(1000000L);
+        cache.getResourceAsFile(locator, "paths", "checkstyle.xml", outputDirectory, "checker.xml");
+        Mockito.verify(locator, Mockito.times(1)).getResource("checkstyle.xml");
+        assertEquals(1000000L, output.lastModified(), "an unchanged copy is not written again");
+
+        cache.getResourceAsFile(locator, "other paths", "checkstyle.xml", outputDirectory, "checker.xml");
+        Mockito.verify(locator, Mockito.times(2)).getResource("checkstyle.xml");
+
+        write(configFile.toPath(), "<module name=\"Checker\"></module>");
+        cache.getResourceAsFile(locator, "paths", "checkstyle.xml", outputDirectory, "checker.xml");
+        Mockito.verify(locator, Mockito.times(3)).getResource("checkstyle.xml");
+        assertEquals("<module name=\"Checker\"></module>", read(output));
+    }
+
+    @Test
+    public void testRemoteResourceIsCopied() throws Exception {
+        PlexusResource resource = Mockito.mock(PlexusResource.class);
+        Mockito.when(resource.getInputStream())
+                .thenReturn(new ByteArrayInputStream("header".getBytes(StandardCharsets.UTF_8)));
+        ResourceManager locator = Mockito.mock(ResourceManager.class);
+        Mockito.when(locator.getResource("https://example.com/header.txt")).thenReturn(resource);
+
+        ResourceCache cache = new ResourceCache();
+        for (String module : new String[] {"module1", "module2"}) {
+            File output = cache.getResourceAsFile(
+                    locator,
+                    "paths",
+                    "https://example.com/header.txt",
+                    directory.resolve(module).toFile(),
+                    "header.txt");
+            assertEquals("header", read(output));
+        }
+        Mockito.verify(locator, Mockito.times(1)).getResource("https://example.com/header.txt");
+    }
+
+    @Test
+    public void testParsedFormIsKeptByContent() throws Exception {
+        File first = write(directory.resolve("module1").resolve("suppressions.xml"), "<suppressions/>");
+        File second = write(directory.resolve("module2").resolve("suppressions.xml"), "<suppressions/>");
+        AtomicInteger parses = new AtomicInteger();
+        ResourceCache.Parser<Object, RuntimeException> parser = file -> {
+            parses.incrementAndGet();
+            return new Object();
+        };
+
+        ResourceCache cache = new ResourceCache();
+        Object parsedForm = cache.getParsedForm("suppressions", first, parser);
+        assertSame(parsedForm, cache.getParsedForm("suppressions", second, parser), "same content");
+        assertNotSame(parsedForm, cache.getParsedForm("properties", second, parser), "another parser");
+
+        write(second.toPath(), "<suppressions></suppressions>");
+        assertNotSame(parsedForm, cache.getParsedForm("suppressions", second, parser), "changed content");
+        assertEquals(3, parses.get());
+    }
+
+    private static File write(Path path, String content) throws Exception {
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path.toFile();
+    }
+
+    private static String read(File file) throws Exception {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+}
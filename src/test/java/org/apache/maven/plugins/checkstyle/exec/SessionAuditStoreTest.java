@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+import com.puppycrawl.tools.checkstyle.api.Violation;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionAuditStoreTest {
+    private static final long LAST_WEEK = System.currentTimeMillis() - 7 * 24 * 3600 * 1000L;
+
+    @TempDir
+    Path directory;
+
+    private File sourceDirectory;
+
+    private List<File> sourceFiles;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        sourceDirectory = directory.resolve("src").toFile();
+        sourceFiles = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Path sourceFile = sourceDirectory.toPath().resolve("Source" + i + ".java");
+            sourceFiles.add(write(sourceFile, "class Source" + i + " {}"));
+        }
+        sourceDirectory.setLastModified(LAST_WEEK);
+    }
+
+    @Test
+    public void testEquivalentAuditIsReplayed() throws Exception {
+        MavenProject project = new MavenProject();
+        SessionAuditStore store = new SessionAuditStore();
+        assertNull(store.take(project, "key", 2));
+
+        SessionAuditStore.Audit audit = record("key");
+        assertTrue(audit.complete(
+                Collections.singletonList(sourceDirectory), sourceFiles, Collections.<File>emptyList(), 2));
+        store.put(project, audit);
+
+        assertNull(store.take(new MavenProject(), "key", 2), "other project");
+        assertSame(audit, store.take(project, "key", 2));
+        assertNull(store.take(project, "key", 2), "replayed once");
+
+        List<String> events = new ArrayList<>();
+        audit.replay(new EventLog(events));
+        List<String> expected = new ArrayList<>();
+        expected.add("auditStarted");
+        for (File sourceFile : sourceFiles) {
+            expected.add("fileStarted " + sourceFile.getName());
+            expected.add("addError " + sourceFile.getName() + ":1:2 Line is too long");
+            expected.add("fileFinished " + sourceFile.getName());
+        }
+        expected.add("auditFinished");
+        assertEquals(expected, events);
+        audit.close();
+    }
+
+    @Test
+    public void testChangedAuditIsReleased() throws Exception {
+        MavenProject project = new MavenProject();
+        SessionAuditStore store = new SessionAuditStore();
+        store.put(project, completeAudit("key"));
+        assertNull(store.take(project, "other key", 2), "other inputs");
+        assertNull(store.take(project, "key", 2), "released");
+
+        // touched, but with the same content
+        store.put(project, completeAudit("key"));
+        sourceFiles.get(0).setLastModified(LAST_WEEK + 1000);
+        SessionAuditStore.Audit audit = store.take(project, "key", 2);
+        assertNotNull(audit);
+        audit.close();
+
+        store.put(project, completeAudit("key"));
+        write(sourceFiles.get(1).toPath(), "class Changed {}\n");
+        assertNull(store.take(project, "key", 2), "changed source");
+    }
+
+    @Test
+    public void testViolationIsReplayed() throws Exception {
+        SessionAuditStore.Audit audit = new SessionAuditStore.Audit("key", 1, directory.toFile());
+        String fileName = sourceFiles.get(0).getAbsolutePath();
+        audit.fileStarted(new AuditEvent(this, fileName));
+        audit.addError(new AuditEvent(this, fileName, violation(3, 4)));
+        audit.addError(new AuditEvent(this, fileName, violation(5, 6)));
+        audit.fileFinished(new AuditEvent(this, fileName));
+
+        List<AuditEvent> events = new ArrayList<>();
+        audit.replay(new EventLog(new ArrayList<>()) {
+            @Override
+            public void addError(AuditEvent event) {
+                events.add(event);
+            }
+        });
+        audit.close();
+
+        assertEquals(2, events.size());
+        assertEquals(fileName, events.get(1).getFileName());
+        assertEquals(5, events.get(1).getLine());
+        assertEquals(6, events.get(1).getColumn());
+        assertEquals("Line is too long", events.get(1).getMessage());
+        assertEquals(SeverityLevel.WARNING, events.get(1).getSeverityLevel());
+        assertEquals(getClass().getName(), events.get(1).getSourceName());
+    }
+
+    @Test
+    public void testAuditWithExceptionIsNotKept() throws Exception {
+        SessionAuditStore.Audit audit = record("key");
+        audit.addException(
+                new AuditEvent(this, sourceFiles.get(0).getAbsolutePath()), new IllegalStateException("failed"));
+        assertFalse(audit.complete(
+                Collections.singletonList(sourceDirectory), sourceFiles, Collections.<File>emptyList(), 2));
+    }
+
+    @Test
+    public void testAddedFileIsDetected() throws Exception {
+        MavenProject project = new MavenProject();
+        SessionAuditStore store = new SessionAuditStore();
+        SessionAuditStore.Audit audit = record("key");
+        assertTrue(audit.complete(
+                Collections.singletonList(sourceDirectory), sourceFiles, Collections.<File>emptyList(), 2));
+        store.put(project, audit);
+
+        write(sourceDirectory.toPath().resolve("Added.java"), "class Added {}");
+        sourceDirectory.setLastModified(LAST_WEEK + 1000);
+        assertNull(store.take(project, "key", 2));
+    }
+
+    @Test
+    public void testFileModifiedDuringAuditIsNotKept() throws Exception {
+        SessionAuditStore.Audit audit = record("key");
+        sourceFiles.get(2).setLastModified(System.currentTimeMillis());
+        assertFalse(audit.complete(
+                Collections.singletonList(sourceDirectory), sourceFiles, Collections.<File>emptyList(), 2));
+    }
+
+    private SessionAuditStore.Audit completeAudit(String key) {
+        SessionAuditStore.Audit audit = record(key);
+        assertTrue(audit.complete(
+                Collections.singletonList(sourceDirectory), sourceFiles, Collections.<File>emptyList(), 2));
+        return audit;
+    }
+
+    private SessionAuditStore.Audit record(String key) {
+        SessionAuditStore.Audit audit = new SessionAuditStore.Audit(key);
+        audit.auditStarted(new AuditEvent(this));
+        for (File sourceFile : sourceFiles) {
+            AuditEvent event = new AuditEvent(this, sourceFile.getAbsolutePath());
+            audit.fileStarted(event);
+            audit.addError(new AuditEvent(this, sourceFile.getAbsolutePath(), violation(1, 2)));
+            audit.fileFinished(event);
+        }
+        audit.auditFinished(new AuditEvent(this));
+        return audit;
+    }
+
+    private Violation violation(int line, int column) {
+        return new Violation(
+                line, column, null, "line.too.long", null, SeverityLevel.WARNING, null, getClass(), "Line is too long");
+    }
+
+    private static File write(Path path, String content) throws Exception {
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        File file = path.toFile();
+        file.setLastModified(LAST_WEEK);
+        return file;
+    }
+
+    private static class EventLog implements AuditListener {
+        private final List<String> events;
+
+        EventLog(List<String> events) {
+            this.events = events;
+        }
+
+        @Override
+        public void auditStarted(AuditEvent event) {
+            events.add("auditStarted");
+        }
+
+        @Override
+        public void auditFinished(AuditEvent event) {
+            events.add("auditFinished");
+        }
+
+        @Override
+        public void fileStarted(AuditEvent event) {
+            events.add("fileStarted " + new File(event.getFileName()).getName());
+        }
+
+        @Override
+        public void fileFinished(AuditEvent event) {
+            events.add("fileFinished " + new File(event.getFileName()).getName());
+        }
+
+        @Override
+        public void addError(AuditEvent event) {
+            events.add("addError " + new File(event.getFileName()).getName() + ":" + event.getLine() + ":"
+                    + event.getColumn() + " " + event.getMessage());
+        }
+
+        @Override
+        public void addException(AuditEvent event, Throwable throwable) {
+            events.add("addException " + new File(event.getFileName()).getName());
+        }
+    }
+}
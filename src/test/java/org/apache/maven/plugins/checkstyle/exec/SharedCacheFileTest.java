@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SharedCacheFileTest {
+    @TempDir
+    Path directory;
+
+    private final ChangeDetector changeDetector = new ChangeDetector(2);
+
+    @Test
+    public void testConcurrentExecutions() throws Exception {
+        File file = directory.resolve("shared-cache").toFile();
+        List<String> fileNames = createFiles(directory.resolve("workspace"), 50);
+        File basedir = directory.resolve("workspace").toFile();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> executions = new ArrayList<>();
+            for (int module = 0; module < 8; module++) {
+                String fingerprint = "configuration" + (module % 2);
+                String prefix = "module" + module + "/";
+                executions.add(executor.submit(() -> {
+                    SharedCacheFile cache = new SharedCacheFile(file, fingerprint, basedir, prefix, changeDetector);
+                    cache.load();
+                    for (String fileName : fileNames) {
+                        cache.put(fileName, 0);
+                    }
+                    cache.remove(fileNames.get(0));
+                    cache.persist();
+                    return null;
+                }));
+            }
+            for (Future<?> execution : executions) {
+                execution.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int module = 0; module < 8; module++) {
+            String prefix = "module" + module + "/";
+            SharedCacheFile cache =
+                    new SharedCacheFile(file, "configuration" + (module % 2), basedir, prefix, changeDetector);
+            cache.load();
+            assertFalse(cache.isInCache(fileNames.get(0), 0), "removed entry");
+            for (String fileName : fileNames.subList(1, fileNames.size())) {
+                assertTrue(cache.isInCache(fileName, 0), "entry " + prefix + fileName + " is kept");
+            }
+            SharedCacheFile other =
+                    new SharedCacheFile(file, "configuration" + ((module + 1) % 2), basedir, "other/", changeDetector);
+            other.load();
+            assertFalse(other.isInCache(fileNames.get(1), 0), "entries are kept by configuration");
+        }
+    }
+
+    @Test
+    public void testRelocatedWorkspace() throws IOException {
+        File file = directory.resolve("shared-cache").toFile();
+        List<String> fileNames = createFiles(directory.resolve("agent1"), 3);
+        File agent1 = directory.resolve("agent1").toFile();
+        SharedCacheFile cache = new SharedCacheFile(file, "configuration", agent1, "g:a/", changeDetector);
+        cache.load();
+        for (String fileName : fileNames) {
+            cache.put(fileName, 1);
+        }
+        cache.persist();
+        assertEquals("g:a/src/Source1.java", cache.getKey(fileNames.get(1)));
+
+        List<String> relocatedNames = createFiles(directory.resolve("agent2"), 3);
+        Files.write(Paths.get(relocatedNames.get(2)), "changed".getBytes(StandardCharsets.UTF_8));
+        for (String relocatedName : relocatedNames) {
+            new File(relocatedName).setLastModified(1000000L);
+        }
+        File agent2 = directory.resolve("agent2").toFile();
+        cache = new SharedCacheFile(file, "configuration", agent2, "g:a/", changeDetector);
+        cache.load();
+        assertTrue(cache.isInCache(relocatedNames.get(0), 2), "same content, whatever the location and timestamp");
+        assertTrue(cache.isInCache(relocatedNames.get(1), 2));
+        assertFalse(cache.isInCache(relocatedNames.get(2), 1), "changed content");
+    }
+
+    @Test
+    public void testTruncatedEntryIsIgnored() throws IOException {
+        File file = directory.resolve("shared-cache").toFile();
+        File basedir = directory.resolve("workspace").toFile();
+        List<String> fileNames = createFiles(basedir.toPath(), 3);
+        SharedCacheFile cache = new SharedCacheFile(file, "configuration", basedir, "", changeDetector);
+        cache.load();
+        cache.put(fileNames.get(0), 1);
+        cache.put(fileNames.get(1), 1);
+        cache.persist();
+        try (RandomAccessFile content = new RandomAccessFile(file, "rw")) {
+            content.setLength(content.length() - 3);
+        }
+
+        cache = new SharedCacheFile(file, "configuration", basedir, "", changeDetector);
+        cache.load();
+        assertTrue(
+                cache.isInCache(fileNames.get(0), 1) ^ cache.isInCache(fileNames.get(1), 1),
+                "only the last entry is lost");
+        cache.put(fileNames.get(2), 1);
+        cache.persist();
+
+        cache = new SharedCacheFile(file, "configuration", basedir, "", changeDetector);
+        cache.load();
+        assertTrue(cache.isInCache(fileNames.get(2), 1), "the truncated entry is overwritten");
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        File file = directory.resolve("shared-cache").toFile();
+        File basedir = directory.resolve("workspace").toFile();
+        List<String> fileNames = createFiles(basedir.toPath(), 100);
+        long runLength = 0;
+        for (int run = 0; run < 30; run++) {
+            SharedCacheFile cache = new SharedCacheFile(file, "configuration", basedir, "", changeDetector);
+            cache.load();
+            for (String fileName : fileNames) {
+                Files.write(Paths.get(fileName), ("run " + run).getBytes(StandardCharsets.UTF_8));
+                new File(fileName).setLastModified(1000000L * run);
+                cache.put(fileName, run);
+            }
+            cache.persist();
+            if (run == 0) {
+                runLength = file.length();
+            }
+        }
+
+        SharedCacheFile cache = new SharedCacheFile(file, "configuration", basedir, "", changeDetector);
+        cache.load();
+        assertTrue(cache.isInCache(fileNames.get(99), 29));
+        assertTrue(file.length() < 12 * runLength, "the log is compacted: " + file.length());
+    }
+
+    @Test
+    public void testCompactionDropsStaleFingerprints() throws IOException {
+        File file = directory.resolve("shared-cache").toFile();
+        File basedir = directory.resolve("workspace").toFile();
+        File otherBasedir = directory.resolve("other").toFile();
+        List<String> fileNames = createFiles(basedir.toPath(), 100);
+        List<String> otherFileNames = createFiles(otherBasedir.toPath(), 10);
+
+        SharedCacheFile other = new SharedCacheFile(file, "other", otherBasedir, "g:other/", changeDetector);
+        other.load();
+        for (String fileName : otherFileNames) {
+            other.put(fileName, 1);
+        }
+        other.persist();
+
+        long runLength = 0;
+        for (int run = 0; run < 30; run++) {
+            // the configuration changes at each run
+            SharedCacheFile cache = new SharedCacheFile(file, "configuration" + run, basedir, "g:a/", changeDetector);
+            cache.load();
+            for (String fileName : fileNames) {
+                cache.put(fileName, run);
+            }
+            cache.persist();
+            if (run == 0) {
+                runLength = file.length();
+            }
+        }
+        assertTrue(file.length() < 12 * runLength, "the log is compacted: " + file.length());
+
+        SharedCacheFile cache = new SharedCacheFile(file, "configuration0", basedir, "g:a/", changeDetector);
+        cache.load();
+        assertFalse(cache.isInCache(fileNames.get(0), 1), "the entries of a changed configuration are dropped");
+        cache = new SharedCacheFile(file, "configuration29", basedir, "g:a/", changeDetector);
+        cache.load();
+        assertTrue(cache.isInCache(fileNames.get(0), 1));
+        other = new SharedCacheFile(file, "other", otherBasedir, "g:other/", changeDetector);
+        other.load();
+        assertTrue(other.isInCache(otherFileNames.get(0), 1), "the entries of another module are kept");
+    }
+
+    private static List<String> createFiles(Path basedir, int count) throws IOException {
+        Path sourceDirectory = basedir.resolve("src");
+        Files.createDirectories(sourceDirectory);
+        List<String> fileNames = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Path file = sourceDirectory.resolve("Source" + i + ".java");
+            Files.write(file, ("class Source" + i + " {}").getBytes(StandardCharsets.UTF_8));
+            fileNames.add(file.toAbsolutePath().toString());
+        }
+        return fileNames;
+    }
+}
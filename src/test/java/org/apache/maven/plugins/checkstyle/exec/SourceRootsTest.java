@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SourceRootsTest {
+    @Test
+    public void testSourceDirectoryIsFound() {
+        SourceRoots sourceRoots = new SourceRoots();
+        sourceRoots.add(new File("/project/src/main/java"));
+        sourceRoots.add(new File("/project/src/test/java"));
+        sourceRoots.add(new File("/project/src/main/java/generated"));
+        sourceRoots.add(new File("/project"));
+
+        assertEquals("/project/src/main/java/".length(), sourceRoots.getPrefixLength("/project/src/main/java/A.java"));
+        assertEquals("/project/src/test/java/".length(), sourceRoots.getPrefixLength("/project/src/test/java/B.java"));
+        assertEquals(
+                "/project/src/main/java/".length(),
+                sourceRoots.getPrefixLength("/project/src/main/java/generated/C.java"),
+                "the first source directory added is used");
+        assertEquals("/project/".length(), sourceRoots.getPrefixLength("/project/src/main/resources/a.properties"));
+        assertEquals(0, sourceRoots.getPrefixLength("/project2/src/main/java/A.java"));
+        assertEquals(0, sourceRoots.getPrefixLength("/project"));
+        assertEquals(0, sourceRoots.getPrefixLength("/other/A.java"));
+    }
+
+    @Test
+    public void testSeparatorsAreNormalized() {
+        SourceRoots sourceRoots = new SourceRoots();
+        sourceRoots.add(new File("C:\\project\\src\\main\\java"));
+
+        assertEquals(
+                "C:\\project\\src\\main\\java\\".length(),
+                sourceRoots.getPrefixLength("C:\\project\\src\\main\\java\\org\\A.java"));
+        assertEquals(
+                "C:/project/src/main/java/".length(), sourceRoots.getPrefixLength("C:/project/src/main/java/A.java"));
+    }
+}
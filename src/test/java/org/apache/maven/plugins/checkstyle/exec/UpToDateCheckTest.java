@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.maven.plugins.checkstyle.exec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UpToDateCheckTest {
+    private static final long LAST_WEEK = System.currentTimeMillis() - 7 * 24 * 3600 * 1000L;
+
+    @TempDir
+    Path directory;
+
+    private File stateFile;
+
+    private File resultFile;
+
+    private File configFile;
+
+    private File sourceDirectory;
+
+    private List<File> sourceFiles;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        stateFile = directory.resolve("target").resolve("checkstyle-up-to-date").toFile();
+        resultFile = directory.resolve("target").resolve("checkstyle-result.xml").toFile();
+        configFile = write(directory.resolve("checkstyle.xml"), "<module name=\"Checker\"/>");
+        sourceDirectory = directory.resolve("src").toFile();
+        sourceFiles = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Path sourceFile = sourceDirectory.toPath().resolve("Source" + i + ".java");
+            sourceFiles.add(write(sourceFile, "class Source" + i + " {}"));
+        }
+        sourceDirectory.setLastModified(LAST_WEEK);
+    }
+
+    @Test
+    public void testUnchangedModuleIsUpToDate() throws IOException {
+        assertFalse(createCheck("1").isUpToDate(resultFile), "no previous audit");
+        audit(createCheck("1"));
+
+        assertTrue(createCheck("1").isUpToDate(resultFile));
+        assertFalse(createCheck("2").isUpToDate(resultFile), "changed input");
+
+        // touched, but with the same content
+        sourceFiles.get(0).setLastModified(LAST_WEEK + 1000);
+        configFile.setLastModified(LAST_WEEK + 1000);
+        assertTrue(createCheck("1").isUpToDate(resultFile));
+    }
+
+    @Test
+    public void testChangedFilesAreDetected() throws IOException {
+        audit(createCheck("1"));
+
+        write(sourceFiles.get(1).toPath(), "class Changed {}").setLastModified(LAST_WEEK + 1000);
+        assertFalse(createCheck("1").isUpToDate(resultFile), "changed source");
+        audit(createCheck("1"));
+        assertTrue(createCheck("1").isUpToDate(resultFile));
+
+        write(configFile.toPath(), "<module name=\"Checker\"></module>").setLastModified(LAST_WEEK + 1000);
+        assertFalse(createCheck("1").isUpToDate(resultFile), "changed configuration");
+        audit(createCheck("1"));
+
+        write(sourceDirectory.toPath().resolve("Added.java"), "class Added {}");
+        sourceDirectory.setLastModified(LAST_WEEK + 1000);
+        assertFalse(createCheck("1").isUpToDate(resultFile), "added source");
+        audit(createCheck("1"));
+
+        write(resultFile.toPath(), "<checkstyle></checkstyle>").setLastModified(LAST_WEEK + 1000);
+        assertFalse(createCheck("1").isUpToDate(resultFile), "changed result file");
+    }
+
+    @Test
+    public void testIncompleteAuditIsNotRecorded() throws IOException {
+        audit(createCheck("1"));
+
+        UpToDateCheck check = createCheck("1");
+        check.auditStarted();
+        assertFalse(check.record(resultFile), "the audit did not finish");
+        assertFalse(createCheck("1").isUpToDate(resultFile));
+
+        check = createCheck("1");
+        check.auditStarted();
+        write(sourceFiles.get(2).toPath(), "class Changed {}");
+        sourceFiles.get(2).setLastModified(System.currentTimeMillis());
+        check.auditFinished(Collections.singletonList(sourceDirectory), sourceFiles, Collections.<File>emptyList());
+        assertFalse(check.record(resultFile), "a file was modified during the audit");
+    }
+
+    private UpToDateCheck createCheck(String input) {
+        return new UpToDateCheck(stateFile, 2).addInput("input", input).addInputFile(configFile);
+    }
+
+    private void audit(UpToDateCheck check) throws IOException {
+        check.auditStarted();
+        write(resultFile.toPath(), "<checkstyle>" + System.nanoTime() + "</checkstyle>");
+        List<File> files = new ArrayList<>();
+        File[] listedFiles = sourceDirectory.listFiles();
+        if (listedFiles != null) {
+            Collections.addAll(files, listedFiles);
+        }
+        check.auditFinished(Collections.singletonList(sourceDirectory), files, Collections.<File>emptyList());
+        assertTrue(check.record(resultFile));
+    }
+
+    private static File write(Path path, String content) throws IOException {
+        Files.createDirectories(path.getParent());
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        File file = path.toFile();
+        file.setLastModified(LAST_WEEK);
+        file.getParentFile().setLastModified(LAST_WEEK);
+        return file;
+    }
+}